@@ -11,7 +11,9 @@ public interface GameSession {
 
     /**
      * Returns list of moves available in this game. Only
-     * values returned here are allowed to be used as valid move
+     * values returned here are allowed to be used as valid move.
+     * Moves are ordered by their ordinals, so index of move in this
+     * list is the same as its ordinal on the server
      */
     List<String> getAvailableMoves();
 
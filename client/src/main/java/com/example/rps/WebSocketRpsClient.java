@@ -1,12 +1,14 @@
 package com.example.rps;
 
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
 import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -31,21 +33,39 @@ public class WebSocketRpsClient implements RpsClient {
 
     private int responseTimeout;
 
+    private final boolean binary;
+
     public WebSocketRpsClient() {
         this(3);
     }
 
     public WebSocketRpsClient(int responseTimeout) {
+        this(responseTimeout, false);
+    }
+
+    /**
+     * @param binary whether game updates should be received in {@link BinaryCodec binary format} instead of JSON
+     */
+    public WebSocketRpsClient(int responseTimeout, boolean binary) {
         this.responseTimeout = responseTimeout;
+        this.binary = binary;
         client = new WebSocketStompClient(new SockJsClient(
             Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()))));
-        client.setMessageConverter(new MappingJackson2MessageConverter());
     }
 
     @Override
     public void connect(String host, int port) {
         String endpoint = "ws://" + host + ":" + port + "/ws";
-        session = waitForResponse(client.connect(endpoint, new StompSessionHandlerAdapter() {
+        StompHeaders connectHeaders = new StompHeaders();
+        if (binary) {
+            // Decoder keeps strings interned by the session, so it can't be reused by the next one
+            client.setMessageConverter(new CompositeMessageConverter(Arrays.asList(
+                new BinaryMessageConverter(), new MappingJackson2MessageConverter())));
+            connectHeaders.add(BinaryCodec.FORMAT_HEADER, BinaryCodec.FORMAT_BINARY);
+        } else {
+            client.setMessageConverter(new MappingJackson2MessageConverter());
+        }
+        session = waitForResponse(client.connect(endpoint, new WebSocketHttpHeaders(), connectHeaders, new StompSessionHandlerAdapter() {
         }), "Failed to connect to server on endpoint:" + endpoint);
     }
 
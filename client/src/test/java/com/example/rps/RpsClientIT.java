@@ -115,32 +115,12 @@ public class RpsClientIT {
 
     @Test(timeout = 5000)
     public void twoPlayersCanPlay() throws Exception {
-        connect();
-
-        client.newGame("game");
-
-        Thread.sleep(50);
-
-        GameSession session1 = client.joinGame("game", "player1");
-        GameSession session2 = client.joinGame("game", "player2");
-
-        CompletableFuture<RoundResult> rr1f = new CompletableFuture<>();
-        CompletableFuture<RoundResult> rr2f = new CompletableFuture<>();
-
-        session1.onRoundResult(rr1f::complete);
-        session2.onRoundResult(rr2f::complete);
-
-        session1.makeMove("rock");
-        session2.makeMove("scissors");
-
-        RoundResult rr1 = rr1f.get();
-        RoundResult rr2 = rr2f.get();
-
-        assertThat(rr1.getRoundNumber()).isEqualTo(1);
-        assertThat(rr1.getWinnerIds()).isEqualTo(Arrays.asList("player1"));
+        twoPlayersShouldPlayRound(client);
+    }
 
-        assertThat(rr2.getRoundNumber()).isEqualTo(1);
-        assertThat(rr2.getWinnerIds()).isEqualTo(Arrays.asList("player1"));
+    @Test(timeout = 5000)
+    public void twoPlayersCanPlayOverBinaryFormat() throws Exception {
+        twoPlayersShouldPlayRound(new WebSocketRpsClient(3, true));
     }
 
     @Test
@@ -211,6 +191,35 @@ public class RpsClientIT {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    private void twoPlayersShouldPlayRound(RpsClient client) throws Exception {
+        connect(client);
+
+        client.newGame("game");
+
+        Thread.sleep(50);
+
+        GameSession session1 = client.joinGame("game", "player1");
+        GameSession session2 = client.joinGame("game", "player2");
+
+        CompletableFuture<RoundResult> rr1f = new CompletableFuture<>();
+        CompletableFuture<RoundResult> rr2f = new CompletableFuture<>();
+
+        session1.onRoundResult(rr1f::complete);
+        session2.onRoundResult(rr2f::complete);
+
+        session1.makeMove("rock");
+        session2.makeMove("scissors");
+
+        RoundResult rr1 = rr1f.get();
+        RoundResult rr2 = rr2f.get();
+
+        assertThat(rr1.getRoundNumber()).isEqualTo(1);
+        assertThat(rr1.getWinnerIds()).isEqualTo(Arrays.asList("player1"));
+
+        assertThat(rr2.getRoundNumber()).isEqualTo(1);
+        assertThat(rr2.getWinnerIds()).isEqualTo(Arrays.asList("player1"));
+    }
+
     private void connect() {
         connect(client);
     }
@@ -0,0 +1,356 @@
+package com.example.rps;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary format of game messages, alternative to JSON for clients which negotiate it by sending
+ * {@link #FORMAT_HEADER} with {@link #FORMAT_BINARY} value in STOMP CONNECT frame. Numbers are written as
+ * varints and strings like player IDs and moves are interned: string is sent once per session and
+ * referenced by its index afterwards. Because of interning frames of the session must be decoded in the
+ * order they were encoded, every session needs its own {@link Encoder} and {@link Decoder}. {@link Command Commands}
+ * are sent by clients of raw WebSocket endpoint in the same format, server decodes them with
+ * {@link Decoder#decodeCommand(byte[])}, which rejects any other frames
+ *
+ * @author Beka Tsotsoria
+ */
+public final class BinaryCodec {
+
+    public static final String MIME_TYPE = "application/vnd.rps.binary";
+    public static final String FORMAT_HEADER = "rps-format";
+    public static final String FORMAT_BINARY = "binary";
+
+    /**
+     * Max number of interned strings per session, strings are sent inline once table is full
+     */
+    public static final int MAX_INTERNED = 65536;
+
+    private static final byte ROUND_RESULT = 1;
+    private static final byte STRING_LIST = 2;
+    private static final byte JOIN = 3;
+    private static final byte MOVE = 4;
+    private static final byte LEAVE = 5;
+
+    private static final int NEW_STRING = 0;
+    private static final int INLINE_STRING = 1;
+    private static final int NULL_STRING = 2;
+    private static final int FIRST_INDEX = 3;
+
+    private static final int WINNER = 1;
+
+    private BinaryCodec() {
+    }
+
+    /**
+     * Returns true if payload can be encoded in binary format
+     */
+    public static boolean supports(Object payload) {
+        if (payload instanceof RoundResult || payload instanceof Command) {
+            return true;
+        }
+        if (payload instanceof List) {
+            for (Object element : (List<?>) payload) {
+                if (element != null && !(element instanceof String)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Encodes frames sent to single session
+     */
+    public static class Encoder {
+
+        private final Map<String, Integer> interned = new HashMap<>();
+
+        /**
+         * @throws IllegalArgumentException if payload is not {@link #supports(Object) supported}
+         */
+        public byte[] encode(Object payload) {
+            Output out = new Output();
+            if (payload instanceof RoundResult) {
+                RoundResult result = (RoundResult) payload;
+                out.write(ROUND_RESULT);
+                out.writeVarint(result.getRoundNumber());
+                out.writeVarint(result.getPlayerResults().size());
+                for (PlayerResult playerResult : result.getPlayerResults()) {
+                    writeString(out, playerResult.getPlayerId());
+                    writeString(out, playerResult.getMove());
+                    out.write(playerResult.isWinner() ? WINNER : 0);
+                    out.writeVarint(playerResult.getTotalWins());
+                }
+            } else if (payload instanceof Command) {
+                Command command = (Command) payload;
+                switch (command.getType()) {
+                    case JOIN:
+                        out.write(JOIN);
+                        writeString(out, command.getGame());
+                        writeString(out, command.getPlayerId());
+                        break;
+                    case MOVE:
+                        out.write(MOVE);
+                        writeString(out, command.getMove());
+                        break;
+                    case LEAVE:
+                        out.write(LEAVE);
+                        break;
+                }
+            } else if (supports(payload)) {
+                List<?> strings = (List<?>) payload;
+                out.write(STRING_LIST);
+                out.writeVarint(strings.size());
+                for (Object string : strings) {
+                    writeString(out, (String) string);
+                }
+            } else {
+                throw new IllegalArgumentException("Unsupported payload " + payload);
+            }
+            return out.toByteArray();
+        }
+
+        private void writeString(Output out, String string) {
+            if (string == null) {
+                out.writeVarint(NULL_STRING);
+                return;
+            }
+            Integer index = interned.get(string);
+            if (index != null) {
+                out.writeVarint(FIRST_INDEX + index);
+            } else if (interned.size() < MAX_INTERNED) {
+                interned.put(string, interned.size());
+                out.writeVarint(NEW_STRING);
+                out.writeString(string);
+            } else {
+                out.writeVarint(INLINE_STRING);
+                out.writeString(string);
+            }
+        }
+    }
+
+    /**
+     * Decodes frames received by single session
+     */
+    public static class Decoder {
+
+        private final List<String> interned = new ArrayList<>();
+
+        /**
+         * Returns {@link RoundResult}, list of strings or {@link Command}
+         *
+         * @throws IllegalArgumentException if bytes are not valid frame
+         */
+        public Object decode(byte[] bytes) {
+            Input in = new Input(bytes);
+            int type = in.read();
+            switch (type) {
+                case ROUND_RESULT:
+                    int roundNumber = in.readVarint();
+                    int players = in.readCount();
+                    List<PlayerResult> playerResults = new ArrayList<>(players);
+                    for (int i = 0; i < players; i++) {
+                        String playerId = readString(in);
+                        String move = readString(in);
+                        boolean winner = (in.read() & WINNER) != 0;
+                        playerResults.add(new PlayerResult(playerId, move, winner, in.readVarint()));
+                    }
+                    return new RoundResult(playerResults, roundNumber);
+                case STRING_LIST:
+                    int size = in.readCount();
+                    List<String> strings = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        strings.add(readString(in));
+                    }
+                    return strings;
+                default:
+                    return decodeCommand(in, type);
+            }
+        }
+
+        /**
+         * Decodes frame sent by client, frames of other types are rejected
+         *
+         * @throws IllegalArgumentException if bytes are not valid command frame
+         */
+        public Command decodeCommand(byte[] bytes) {
+            Input in = new Input(bytes);
+            return decodeCommand(in, in.read());
+        }
+
+        private Command decodeCommand(Input in, int type) {
+            switch (type) {
+                case JOIN:
+                    String game = readString(in);
+                    return Command.join(game, readString(in));
+                case MOVE:
+                    return Command.move(readString(in));
+                case LEAVE:
+                    return Command.leave();
+                default:
+                    throw new IllegalArgumentException("Unknown frame type " + type);
+            }
+        }
+
+        private String readString(Input in) {
+            int reference = in.readVarint();
+            switch (reference) {
+                case NEW_STRING:
+                    String string = in.readString();
+                    interned.add(string);
+                    return string;
+                case INLINE_STRING:
+                    return in.readString();
+                case NULL_STRING:
+                    return null;
+                default:
+                    int index = reference - FIRST_INDEX;
+                    if (index < 0 || index >= interned.size()) {
+                        throw new IllegalArgumentException("Unknown string reference " + index + ", frames decoded out of order?");
+                    }
+                    return interned.get(index);
+            }
+        }
+    }
+
+    /**
+     * Command sent by player over raw WebSocket endpoint, player joins single game per connection,
+     * so moves and leave refer to the game joined last
+     */
+    public static final class Command {
+
+        public enum Type {
+            JOIN, MOVE, LEAVE
+        }
+
+        private final Type type;
+        private final String game;
+        private final String playerId;
+        private final String move;
+
+        private Command(Type type, String game, String playerId, String move) {
+            this.type = type;
+            this.game = game;
+            this.playerId = playerId;
+            this.move = move;
+        }
+
+        /**
+         * Joins the game, game is created if it does not exist
+         */
+        public static Command join(String game, String playerId) {
+            return new Command(Type.JOIN, game, playerId, null);
+        }
+
+        public static Command move(String move) {
+            return new Command(Type.MOVE, null, null, move);
+        }
+
+        public static Command leave() {
+            return new Command(Type.LEAVE, null, null, null);
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getGame() {
+            return game;
+        }
+
+        public String getPlayerId() {
+            return playerId;
+        }
+
+        public String getMove() {
+            return move;
+        }
+
+        @Override
+        public String toString() {
+            return "Command{" +
+                "type=" + type +
+                ", game='" + game + '\'' +
+                ", playerId='" + playerId + '\'' +
+                ", move='" + move + '\'' +
+                '}';
+        }
+    }
+
+    private static class Output extends ByteArrayOutputStream {
+
+        Output() {
+            super(32);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeString(String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    private static class Input {
+
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int read() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated frame");
+            }
+            return bytes[position++] & 0xff;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = read();
+                value |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        /**
+         * Reads number of elements which follow, every element takes at least one byte, so count can't exceed
+         * number of remaining bytes
+         */
+        int readCount() {
+            int count = readVarint();
+            if (count < 0 || count > bytes.length - position) {
+                throw new IllegalArgumentException("Count " + count + " exceeds size of frame");
+            }
+            return count;
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length < 0 || length > bytes.length - position) {
+                throw new IllegalArgumentException("Truncated frame");
+            }
+            String string = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return string;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.rps;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.AbstractMessageConverter;
+import org.springframework.util.MimeType;
+
+import java.util.List;
+
+/**
+ * Converts {@link BinaryCodec binary} frames received by single session, only frames with
+ * {@link BinaryCodec#MIME_TYPE binary content type} are converted, so that converter can be combined with
+ * JSON one. Frames must be converted in the order they were received, new converter is needed per session
+ *
+ * @author Beka Tsotsoria
+ */
+public class BinaryMessageConverter extends AbstractMessageConverter {
+
+    public static final MimeType BINARY = MimeType.valueOf(BinaryCodec.MIME_TYPE);
+
+    private final BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+
+    public BinaryMessageConverter() {
+        super(BINARY);
+        setStrictContentTypeMatch(true);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return RoundResult.class == clazz || List.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected synchronized Object convertFromInternal(Message<?> message, Class<?> targetClass, Object conversionHint) {
+        Object payload = decoder.decode((byte[]) message.getPayload());
+        return targetClass.isInstance(payload) ? payload : null;
+    }
+
+    /**
+     * Frames are encoded by server only, see {@link BinaryCodec.Encoder}
+     */
+    @Override
+    protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+        return null;
+    }
+}
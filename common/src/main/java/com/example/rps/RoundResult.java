@@ -4,7 +4,6 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -17,7 +16,7 @@ import java.util.stream.Stream;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class RoundResult {
 
-    private List<PlayerResult> playerResults = new ArrayList<>();
+    private List<PlayerResult> playerResults;
     private int roundNumber;
 
     @JsonCreator
@@ -48,8 +47,8 @@ public class RoundResult {
 
     public String getWeaponUsed(String playerId) {
         return streamFor(playerId)
-            .map(PlayerResult::getMove)
             .findFirst()
+            .map(PlayerResult::getMove)
             .orElse(null);
     }
 
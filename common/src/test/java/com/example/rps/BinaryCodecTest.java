@@ -0,0 +1,162 @@
+package com.example.rps;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class BinaryCodecTest {
+
+    private static final int ROUNDS = 200_000;
+
+    private final Logger log = LoggerFactory.getLogger(BinaryCodecTest.class);
+
+    private final BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+    private final BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+
+    @Test
+    public void roundResultShouldBeDecodedAsEncoded() throws Exception {
+        RoundResult result = (RoundResult) decoder.decode(encoder.encode(round(300, "rock", "scissors")));
+
+        assertThat(result.getRoundNumber()).isEqualTo(300);
+        assertThat(result.getPlayerResults()).hasSize(2);
+        assertThat(result.getWinnerIds()).containsExactly("thePlayer1");
+        assertThat(result.getWeaponUsed("thePlayer2")).isEqualTo("scissors");
+        assertThat(result.resultFor("thePlayer1").getTotalWins()).isEqualTo(150);
+    }
+
+    @Test
+    public void listOfPlayersShouldBeDecodedAsEncoded() throws Exception {
+        assertThat(decoder.decode(encoder.encode(Arrays.asList("thePlayer1", null, "thePlayer2"))))
+            .isEqualTo(Arrays.asList("thePlayer1", null, "thePlayer2"));
+        assertThat(decoder.decode(encoder.encode(Arrays.asList()))).isEqualTo(Arrays.asList());
+    }
+
+    @Test
+    public void stringsShouldBeSentOncePerSession() throws Exception {
+        byte[] first = encoder.encode(round(1, "rock", "scissors"));
+        byte[] second = encoder.encode(round(2, "scissors", "rock"));
+        byte[] players = encoder.encode(Arrays.asList("thePlayer1", "thePlayer2"));
+
+        assertThat(second.length).isLessThan(first.length / 2);
+        assertThat(players).hasSize(4);
+        decoder.decode(first);
+        assertThat(((RoundResult) decoder.decode(second)).getWeaponUsed("thePlayer1")).isEqualTo("scissors");
+        assertThat(decoder.decode(players)).isEqualTo(Arrays.asList("thePlayer1", "thePlayer2"));
+    }
+
+    @Test
+    public void commandsShouldBeDecodedAsEncoded() throws Exception {
+        BinaryCodec.Command join = (BinaryCodec.Command) decoder.decode(encoder.encode(BinaryCodec.Command.join("theGame", "thePlayer1")));
+        BinaryCodec.Command move = (BinaryCodec.Command) decoder.decode(encoder.encode(BinaryCodec.Command.move("rock")));
+        byte[] secondMove = encoder.encode(BinaryCodec.Command.move("rock"));
+        BinaryCodec.Command leave = (BinaryCodec.Command) decoder.decode(encoder.encode(BinaryCodec.Command.leave()));
+
+        assertThat(join.getType()).isEqualTo(BinaryCodec.Command.Type.JOIN);
+        assertThat(join.getGame()).isEqualTo("theGame");
+        assertThat(join.getPlayerId()).isEqualTo("thePlayer1");
+        assertThat(move.getType()).isEqualTo(BinaryCodec.Command.Type.MOVE);
+        assertThat(move.getMove()).isEqualTo("rock");
+        assertThat(secondMove).hasSize(2);
+        assertThat(leave.getType()).isEqualTo(BinaryCodec.Command.Type.LEAVE);
+    }
+
+    @Test
+    public void framesDecodedOutOfOrderShouldBeRejected() throws Exception {
+        encoder.encode(round(1, "rock", "scissors"));
+        byte[] second = encoder.encode(round(2, "rock", "scissors"));
+
+        assertThatThrownBy(() -> decoder.decode(second)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void commandDecoderShouldRejectFramesOtherThanCommands() throws Exception {
+        byte[] round = new BinaryCodec.Encoder().encode(round(1, "rock", "scissors"));
+        byte[] players = new BinaryCodec.Encoder().encode(Arrays.asList("thePlayer1"));
+
+        assertThat(decoder.decodeCommand(encoder.encode(BinaryCodec.Command.move("rock"))).getMove()).isEqualTo("rock");
+        assertThatThrownBy(() -> decoder.decodeCommand(round)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoder.decodeCommand(players)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void countsExceedingFrameShouldBeRejected() throws Exception {
+        byte[] maxCount = {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07};
+
+        assertThatThrownBy(() -> decoder.decode(concat(new byte[]{2}, maxCount))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoder.decode(concat(new byte[]{1, 1}, maxCount))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void negativeStringReferenceShouldBeRejected() throws Exception {
+        byte[] join = {3, (byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f};
+
+        assertThatThrownBy(() -> decoder.decodeCommand(join)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void unsupportedPayloadShouldBeRejected() throws Exception {
+        assertThat(BinaryCodec.supports("game")).isFalse();
+        assertThat(BinaryCodec.supports(Arrays.asList(1, 2))).isFalse();
+        assertThatThrownBy(() -> encoder.encode("game")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> decoder.decode(new byte[]{1, (byte) 0x80})).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Compares size of frames and time to encode and decode them with JSON used by browsers
+     */
+    @Test
+    public void binaryFormatShouldBeSmallerAndFasterThanJson() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        RoundResult[] rounds = new RoundResult[ROUNDS];
+        String[] moves = {"rock", "paper", "scissors"};
+        for (int i = 0; i < ROUNDS; i++) {
+            rounds[i] = round(i + 1, moves[i % 3], moves[(i / 3) % 3]);
+        }
+
+        long jsonBytes = 0;
+        long start = System.nanoTime();
+        for (RoundResult round : rounds) {
+            byte[] bytes = json.writeValueAsBytes(round);
+            jsonBytes += bytes.length;
+            json.readValue(bytes, RoundResult.class);
+        }
+        long jsonNanos = System.nanoTime() - start;
+
+        long binaryBytes = 0;
+        start = System.nanoTime();
+        for (RoundResult round : rounds) {
+            byte[] bytes = encoder.encode(round);
+            binaryBytes += bytes.length;
+            decoder.decode(bytes);
+        }
+        long binaryNanos = System.nanoTime() - start;
+
+        log.info(String.format("JSON: %.1f bytes/frame, %d ns/frame; binary: %.1f bytes/frame, %d ns/frame",
+            jsonBytes / (double) ROUNDS, jsonNanos / ROUNDS, binaryBytes / (double) ROUNDS, binaryNanos / ROUNDS));
+        assertThat(binaryBytes).isLessThan(jsonBytes / 5);
+        assertThat(binaryNanos).isLessThan(jsonNanos);
+    }
+
+    private static RoundResult round(int roundNumber, String move1, String move2) {
+        List<PlayerResult> results = Arrays.asList(
+            new PlayerResult("thePlayer1", move1, !move1.equals(move2), roundNumber / 2),
+            new PlayerResult("thePlayer2", move2, false, roundNumber / 3));
+        return new RoundResult(results, roundNumber);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+}
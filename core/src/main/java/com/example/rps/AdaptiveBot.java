@@ -0,0 +1,69 @@
+package com.example.rps;
+
+import java.util.function.IntFunction;
+
+/**
+ * Bot which feeds {@link GameContext#getOpponentMoves() opponent moves} into {@link OpponentModel}
+ * and plays {@link GameRules#counterOf(int) counter} of the predicted move. Random move is made
+ * while model can't predict anything yet. Only moves recorded since previous move are observed,
+ * so each move costs constant time regardless of how long game lasts
+ *
+ * @author Beka Tsotsoria
+ */
+public class AdaptiveBot extends Bot {
+
+    private final IntFunction<OpponentModel> modelFactory;
+    private GameRules rules;
+    private OpponentModel model;
+    private long observedMoves;
+
+    /**
+     * @param modelFactory creates model for given number of weapons, called again only when bot plays game with other rules
+     */
+    public AdaptiveBot(String id, IntFunction<OpponentModel> modelFactory, RandomSource random) {
+        super(id, random);
+        this.modelFactory = modelFactory;
+    }
+
+    /**
+     * Bot playing against the most frequent move of the opponent
+     */
+    public static AdaptiveBot frequency(String id) {
+        return new AdaptiveBot(id, FrequencyModel::new, RandomSource.create());
+    }
+
+    /**
+     * Bot playing against move which opponent most often makes after the last <code>order</code> moves
+     */
+    public static AdaptiveBot markov(String id, int order) {
+        return new AdaptiveBot(id, size -> new MarkovModel(size, order), RandomSource.create());
+    }
+
+    @Override
+    public Weapon makeMove(GameContext context) {
+        GameRules rules = context.getRules();
+        if (rules == null) {
+            return super.makeMove(context);
+        }
+        if (rules != this.rules) {
+            this.rules = rules;
+            this.model = modelFactory.apply(rules.size());
+            this.observedMoves = 0;
+        }
+        MoveHistory opponentMoves = context.getOpponentMoves();
+        long totalMoves = opponentMoves.getTotalMoves();
+        if (totalMoves < observedMoves) {
+            // New opponent
+            model.reset();
+            observedMoves = 0;
+        }
+        int unobserved = (int) Math.min(totalMoves - observedMoves, opponentMoves.size());
+        for (int age = unobserved - 1; age >= 0; age--) {
+            model.observe(opponentMoves.get(age));
+        }
+        observedMoves = totalMoves;
+
+        int predicted = model.predict();
+        return predicted < 0 ? super.makeMove(context) : rules.weaponOf(rules.counterOf(predicted));
+    }
+}
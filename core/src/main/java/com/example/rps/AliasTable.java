@@ -0,0 +1,81 @@
+package com.example.rps;
+
+/**
+ * Samples index with probability proportional to its weight in constant time using
+ * Vose's alias method. Table is immutable and can be shared between threads
+ *
+ * @author Beka Tsotsoria
+ */
+public final class AliasTable {
+
+    private final double[] probabilities;
+    private final int[] aliases;
+
+    /**
+     * @param weights non-negative weights, at least one of them must be positive
+     * @throws IllegalArgumentException if weights are empty, negative or all zero
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Weights must not be empty");
+        }
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weight must be finite non-negative number, got " + weight);
+            }
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+
+        this.probabilities = new double[n];
+        this.aliases = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            probabilities[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probabilities[small[--smallCount]] = 1;
+        }
+    }
+
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Returns index in range <code>[0, size)</code> chosen with probability proportional to its weight
+     */
+    public int sample(RandomSource random) {
+        int column = random.nextInt(probabilities.length);
+        return random.nextDouble() < probabilities[column] ? column : aliases[column];
+    }
+}
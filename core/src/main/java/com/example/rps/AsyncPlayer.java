@@ -0,0 +1,27 @@
+package com.example.rps;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Represents non-blocking player SPI, unlike {@link Player} no thread needs to wait
+ * while player is thinking about the next move
+ *
+ * @author Beka Tsotsoria
+ * @see AsyncPlayers#adapt(Player)
+ */
+public interface AsyncPlayer {
+
+    /**
+     * Return unique ID of player
+     */
+    String getId();
+
+    /**
+     * Requests weapon to be used in next round. Returned stage completes exceptionally with
+     * {@link MoveAbortedException} when move gets aborted. Game may cancel returned stage
+     * (if it's {@link java.util.concurrent.Future}) when move is not needed anymore
+     *
+     * @param context context of game
+     */
+    CompletionStage<Weapon> requestMove(GameContext context);
+}
@@ -0,0 +1,61 @@
+package com.example.rps;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapts {@link Player players} to {@link AsyncPlayer}
+ *
+ * @author Beka Tsotsoria
+ */
+public final class AsyncPlayers {
+
+    private static final ExecutorService BLOCKING_MOVES = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+    private AsyncPlayers() {
+    }
+
+    /**
+     * Returns player itself if it already implements {@link AsyncPlayer}, otherwise
+     * {@link Player#makeMove(GameContext) blocking moves} are made on dedicated pool of threads
+     */
+    public static AsyncPlayer adapt(Player player) {
+        if (player instanceof AsyncPlayer) {
+            return (AsyncPlayer) player;
+        }
+        return new AsyncPlayer() {
+            @Override
+            public String getId() {
+                return player.getId();
+            }
+
+            @Override
+            public CompletionStage<Weapon> requestMove(GameContext context) {
+                return makeMoveAsync(player, context);
+            }
+        };
+    }
+
+    /**
+     * Makes {@link Player#makeMove(GameContext) blocking move} on dedicated pool of threads
+     */
+    static CompletableFuture<Weapon> makeMoveAsync(Player player, GameContext context) {
+        return CompletableFuture.supplyAsync(() -> player.makeMove(context), BLOCKING_MOVES);
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "rps-blocking-move-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
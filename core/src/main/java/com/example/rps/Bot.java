@@ -1,20 +1,31 @@
 package com.example.rps;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
- * Bot player making random moves
+ * Bot player making random moves, each bot owns its {@link RandomSource} so bots playing
+ * concurrently don't contend and {@link RandomSource#seeded(long) seeded} bots are reproducible
  *
  * @author Beka Tsotsoria
  */
-public class Bot implements Player {
+public class Bot implements Player, AsyncPlayer {
 
     private String id;
+    private final RandomSource random;
 
     public Bot() {
         this("Bot");
     }
 
     public Bot(String id) {
+        this(id, RandomSource.create());
+    }
+
+    public Bot(String id, RandomSource random) {
         this.id = id;
+        this.random = random;
     }
 
     @Override
@@ -24,6 +35,16 @@ public class Bot implements Player {
 
     @Override
     public Weapon makeMove(GameContext context) {
-        return context.getAvailableMoves().get(((int) (Math.random() * 100)) % context.getAvailableMoves().size());
+        List<Weapon> moves = context.getAvailableMoves();
+        return moves.get(random.nextInt(moves.size()));
+    }
+
+    protected RandomSource getRandom() {
+        return random;
+    }
+
+    @Override
+    public CompletionStage<Weapon> requestMove(GameContext context) {
+        return CompletableFuture.completedFuture(makeMove(context));
     }
 }
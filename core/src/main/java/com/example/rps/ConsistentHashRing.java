@@ -0,0 +1,102 @@
+package com.example.rps;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable ring which assigns keys to nodes by consistent hashing. Every node is placed on the ring
+ * at several virtual points and key is owned by the node of the first point following hash of the key,
+ * so that adding or removing node moves only keys of that node and load stays even. Ownership depends
+ * only on set of nodes, so every member with the same view of the cluster computes the same owner
+ *
+ * @author Beka Tsotsoria
+ */
+public class ConsistentHashRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final Set<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Number of virtual nodes must be positive");
+        }
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        long[][] entries = new long[this.nodes.size() * virtualNodes][];
+        String[] sorted = this.nodes.toArray(new String[0]);
+        int i = 0;
+        for (int n = 0; n < sorted.length; n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                entries[i++] = new long[]{hash(sorted[n] + "#" + v), n};
+            }
+        }
+        // Ties are broken by node, so order of nodes passed doesn't matter
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        points = new long[entries.length];
+        owners = new String[entries.length];
+        for (int p = 0; p < entries.length; p++) {
+            points[p] = entries[p][0];
+            owners[p] = sorted[(int) entries[p][1]];
+        }
+    }
+
+    /**
+     * Returns node which owns specified key
+     *
+     * @throws IllegalStateException if ring has no nodes
+     */
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("Ring has no nodes");
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        } else {
+            // Leftmost of equal points, so that tie breaking above decides owner
+            while (index > 0 && points[index - 1] == points[index]) {
+                index--;
+            }
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns new ring with the same virtual points per node and specified nodes
+     */
+    public ConsistentHashRing withNodes(Collection<String> nodes) {
+        return new ConsistentHashRing(nodes, this.nodes.isEmpty() ? DEFAULT_VIRTUAL_NODES : points.length / this.nodes.size());
+    }
+
+    /**
+     * 64-bit FNV-1a of UTF-8 bytes followed by murmur3 finalizer, which spreads similar keys like
+     * <code>game-1</code> and <code>game-2</code> across the whole ring
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,12 +1,14 @@
 package com.example.rps;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * @author Beka Tsotsoria
  */
-public class FakePlayer implements Player {
+public class FakePlayer implements Player, AsyncPlayer {
 
     private Weapon weapon;
     private String id;
@@ -61,4 +63,19 @@ public class FakePlayer implements Player {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Completes immediately when move is known and there is no {@link #withDelay(int) delay},
+     * otherwise move is made asynchronously
+     */
+    @Override
+    public CompletionStage<Weapon> requestMove(GameContext context) {
+        if (delay == 0) {
+            Weapon move = weapon != null ? weapon : weapons.poll();
+            if (move != null) {
+                return CompletableFuture.completedFuture(move);
+            }
+        }
+        return AsyncPlayers.makeMoveAsync(this, context);
+    }
 }
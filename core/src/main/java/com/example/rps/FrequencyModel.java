@@ -0,0 +1,45 @@
+package com.example.rps;
+
+import java.util.Arrays;
+
+/**
+ * Predicts that opponent will use the weapon which was used most often so far
+ *
+ * @author Beka Tsotsoria
+ */
+public class FrequencyModel implements OpponentModel {
+
+    private final int[] counts;
+    private int best = -1;
+
+    /**
+     * @param size number of weapons in the game
+     */
+    public FrequencyModel(int size) {
+        this.counts = new int[size];
+    }
+
+    @Override
+    public void observe(int ordinal) {
+        if (counts[ordinal] == Integer.MAX_VALUE) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] >>= 1;
+            }
+        }
+        counts[ordinal]++;
+        if (best < 0 || counts[ordinal] > counts[best]) {
+            best = ordinal;
+        }
+    }
+
+    @Override
+    public int predict() {
+        return best;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(counts, 0);
+        best = -1;
+    }
+}
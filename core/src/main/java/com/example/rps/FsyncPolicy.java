@@ -0,0 +1,24 @@
+package com.example.rps;
+
+/**
+ * Defines when {@link RoundJournal journal} forces written rounds to disk
+ *
+ * @author Beka Tsotsoria
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Operating system decides when pages are written, rounds survive process crash but not power loss
+     */
+    NEVER,
+
+    /**
+     * Every group of rounds written together is forced before next group is written
+     */
+    BATCH,
+
+    /**
+     * Written rounds are forced at most once per configured interval
+     */
+    INTERVAL
+}
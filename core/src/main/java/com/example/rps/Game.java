@@ -4,9 +4,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -18,13 +20,36 @@ public class Game {
 
     private final Logger log = LoggerFactory.getLogger(Game.class);
 
-    private final Map<String, Player> players = new ConcurrentSkipListMap<>();
-    private final Map<String, AtomicInteger> playerWinCounter = new ConcurrentHashMap<>();
+    private static final int MAX_PLAYERS = 2;
+
+    /**
+     * Number of recent opponent moves visible to player through {@link GameContext#getOpponentMoves()}
+     */
+    static final int OPPONENT_MOVES_CAPACITY = 64;
+
+    /**
+     * Number of the most recent rounds kept in {@link #getHistory() history} by default
+     */
+    public static final int DEFAULT_HISTORY_CAPACITY = 1024;
+
+    /**
+     * Player slots in order of joining, array is replaced on every join/leave so round loop
+     * can read it without locking
+     */
+    private volatile Slot[] slots = new Slot[MAX_PLAYERS];
+    private final Object slotsLock = new Object();
     private final AtomicInteger roundCounter = new AtomicInteger();
     private AsyncPlay asyncPlay;
 
     private String name;
     private GameRules rules;
+    private final Scoreboard scoreboard;
+    private final RoundHistory history;
+    private volatile RoundMode roundMode = RoundMode.SEQUENTIAL;
+    private volatile MoveDeadline moveDeadline;
+    private volatile RoundEventSampling eventSampling;
+    private volatile RoundEventLog journal;
+    private volatile RoundEventLog leaderboard;
 
     /**
      * Crates game with {@link GameRules#CLASSIC classic} game rules
@@ -42,16 +67,179 @@ public class Game {
      * @param rules rules of the game
      */
     public Game(String name, GameRules rules) {
+        this(name, rules, DEFAULT_HISTORY_CAPACITY);
+    }
+
+    /**
+     * Creates game with specified rules
+     *
+     * @param name            name of the game
+     * @param rules           rules of the game
+     * @param historyCapacity number of the most recent rounds to keep in {@link #getHistory() history}
+     */
+    public Game(String name, GameRules rules, int historyCapacity) {
         this.name = name;
         this.rules = rules;
+        this.scoreboard = new Scoreboard(MAX_PLAYERS, rules.size());
+        this.history = new RoundHistory(historyCapacity);
     }
 
     public String getName() {
         return name;
     }
 
+    public GameRules getRules() {
+        return rules;
+    }
+
+    public RoundMode getRoundMode() {
+        return roundMode;
+    }
+
+    /**
+     * Sets how moves of players are collected, {@link RoundMode#SEQUENTIAL} by default
+     */
+    public void setRoundMode(RoundMode roundMode) {
+        if (roundMode == null) {
+            throw new NullPointerException("roundMode");
+        }
+        this.roundMode = roundMode;
+    }
+
+    /**
+     * Limits time players have to make a move, deadlines are enforced by {@link HashedWheelTimer#shared() shared} timer
+     *
+     * @param timeoutMillis time given for single move in milliseconds, 0 disables deadlines
+     * @param policy        what to do when player does not make move in time
+     */
+    public void setMoveDeadline(long timeoutMillis, MoveTimeoutPolicy policy) {
+        setMoveDeadline(timeoutMillis, policy, HashedWheelTimer.shared());
+    }
+
+    /**
+     * Limits time players have to make a move
+     *
+     * @param timeoutMillis time given for single move in milliseconds, 0 disables deadlines
+     * @param policy        what to do when player does not make move in time
+     * @param timer         timer which enforces deadlines
+     */
+    public void setMoveDeadline(long timeoutMillis, MoveTimeoutPolicy policy, HashedWheelTimer timer) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        if (policy == null) {
+            throw new NullPointerException("policy");
+        }
+        this.moveDeadline = timeoutMillis == 0 ? null : new MoveDeadline(timeoutMillis, policy, timer);
+    }
+
+    /**
+     * Publishes every <code>samplingInterval</code>-th round of this game to specified log
+     *
+     * @param eventLog         log to publish rounds to, null disables publishing
+     * @param samplingInterval 1 publishes every round, 0 disables publishing
+     */
+    public void setRoundEventLog(RoundEventLog eventLog, int samplingInterval) {
+        if (samplingInterval < 0) {
+            throw new IllegalArgumentException("Sampling interval must not be negative");
+        }
+        this.eventSampling = eventLog == null || samplingInterval == 0 ? null : new RoundEventSampling(eventLog, samplingInterval);
+    }
+
+    /**
+     * Appends every completed round of this game to specified journal, rounds are handed over
+     * to journal without waiting for disk
+     *
+     * @param journal journal to append rounds to, null disables journaling
+     */
+    public void setJournal(RoundJournal journal) {
+        this.journal = journal == null ? null : journal.getEventLog();
+    }
+
     /**
-     * Performs single round, waits for all players to make a {@link Player#makeMove(GameContext) move} and returns result
+     * Updates ratings of players in specified leaderboard after every completed round of this game,
+     * rounds are handed over to leaderboard without waiting for ratings to be updated
+     *
+     * @param leaderboard leaderboard to publish rounds to, null disables publishing
+     */
+    public void setLeaderboard(Leaderboard leaderboard) {
+        this.leaderboard = leaderboard == null ? null : leaderboard.getEventLog();
+    }
+
+    /**
+     * Replays round {@link RoundJournal#replay read from journal}, rounds must be replayed in order they were
+     * played and before players join. Rounds already included in {@link #restore(GameSnapshot) restored snapshot}
+     * are ignored. Restored statistics of the player become visible when player joins again. Moves are resolved
+     * by rules round was played with, rounds with weapons this game doesn't have are ignored
+     *
+     * @throws IllegalArgumentException if round number doesn't fit round counter of the game
+     */
+    public void restore(RoundEvent round) {
+        int ordinal1 = restoredOrdinal(round, 0);
+        int ordinal2 = restoredOrdinal(round, 1);
+        if (ordinal1 == Integer.MIN_VALUE || ordinal2 == Integer.MIN_VALUE) {
+            log.warn("Ignoring round {} of game {} played with different rules", round.getRoundNumber(), name);
+            return;
+        }
+        synchronized (slotsLock) {
+            if (round.getRoundNumber() <= roundCounter.get()) {
+                return;
+            }
+            roundCounter.set(toRoundCounter(round.getRoundNumber()));
+            scoreboard.restore(round.getRoundNumber(), 0, round.getPlayerId(0), ordinal1, 1, round.getPlayerId(1), ordinal2, round.getOutcome());
+            history.append(round.getRoundNumber(), 0, ordinal1, 1, ordinal2, round.getOutcome());
+        }
+    }
+
+    /**
+     * Returns ordinal of the move in rules of this game, -1 if player forfeited and {@link Integer#MIN_VALUE}
+     * if this game has no such weapon
+     */
+    private int restoredOrdinal(RoundEvent round, int player) {
+        int ordinal = round.getMove(player);
+        if (ordinal < 0 || round.getRules() == rules) {
+            return ordinal;
+        }
+        int restored = rules.ordinalOf(round.getRules().weaponOf(ordinal));
+        return restored >= 0 ? restored : Integer.MIN_VALUE;
+    }
+
+    private int toRoundCounter(long roundNumber) {
+        if (roundNumber < 0 || roundNumber > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Round number " + roundNumber + " of game " + name + " is out of range");
+        }
+        return (int) roundNumber;
+    }
+
+    /**
+     * Restores state {@link #snapshot() captured} before restart, must be called before players join
+     *
+     * @throws IllegalArgumentException if snapshot was taken from game with another name or its round number
+     *                                  doesn't fit round counter of the game
+     */
+    public void restore(GameSnapshot snapshot) {
+        if (!name.equals(snapshot.getName())) {
+            throw new IllegalArgumentException("Snapshot of game " + snapshot.getName() + " can't be restored into game " + name);
+        }
+        int roundNumber = toRoundCounter(snapshot.getRoundNumber());
+        synchronized (slotsLock) {
+            roundCounter.set(roundNumber);
+            scoreboard.restore(snapshot.getScores(), snapshot.getRoundNumber());
+        }
+    }
+
+    /**
+     * Captures state of this game needed to continue it after restart without stopping it, statistics
+     * of all players are consistent with each other and with round number
+     */
+    public GameSnapshot snapshot() {
+        Scoreboard.Capture capture = scoreboard.capture();
+        return new GameSnapshot(name, rules, capture.lastRound, capture.scores);
+    }
+
+    /**
+     * Performs single round, waits for all players to make a {@link Player#makeMove(GameContext) move} and returns result.
+     * Moves are collected according to {@link #getRoundMode() round mode} and {@link #setMoveDeadline(long, MoveTimeoutPolicy) deadline}
      *
      * @return result of round
      * @throws IllegalStateException if game is not {@link #isReady() ready}
@@ -59,47 +247,46 @@ public class Game {
      */
     public RoundResult doRound() {
         ensureReady();
+        if (roundMode == RoundMode.CONCURRENT || moveDeadline != null) {
+            try {
+                return requestRound().toCompletableFuture().join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
         return doRoundInternal();
     }
 
     /**
      * Performs rounds asynchronously indefinitely until game is {@link AsyncPlay#stop() stopped}
+     * using {@link PooledRoundScheduler#shared() shared} scheduler
      *
      * @param listener round listener which will receive results of rounds
      * @return handle to the game which can be {@link AsyncPlay#stop() stopped} later
      * @throws IllegalStateException if game is not {@link #isReady() ready}
      */
-    public synchronized AsyncPlay doRoundsAsync(RoundResultListener listener) {
+    public AsyncPlay doRoundsAsync(RoundResultListener listener) {
+        return doRoundsAsync(listener, PooledRoundScheduler.shared());
+    }
+
+    /**
+     * Performs rounds asynchronously on specified scheduler indefinitely until game is {@link AsyncPlay#stop() stopped}
+     *
+     * @param listener  round listener which will receive results of rounds
+     * @param scheduler scheduler which will drive rounds of this game
+     * @return handle to the game which can be {@link AsyncPlay#stop() stopped} later
+     * @throws IllegalStateException if game is not {@link #isReady() ready}
+     */
+    public synchronized AsyncPlay doRoundsAsync(RoundResultListener listener, RoundScheduler scheduler) {
         ensureReady();
-        if (asyncPlay != null) {
+        if (asyncPlay != null && asyncPlay.isPlaying()) {
             log.info("Game is already running in the background");
             return asyncPlay;
         }
-        AtomicBoolean running = new AtomicBoolean(true);
-        new Thread(() -> {
-            while (running.get()) {
-                try {
-                    RoundResult result = doRoundInternal();
-                    listener.onResult(result);
-                } catch (MoveAbortedException | NoSuchElementException e) {
-                    log.warn("Seems one of the player left game unexpectedly. Stopping round loop until someone joins again", e);
-                    asyncPlay.stop();
-                }
-            }
-        }).start();
-        return asyncPlay = new AsyncPlay() {
-
-            @Override
-            public boolean isPlaying() {
-                return running.get();
-            }
-
-            @Override
-            public void stop() {
-                running.set(false);
-                asyncPlay = null;
-            }
-        };
+        return asyncPlay = scheduler.schedule(this, listener);
     }
 
     private void ensureReady() {
@@ -108,103 +295,274 @@ public class Game {
         }
     }
 
+    /**
+     * Performs single round without blocking any thread, moves are {@link AsyncPlayer#requestMove(GameContext) requested}
+     * from players according to {@link #getRoundMode() round mode} and returned stage completes as soon as the last one is made
+     *
+     * @return stage which completes with result of the round or exceptionally with {@link MoveAbortedException}
+     * when one of the player's move gets aborted in the middle of round
+     * @throws IllegalStateException if game is not {@link #isReady() ready}
+     */
+    public CompletionStage<RoundResult> requestRound() {
+        ensureReady();
+        Slot[] slots = this.slots;
+        Slot slot1 = slots[0];
+        Slot slot2 = slots[1];
+        if (slot1 == null || slot2 == null) {
+            throw new NoSuchElementException("Not enough players in game " + name);
+        }
+        if (roundMode == RoundMode.CONCURRENT) {
+            return requestMovesConcurrently(slot1, slot2);
+        }
+        return requestMove(slot1)
+            .thenCompose(weapon1 -> requestMove(slot2)
+                .thenApply(weapon2 -> completeRound(slot1, weapon1, slot2, weapon2)));
+    }
+
+    private CompletableFuture<RoundResult> requestMovesConcurrently(Slot slot1, Slot slot2) {
+        CompletableFuture<Weapon> move1 = requestMove(slot1);
+        CompletableFuture<Weapon> move2 = requestMove(slot2);
+        CompletableFuture<RoundResult> round = move1.thenCombine(move2, (weapon1, weapon2) -> completeRound(slot1, weapon1, slot2, weapon2));
+        // thenCombine waits for both moves, fail fast instead when one of them fails
+        move1.whenComplete((weapon, e) -> failRound(round, e, move2));
+        move2.whenComplete((weapon, e) -> failRound(round, e, move1));
+        return round;
+    }
+
+    /**
+     * Requests move from player and arms {@link #setMoveDeadline(long, MoveTimeoutPolicy) deadline} if needed.
+     * When deadline expires pending request gets cancelled, so move made later is kept for the next round
+     */
+    private CompletableFuture<Weapon> requestMove(Slot slot) {
+        CompletableFuture<Weapon> move = slot.asyncPlayer.requestMove(slot.context).toCompletableFuture();
+        MoveDeadline deadline = this.moveDeadline;
+        if (deadline == null || move.isDone()) {
+            return move;
+        }
+        CompletableFuture<Weapon> result = new CompletableFuture<>();
+        HashedWheelTimer.Timeout timeout = deadline.timer.schedule(() -> {
+            Weapon timeoutMove = deadline.policy == MoveTimeoutPolicy.RANDOM_MOVE
+                ? rules.weaponOf(ThreadLocalRandom.current().nextInt(rules.size()))
+                : null;
+            // Pending request must be cancelled before round moves on, otherwise next move could be taken by it
+            if (move.cancel(false) && result.complete(timeoutMove)) {
+                log.info("Player {} did not make a move in {} ms in game {}", slot.player.getId(), deadline.timeoutMillis, name);
+            }
+        }, deadline.timeoutMillis, TimeUnit.MILLISECONDS);
+        move.whenComplete((weapon, e) -> {
+            if (move.isCancelled()) {
+                // Either deadline expired or round got cancelled, result is completed by whoever cancelled
+                return;
+            }
+            timeout.cancel();
+            if (e != null) {
+                result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            } else {
+                result.complete(weapon);
+            }
+        });
+        result.whenComplete((weapon, e) -> {
+            if (result.isCancelled()) {
+                timeout.cancel();
+                move.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private void failRound(CompletableFuture<RoundResult> round, Throwable e, CompletableFuture<Weapon> otherMove) {
+        if (e != null) {
+            round.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            otherMove.cancel(false);
+        }
+    }
+
     private RoundResult doRoundInternal() {
-        Iterator<Player> iterator = players.values().iterator();
-        Player player1 = iterator.next();
-        Player player2 = iterator.next();
-        GameContext context = new GameContext(new ArrayList<>(getAvailableWeapons()));
-        Weapon weapon1 = player1.makeMove(context);
-        Weapon weapon2 = player2.makeMove(context);
-        log.info("Player {} made move {}", player1.getId(), weapon1);
-        log.info("Player {} made move {}", player2.getId(), weapon2);
-        boolean draw = true;
-        Player winner = null, looser = null;
-        Weapon winnerWeaponUsed = null, looserWeaponUsed = null;
-
-        if (defeats(weapon1, weapon2)) {
-            winner = player1;
-            winnerWeaponUsed = weapon1;
-            looser = player2;
-            looserWeaponUsed = weapon2;
-            draw = false;
-        }
-
-        if (defeats(weapon2, weapon1)) {
-            winner = player2;
-            winnerWeaponUsed = weapon2;
-            looser = player1;
-            looserWeaponUsed = weapon1;
-            draw = false;
+        Slot[] slots = this.slots;
+        Slot slot1 = slots[0];
+        Slot slot2 = slots[1];
+        if (slot1 == null || slot2 == null) {
+            throw new NoSuchElementException("Not enough players in game " + name);
         }
+        Weapon weapon1 = slot1.player.makeMove(slot1.context);
+        Weapon weapon2 = slot2.player.makeMove(slot2.context);
+        return completeRound(slot1, weapon1, slot2, weapon2);
+    }
 
+    private RoundResult completeRound(Slot slot1, Weapon weapon1, Slot slot2, Weapon weapon2) {
+        if (log.isDebugEnabled()) {
+            log.debug("Player {} made move {}", slot1.player.getId(), weapon1);
+            log.debug("Player {} made move {}", slot2.player.getId(), weapon2);
+        }
+
+        int ordinal1 = weapon1 != null ? ordinalOf(weapon1) : -1;
+        int ordinal2 = weapon2 != null ? ordinalOf(weapon2) : -1;
+        int outcome = outcome(ordinal1, ordinal2);
+        if (ordinal2 >= 0) {
+            slot1.opponentMoves.record(ordinal2);
+        }
+        if (ordinal1 >= 0) {
+            slot2.opponentMoves.record(ordinal1);
+        }
         int roundCounter = this.roundCounter.incrementAndGet();
-        if (draw) {
-            return new RoundResult(Arrays.asList(
-                new PlayerResult(player1.getId(), weapon1.getName(), false, getPlayerWinCounter(player1.getId()).get()),
-                new PlayerResult(player2.getId(), weapon2.getName(), false, getPlayerWinCounter(player2.getId()).get())
-            ), roundCounter);
-        }
-        RoundResult rr = new RoundResult(Arrays.asList(
-            new PlayerResult(winner.getId(), winnerWeaponUsed.getName(), true, getPlayerWinCounter(winner.getId()).incrementAndGet()),
-            new PlayerResult(looser.getId(), looserWeaponUsed.getName(), false, getPlayerWinCounter(looser.getId()).get())), roundCounter);
-        log.info("Round completed {}", rr);
+        String playerId1 = slot1.player.getId();
+        String playerId2 = slot2.player.getId();
+        scoreboard.record(roundCounter, slot1.index, playerId1, ordinal1, slot2.index, playerId2, ordinal2, outcome);
+        history.append(roundCounter, slot1.index, ordinal1, slot2.index, ordinal2, outcome);
+        int wins1 = (int) scoreboard.winsOf(slot1.index);
+        int wins2 = (int) scoreboard.winsOf(slot2.index);
+        RoundResult rr;
+        if (outcome > 0) {
+            rr = new RoundResult(Arrays.asList(
+                new PlayerResult(playerId1, nameOf(weapon1), true, wins1),
+                new PlayerResult(playerId2, nameOf(weapon2), false, wins2)), roundCounter);
+        } else if (outcome < 0) {
+            rr = new RoundResult(Arrays.asList(
+                new PlayerResult(playerId2, nameOf(weapon2), true, wins2),
+                new PlayerResult(playerId1, nameOf(weapon1), false, wins1)), roundCounter);
+        } else {
+            rr = new RoundResult(Arrays.asList(
+                new PlayerResult(playerId1, nameOf(weapon1), false, wins1),
+                new PlayerResult(playerId2, nameOf(weapon2), false, wins2)), roundCounter);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Round completed {}", rr);
+        }
+        RoundEventLog journal = this.journal;
+        if (journal != null) {
+            journal.publish(name, roundCounter, rules, playerId1, ordinal1, playerId2, ordinal2, outcome);
+        }
+        RoundEventLog leaderboard = this.leaderboard;
+        if (leaderboard != null) {
+            leaderboard.publish(name, roundCounter, rules, playerId1, ordinal1, playerId2, ordinal2, outcome);
+        }
+        RoundEventSampling eventSampling = this.eventSampling;
+        if (eventSampling != null && roundCounter % eventSampling.interval == 0) {
+            eventSampling.log.publish(name, roundCounter, rules,
+                slot1.player.getId(), ordinal1, slot2.player.getId(), ordinal2, outcome);
+        }
         return rr;
     }
 
-    private AtomicInteger getPlayerWinCounter(String playerId) {
-        return playerWinCounter.computeIfAbsent(playerId, w -> new AtomicInteger());
-    }
-
     /**
-     * @return true if <code>weapon1</code> defeats <code>weapon2</code>, false otherwise
+     * Missing weapon means player {@link MoveTimeoutPolicy#FORFEIT forfeited} the round
      */
-    private boolean defeats(Weapon weapon1, Weapon weapon2) {
-        return rules.defeats(weapon1, weapon2);
+    private int outcome(int ordinal1, int ordinal2) {
+        if (ordinal1 < 0 || ordinal2 < 0) {
+            return ordinal1 >= 0 ? 1 : ordinal2 >= 0 ? -1 : 0;
+        }
+        return rules.outcome(ordinal1, ordinal2);
+    }
+
+    private static String nameOf(Weapon weapon) {
+        return weapon != null ? weapon.getName() : null;
+    }
+
+    private int ordinalOf(Weapon weapon) {
+        int ordinal = rules.ordinalOf(weapon);
+        if (ordinal < 0) {
+            throw new IllegalArgumentException("Weapon " + weapon + " is not available in game " + name);
+        }
+        return ordinal;
     }
 
     /**
      * Joins player into game, there must be at least 2 players
      * in the game
      *
+     * @return false if game is full and player didn't join
      * @throws IllegalArgumentException if {@link Player#getId() id} of the player is not
      *                                  unique in this game
      * @throws NullPointerException     if player is null
      */
-    public void join(Player player) {
+    public boolean join(Player player) {
         if (player == null) {
             throw new NullPointerException("player");
         }
-        synchronized (players) {
-            if (players.size() == 2) {
+        synchronized (slotsLock) {
+            Slot[] slots = this.slots;
+            int free = -1;
+            for (int i = slots.length - 1; i >= 0; i--) {
+                if (slots[i] == null) {
+                    free = i;
+                } else if (slots[i].player.getId().equals(player.getId())) {
+                    throw new IllegalArgumentException("Id \"" + player.getId() + "\" is already taken");
+                }
+            }
+            int restored = scoreboard.restoredSlotOf(player.getId());
+            if (restored >= 0 && slots[restored] == null) {
+                // Player returns after restart, keep statistics of the player
+                free = restored;
+            }
+            if (free < 0) {
                 log.warn("Ignoring player {}, because there are already 2 players in the game, which is current supported maximum", player.getId());
-                return;
+                return false;
             }
-            if (players.putIfAbsent(player.getId(), player) != null) {
-                throw new IllegalArgumentException("Id \"" + player.getId() + "\" is already taken");
+            Slot[] newSlots = slots.clone();
+            newSlots[free] = new Slot(free, player, AsyncPlayers.adapt(player), rules);
+            scoreboard.join(free, player.getId());
+            for (Slot slot : newSlots) {
+                if (slot != null && slot != newSlots[free]) {
+                    // Moves of previous opponent would mislead remaining player
+                    slot.opponentMoves.clear();
+                }
             }
+            this.slots = newSlots;
         }
         log.info("Player {} joined game {}", player.getId(), name);
+        return true;
     }
 
     /**
      * Leaves player from the game
      */
     public void leave(String playerId) {
-        synchronized (players) {
-            Player player = players.remove(playerId);
-            if (player instanceof AbortablePlayer) {
-                log.info("Aborting player {}", player.getId());
-                ((AbortablePlayer) player).abort();
+        synchronized (slotsLock) {
+            Slot[] slots = this.slots;
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i] != null && slots[i].player.getId().equals(playerId)) {
+                    Player player = slots[i].player;
+                    Slot[] newSlots = slots.clone();
+                    newSlots[i] = null;
+                    this.slots = newSlots;
+                    scoreboard.leave(i);
+                    if (player instanceof AbortablePlayer) {
+                        log.info("Aborting player {}", player.getId());
+                        ((AbortablePlayer) player).abort();
+                    }
+                    break;
+                }
             }
         }
         log.info("Player {} left game {}", playerId, name);
     }
 
+    /**
+     * Returns the most recent rounds of this game, players are identified by their slots
+     */
+    public RoundHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Returns consistent snapshot of statistics of joined players, statistics of the player
+     * are discarded when player leaves
+     */
+    public List<PlayerScore> getScores() {
+        return scoreboard.snapshot();
+    }
+
     /**
      * Returns list of {@link Player#getId() IDs} of joined players
      */
     public List<String> getPlayerIds() {
-        return new ArrayList<>(players.keySet());
+        List<String> ids = new ArrayList<>(MAX_PLAYERS);
+        for (Slot slot : slots) {
+            if (slot != null) {
+                ids.add(slot.player.getId());
+            }
+        }
+        return ids;
     }
 
     /**
@@ -219,6 +577,53 @@ public class Game {
      * number of players, which should be at least 2
      */
     public boolean isReady() {
-        return players.size() > 1;
+        Slot[] slots = this.slots;
+        for (Slot slot : slots) {
+            if (slot == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class RoundEventSampling {
+
+        private final RoundEventLog log;
+        private final int interval;
+
+        RoundEventSampling(RoundEventLog log, int interval) {
+            this.log = log;
+            this.interval = interval;
+        }
+    }
+
+    private static class MoveDeadline {
+
+        private final long timeoutMillis;
+        private final MoveTimeoutPolicy policy;
+        private final HashedWheelTimer timer;
+
+        MoveDeadline(long timeoutMillis, MoveTimeoutPolicy policy, HashedWheelTimer timer) {
+            this.timeoutMillis = timeoutMillis;
+            this.policy = policy;
+            this.timer = timer;
+        }
+    }
+
+    private static class Slot {
+
+        private final Player player;
+        private final AsyncPlayer asyncPlayer;
+        private final int index;
+        private final MoveHistory opponentMoves;
+        private final GameContext context;
+
+        Slot(int index, Player player, AsyncPlayer asyncPlayer, GameRules rules) {
+            this.index = index;
+            this.player = player;
+            this.asyncPlayer = asyncPlayer;
+            this.opponentMoves = new MoveHistory(OPPONENT_MOVES_CAPACITY);
+            this.context = new GameContext(rules.getContext().getAvailableMoves(), rules, opponentMoves);
+        }
     }
 }
@@ -3,17 +3,45 @@ package com.example.rps;
 import java.util.List;
 
 /**
+ * Context in which player makes a move. Game gives each player its own context, so that
+ * player can see {@link #getOpponentMoves() recent moves} of the opponent
+ *
  * @author Beka Tsotsoria
  */
 public class GameContext {
 
     private List<Weapon> availableMoves;
+    private final GameRules rules;
+    private final MoveHistory opponentMoves;
 
     public GameContext(List<Weapon> availableMoves) {
+        this(availableMoves, null, MoveHistory.EMPTY);
+    }
+
+    GameContext(List<Weapon> availableMoves, GameRules rules, MoveHistory opponentMoves) {
         this.availableMoves = availableMoves;
+        this.rules = rules;
+        this.opponentMoves = opponentMoves;
     }
 
+    /**
+     * Returns available moves, index of the move is its {@link GameRules#ordinalOf(Weapon) ordinal}
+     */
     public List<Weapon> getAvailableMoves() {
         return availableMoves;
     }
+
+    /**
+     * Returns rules of the game or null if context was not created by the game
+     */
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns recent moves of the opponent, view is updated in place after every round
+     */
+    public MoveHistory getOpponentMoves() {
+        return opponentMoves;
+    }
 }
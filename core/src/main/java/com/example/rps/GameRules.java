@@ -1,6 +1,7 @@
 package com.example.rps;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Represents rules of games, users can play games based on rules they define
@@ -36,36 +37,206 @@ public class GameRules {
         .defeats(Weapon.LIZARD, Weapon.PAPER, Weapon.SPOCK)
         .build();
 
-    private final Map<Weapon, List<Weapon>> relationships;
+    private final WeaponRegistry weapons;
+    private final GameContext context;
+    private final int size;
+
+    /**
+     * Outcome matrix indexed by <code>ordinal1 * size + ordinal2</code>, see {@link #outcome(int, int)}
+     */
+    private final byte[] outcomes;
+
+    /**
+     * Ordinal of the first weapon defeating weapon of given ordinal, see {@link #counterOf(int)}
+     */
+    private final byte[] counters;
 
     private GameRules(Builder b) {
-        this.relationships = b.relationships;
-        relationships.forEach((weapon, defeatees) -> {
-            Weapon circularDefeater = defeatees.stream().filter(defeatee -> defeats(defeatee, weapon))
-                .findFirst()
-                .orElse(null);
-            if (circularDefeater != null) {
-                throw new InconsistentGameRulesException(weapon.getName() + " and " + circularDefeater.getName() + " defeat each other");
+        Map<Weapon, Integer> ordinals = new LinkedHashMap<>();
+        b.relationships.forEach((weapon, defeatees) -> {
+            ordinals.putIfAbsent(weapon, ordinals.size());
+            defeatees.forEach(defeatee -> ordinals.putIfAbsent(defeatee, ordinals.size()));
+        });
+        this.weapons = new WeaponRegistry(ordinals.keySet());
+        this.size = ordinals.size();
+        this.context = new GameContext(weapons.getAll(), this, MoveHistory.EMPTY);
+        this.outcomes = new byte[size * size];
+        b.relationships.forEach((weapon, defeatees) -> defeatees.forEach(defeatee -> {
+            outcomes[ordinals.get(weapon) * size + ordinals.get(defeatee)] = 1;
+        }));
+        validate();
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (outcomes[i * size + j] == 1) {
+                    outcomes[j * size + i] = -1;
+                }
             }
-            if (!isDefeatableByAnyone(weapon)) {
-                throw new InconsistentGameRulesException(weapon.getName() + " is not defeatable");
+        }
+        this.counters = new byte[size];
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i < size; i++) {
+                if (outcomes[i * size + j] == 1) {
+                    counters[j] = (byte) i;
+                    break;
+                }
             }
-        });
+        }
     }
 
+    private void validate() {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (outcomes[i * size + j] == 1 && outcomes[j * size + i] == 1) {
+                    throw new InconsistentGameRulesException(weapons.byOrdinal(i).getName() + " and " + weapons.byOrdinal(j).getName() + " defeat each other");
+                }
+            }
+            if (!isDefeatableByAnyone(i)) {
+                throw new InconsistentGameRulesException(weapons.byOrdinal(i).getName() + " is not defeatable");
+            }
+        }
+    }
+
+    private boolean isDefeatableByAnyone(int ordinal) {
+        for (int i = 0; i < size; i++) {
+            if (i != ordinal && outcomes[i * size + ordinal] == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns all weapons of these rules ordered by their {@link #ordinalOf(Weapon) ordinals}
+     */
     public List<Weapon> getAllWeapons() {
-        return new ArrayList<>(relationships.keySet());
+        return new ArrayList<>(weapons.getAll());
     }
 
-    private boolean isDefeatableByAnyone(Weapon weapon) {
-        return relationships.entrySet().stream()
-            .filter(e -> !e.getKey().equals(weapon))
-            .map(Map.Entry::getValue)
-            .anyMatch(otherDefeatees -> otherDefeatees.contains(weapon));
+    /**
+     * Returns registry of canonical weapons of these rules
+     */
+    public WeaponRegistry getWeapons() {
+        return weapons;
+    }
+
+    /**
+     * Returns immutable context without any opponent moves, games give each player its own context
+     */
+    public GameContext getContext() {
+        return context;
+    }
+
+    /**
+     * Returns number of weapons in these rules, ordinals are in range <code>[0, size)</code>
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns ordinal of weapon within these rules or -1 if weapon is not part of them. Ordinals are
+     * assigned in order weapons are first mentioned in {@link Builder}
+     */
+    public int ordinalOf(Weapon weapon) {
+        return weapons.ordinalOf(weapon);
+    }
+
+    /**
+     * Returns weapon by its {@link #ordinalOf(Weapon) ordinal}
+     */
+    public Weapon weaponOf(int ordinal) {
+        return weapons.byOrdinal(ordinal);
     }
 
     public boolean defeats(Weapon weapon, Weapon anotherWeapon) {
-        return relationships.get(weapon).contains(anotherWeapon);
+        int ordinal = ordinalOf(weapon);
+        int anotherOrdinal = ordinalOf(anotherWeapon);
+        return ordinal >= 0 && anotherOrdinal >= 0 && defeats(ordinal, anotherOrdinal);
+    }
+
+    /**
+     * Same as {@link #defeats(Weapon, Weapon)} but operates on {@link #ordinalOf(Weapon) ordinals}
+     */
+    public boolean defeats(int ordinal, int anotherOrdinal) {
+        return outcomes[ordinal * size + anotherOrdinal] > 0;
+    }
+
+    /**
+     * Returns outcome of two weapons identified by {@link #ordinalOf(Weapon) ordinals}
+     *
+     * @return positive value if first weapon wins, negative value if second one wins and 0 if it's a draw
+     */
+    public int outcome(int ordinal, int anotherOrdinal) {
+        return outcomes[ordinal * size + anotherOrdinal];
+    }
+
+    /**
+     * Returns ordinal of weapon which defeats weapon of specified ordinal, every weapon has one
+     * since rules are consistent. When there are several of them the first declared one is returned
+     */
+    public int counterOf(int ordinal) {
+        return counters[ordinal];
+    }
+
+    /**
+     * Same as {@link #simulate(byte[], byte[], ForkJoinPool)} but uses {@link ForkJoinPool#commonPool() common pool}
+     */
+    public SimulationResult simulate(byte[] moves1, byte[] moves2) {
+        return simulate(moves1, moves2, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays rounds in bulk without creating players, games or round results. Moves of round <code>i</code>
+     * are <code>moves1[i]</code> and <code>moves2[i]</code> given as {@link #ordinalOf(Weapon) ordinals}.
+     * Large batches are split across workers of specified pool
+     *
+     * @throws IllegalArgumentException       if arrays have different length
+     * @throws ArrayIndexOutOfBoundsException if any of the moves is not valid ordinal
+     */
+    public SimulationResult simulate(byte[] moves1, byte[] moves2, ForkJoinPool pool) {
+        if (moves1.length != moves2.length) {
+            throw new IllegalArgumentException("Moves of both players must have same length, got "
+                + moves1.length + " and " + moves2.length);
+        }
+        long start = System.nanoTime();
+        SimulationTask task = new SimulationTask(outcomes, size, moves1, moves2, 0, moves1.length);
+        if (moves1.length <= SimulationTask.THRESHOLD) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        return new SimulationResult(moves1.length, new long[]{task.wins1, task.wins2}, task.draws,
+            new long[][]{task.weaponCounts1, task.weaponCounts2}, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns predefined rules if they are the same as specified ones including order of weapons,
+     * so that rules rebuilt from storage are shared with games created in this process
+     */
+    static GameRules canonical(GameRules rules) {
+        for (GameRules predefined : new GameRules[]{CLASSIC, LIZARD_SPOCK_EXTENSION}) {
+            if (sameRules(rules, predefined)) {
+                return predefined;
+            }
+        }
+        return rules;
+    }
+
+    private static boolean sameRules(GameRules rules, GameRules anotherRules) {
+        if (rules.size() != anotherRules.size()) {
+            return false;
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            if (!rules.weaponOf(i).equals(anotherRules.weaponOf(i))) {
+                return false;
+            }
+            for (int j = 0; j < rules.size(); j++) {
+                if (rules.defeats(i, j) != anotherRules.defeats(i, j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
     }
 
     public static Builder builder() {
@@ -74,7 +245,7 @@ public class GameRules {
 
     public static class Builder {
 
-        private final Map<Weapon, List<Weapon>> relationships = new HashMap<>();
+        private final Map<Weapon, List<Weapon>> relationships = new LinkedHashMap<>();
 
         /**
          * Adds rule which means that <code>weapon</code> will defeat <code>anotherWeapons</code>
@@ -86,6 +257,18 @@ public class GameRules {
             return this;
         }
 
+        /**
+         * Makes specified weapons get ordinals in the order they are passed, before weapons of added rules
+         *
+         * @return this instance to allow chaining
+         */
+        public Builder ordered(Weapon... weapons) {
+            for (Weapon weapon : weapons) {
+                defeats(weapon);
+            }
+            return this;
+        }
+
         /**
          * Builds rules
          *
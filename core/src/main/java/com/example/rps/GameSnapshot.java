@@ -0,0 +1,57 @@
+package com.example.rps;
+
+/**
+ * State of the {@link Game game} needed to continue it after restart, see {@link Game#snapshot()}
+ *
+ * @author Beka Tsotsoria
+ */
+public class GameSnapshot {
+
+    private final String name;
+    private final GameRules rules;
+    private final long roundNumber;
+    private final PlayerScore[] scores;
+
+    GameSnapshot(String name, GameRules rules, long roundNumber, PlayerScore[] scores) {
+        this.name = name;
+        this.rules = rules;
+        this.roundNumber = roundNumber;
+        this.scores = scores;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns number of the last round included in this snapshot
+     */
+    public long getRoundNumber() {
+        return roundNumber;
+    }
+
+    /**
+     * Returns statistics of players indexed by their slots, null for empty slot
+     */
+    PlayerScore[] getScores() {
+        return scores;
+    }
+
+    /**
+     * Returns number of slots
+     */
+    public int getSlots() {
+        return scores.length;
+    }
+
+    /**
+     * Returns statistics of the player in specified slot or null if slot is empty
+     */
+    public PlayerScore getScore(int slot) {
+        return scores[slot];
+    }
+}
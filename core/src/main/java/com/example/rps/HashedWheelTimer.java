@@ -0,0 +1,289 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Timer for large amount of short-living timeouts such as move deadlines. Timeouts are hashed into
+ * wheel of buckets by their deadline, so both {@link #schedule(Runnable, long, TimeUnit) arming} and
+ * {@link Timeout#cancel() cancelling} take O(1), timeouts fire with precision of single tick.
+ * <p>
+ * Single worker thread advances wheel and runs expired tasks, so tasks should be short and must not block.
+ *
+ * @author Beka Tsotsoria
+ */
+public class HashedWheelTimer {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static volatile HashedWheelTimer shared;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Worker-only state
+     */
+    private long tick;
+
+    /**
+     * @param tickDuration duration of single tick, precision of timer
+     * @param unit         unit of tick duration
+     * @param wheelSize    number of buckets in wheel, gets rounded up to power of 2
+     */
+    public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Wheel size must be in range (0, 2^30]");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::work, "rps-wheel-timer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Returns timer shared by games, ticks every 10 milliseconds
+     */
+    public static HashedWheelTimer shared() {
+        if (shared == null) {
+            synchronized (HashedWheelTimer.class) {
+                if (shared == null) {
+                    shared = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 512);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Schedules task to run once after specified delay
+     *
+     * @return handle which can be used to cancel task
+     * @throws IllegalStateException if timer is stopped
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer is stopped");
+        }
+        Timeout timeout = new Timeout(this, task, System.nanoTime() - startNanos + unit.toNanos(delay));
+        pending.incrementAndGet();
+        scheduled.offer(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns number of timeouts which are neither expired nor cancelled yet
+     */
+    public int getPendingTimeouts() {
+        return pending.get();
+    }
+
+    /**
+     * Stops timer, pending timeouts never fire
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void work() {
+        while (running) {
+            if (!waitForNextTick()) {
+                return;
+            }
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire();
+            tick++;
+        }
+    }
+
+    private boolean waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        for (; ; ) {
+            long sleepNanos = deadline - (System.nanoTime() - startNanos);
+            if (sleepNanos <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = scheduled.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.ACTIVE) {
+                continue;
+            }
+            long ticks = timeout.deadlineNanos / tickNanos;
+            timeout.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Handle of scheduled task
+     */
+    public static final class Timeout {
+
+        private static final int ACTIVE = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadlineNanos;
+        private volatile int state = ACTIVE;
+
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+
+        Timeout(HashedWheelTimer timer, Runnable task, long deadlineNanos) {
+            this.timer = timer;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels task if it has not fired yet
+         *
+         * @return true if task got cancelled by this call
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, ACTIVE, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelled.offer(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        void expire() {
+            if (!STATE.compareAndSet(this, ACTIVE, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable e) {
+                log.warn("Timer task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, accessed by worker thread only
+     */
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire() {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rps;
+
+/**
+ * Gets notified about every round written to {@link RoundJournal} together with its position, which can be
+ * used to {@link RoundJournal#read(long, RoundEvent) read} round back later.
+ * Positions grow in order rounds are written. Called from writer thread of journal, so it must not block
+ *
+ * @author Beka Tsotsoria
+ */
+public interface JournalListener {
+
+    /**
+     * @param position position of the round in journal
+     * @param round    round which gets reused after this method returns
+     */
+    void onAppend(long position, RoundEvent round);
+
+    /**
+     * Called by thread which {@link RoundJournal#deleteSegmentsBefore(long, long) deleted} segments, rounds at
+     * positions lower than specified one can't be read anymore
+     */
+    default void onDelete(long position) {
+    }
+}
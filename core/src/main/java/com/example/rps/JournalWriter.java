@@ -0,0 +1,194 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Appends CRC-framed records of rounds to memory-mapped segments of {@link RoundJournal}, called only
+ * from background thread of {@link RoundEventLog}, so every drained batch of rounds is committed together.
+ * Rules of the round are written once per segment as separate record and rounds refer to them by ID,
+ * so every segment can be read on its own
+ *
+ * @author Beka Tsotsoria
+ */
+class JournalWriter implements RoundEventWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalWriter.class);
+
+    private final RoundJournal journal;
+    private final JournalListener listener;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer frame;
+    private final Map<GameRules, Integer> segmentRules = new IdentityHashMap<>();
+
+    private FileChannel channel;
+    private Path segmentPath;
+    private MappedByteBuffer segment;
+    private long segmentSequence;
+    private boolean dirty;
+    private long lastFsyncNanos = System.nanoTime();
+
+    JournalWriter(RoundJournal journal, JournalListener listener, int segmentSize, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.journal = journal;
+        this.listener = listener;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000;
+        this.frame = ByteBuffer.allocate(RoundJournal.FRAME_HEADER_SIZE + RoundJournal.MAX_PAYLOAD_SIZE);
+    }
+
+    @Override
+    public void write(RoundEvent event) throws IOException {
+        if (segment == null) {
+            roll();
+        }
+        Integer rulesId = segmentRules.get(event.getRules());
+        if (rulesId == null) {
+            rulesId = segmentRules.size();
+            frame.clear();
+            frame.position(RoundJournal.FRAME_HEADER_SIZE);
+            frame.put(RoundJournal.RULES_RECORD);
+            frame.putShort(rulesId.shortValue());
+            GameRules rules = event.getRules();
+            frame.put((byte) rules.size());
+            for (int i = 0; i < rules.size(); i++) {
+                putString(rules.weaponOf(i).getName());
+            }
+            for (int i = 0; i < rules.size(); i++) {
+                for (int j = 0; j < rules.size(); j++) {
+                    frame.put((byte) (rules.defeats(i, j) ? 1 : 0));
+                }
+            }
+            if (!append()) {
+                // Rules go to the new segment together with the round
+                write(event);
+                return;
+            }
+            segmentRules.put(rules, rulesId);
+            journal.defineRules(segmentSequence, rulesId, rules);
+        }
+
+        frame.clear();
+        frame.position(RoundJournal.FRAME_HEADER_SIZE);
+        frame.put(RoundJournal.ROUND_RECORD);
+        frame.putShort(rulesId.shortValue());
+        frame.putLong(event.getRoundNumber());
+        frame.put((byte) event.getMove(0));
+        frame.put((byte) event.getMove(1));
+        frame.put((byte) Integer.signum(event.getOutcome()));
+        frame.putLong(event.getTimestamp());
+        if (!putString(event.getGame()) || !putString(event.getPlayerId(0)) || !putString(event.getPlayerId(1))) {
+            log.warn("Round {} of game {} is too big to be journaled", event.getRoundNumber(), event.getGame());
+            return;
+        }
+        if (!append()) {
+            write(event);
+            return;
+        }
+        if (listener != null) {
+            listener.onAppend(RoundJournal.position(segmentSequence, segment.position() - frame.limit()), event);
+        }
+    }
+
+    /**
+     * Frames record prepared in the frame buffer and appends it to current segment
+     *
+     * @return false if segment was full and new one got started, record must be prepared again for it
+     */
+    private boolean append() throws IOException {
+        int payloadSize = frame.position() - RoundJournal.FRAME_HEADER_SIZE;
+        crc.reset();
+        crc.update(frame.array(), RoundJournal.FRAME_HEADER_SIZE, payloadSize);
+        frame.putInt(0, payloadSize);
+        frame.putInt(4, (int) crc.getValue());
+        frame.flip();
+
+        if (segment.remaining() < frame.remaining()) {
+            roll();
+            return false;
+        }
+        segment.put(frame);
+        dirty = true;
+        return true;
+    }
+
+    private boolean putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE || frame.remaining() < bytes.length + 2) {
+            return false;
+        }
+        frame.putShort((short) bytes.length);
+        frame.put(bytes);
+        return true;
+    }
+
+    /**
+     * Starts new segment, the rest of the previous one stays zeroed which marks its end
+     */
+    private void roll() throws IOException {
+        closeSegment();
+        segmentRules.clear();
+        Path path = journal.nextSegment();
+        segmentSequence = journal.getCurrentSegment();
+        segmentPath = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        log.info("Started journal segment {}", path);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (fsyncPolicy == FsyncPolicy.BATCH || fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsyncNanos >= fsyncIntervalNanos) {
+            segment.force();
+            lastFsyncNanos = now;
+            dirty = false;
+        }
+    }
+
+    /**
+     * Forces rounds of the last batch once fsync interval elapses, even if no more rounds come
+     */
+    @Override
+    public void idle() throws IOException {
+        flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                segment.force();
+            }
+            segment = null;
+            channel.close();
+            channel = null;
+            dirty = false;
+            // Writes through mapping don't reliably update modification time, which tells how old rounds of segment are
+            Files.setLastModifiedTime(segmentPath, FileTime.fromMillis(System.currentTimeMillis()));
+        }
+    }
+}
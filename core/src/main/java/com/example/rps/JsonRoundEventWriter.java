@@ -0,0 +1,73 @@
+package com.example.rps;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes every {@link RoundEvent} as single line JSON object with short keys, for example:
+ * <pre>{"ts":1500000000000,"game":"g","round":7,"p1":"john","m1":"rock","p2":"bot","m2":"paper","outcome":-1}</pre>
+ * Forfeited moves are written as <code>null</code>. Single builder is reused for all events
+ *
+ * @author Beka Tsotsoria
+ */
+public class JsonRoundEventWriter implements RoundEventWriter {
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param out destination of events, should be buffered since events are written one by one
+     */
+    public JsonRoundEventWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(RoundEvent event) throws IOException {
+        line.setLength(0);
+        line.append("{\"ts\":").append(event.getTimestamp());
+        line.append(",\"game\":");
+        appendString(event.getGame());
+        line.append(",\"round\":").append(event.getRoundNumber());
+        line.append(",\"p1\":");
+        appendString(event.getPlayerId(0));
+        line.append(",\"m1\":");
+        appendString(event.getWeaponName(0));
+        line.append(",\"p2\":");
+        appendString(event.getPlayerId(1));
+        line.append(",\"m2\":");
+        appendString(event.getWeaponName(1));
+        line.append(",\"outcome\":").append(event.getOutcome());
+        line.append("}\n");
+        out.append(line);
+    }
+
+    private void appendString(String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\').append(c);
+            } else if (c < 0x20) {
+                line.append(String.format("\\u%04x", (int) c));
+            } else {
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.rps;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ranking of players across all games by Elo rating, updated by every round of games which
+ * {@link Game#setLeaderboard(Leaderboard) publish} to it. Games hand rounds over through lock-free
+ * {@link RoundEventLog ring} which queues rounds that don't fit instead of dropping them, so games never wait
+ * for ranking, no round is lost and ratings don't diverge. Ratings are applied by single background thread
+ * of the ring, so updates don't need any locks. Players are kept in skip list ordered by rating which answers top-K queries
+ * in O(log n + K), rank of single player is counted by Fenwick tree over integer ratings in O(log R).
+ * Queries don't block and see ratings as soon as rounds are applied
+ *
+ * @author Beka Tsotsoria
+ */
+public class Leaderboard implements AutoCloseable {
+
+    public static final int INITIAL_RATING = 1500;
+
+    /**
+     * Ratings above this one share the same rank counter, Elo ratings practically never get that high
+     */
+    static final int MAX_RANKED_RATING = 4095;
+
+    private static final Comparator<Rating> ORDER = Comparator.<Rating>comparingInt(r -> -r.rounded)
+        .thenComparing(r -> r.playerId);
+
+    private final double kFactor;
+    private final ConcurrentMap<String, Rating> ratings = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Rating> ranking = new ConcurrentSkipListSet<>(ORDER);
+    /**
+     * Fenwick tree of number of players by rating
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_RANKED_RATING + 2);
+    private final RoundEventLog eventLog;
+
+    /**
+     * Creates leaderboard with K-factor of 32 and room for 64K rounds waiting to be applied
+     */
+    public Leaderboard() {
+        this(32, 64 * 1024);
+    }
+
+    /**
+     * @param kFactor  maximum change of rating after single round
+     * @param capacity number of rounds which may wait for being applied in the ring, rounds published when there
+     *                 is no room are queued in overflow queue
+     */
+    public Leaderboard(double kFactor, int capacity) {
+        if (kFactor <= 0) {
+            throw new IllegalArgumentException("K-factor must be positive");
+        }
+        this.kFactor = kFactor;
+        this.eventLog = new RoundEventLog(capacity, new Applier(), true);
+    }
+
+    RoundEventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Returns number of rounds which were queued in overflow queue because games were producing them faster than
+     * they could be applied
+     */
+    public long getOverflowedRounds() {
+        return eventLog.getOverflowedEvents();
+    }
+
+    /**
+     * Returns number of rounds waiting to be applied
+     */
+    public int getPendingRounds() {
+        return eventLog.getPendingEvents();
+    }
+
+    /**
+     * Returns number of ranked players
+     */
+    public int size() {
+        return ratings.size();
+    }
+
+    /**
+     * Returns up to <code>k</code> players with the highest ratings, best first
+     */
+    public List<LeaderboardEntry> top(int k) {
+        List<LeaderboardEntry> top = new ArrayList<>(Math.min(k, 1024));
+        long rank = 0;
+        int previousRating = Integer.MAX_VALUE;
+        for (Rating rating : ranking) {
+            if (top.size() == k) {
+                break;
+            }
+            if (rating.rounded != previousRating) {
+                rank = top.size() + 1;
+                previousRating = rating.rounded;
+            }
+            top.add(rating.toEntry(rank));
+        }
+        return top;
+    }
+
+    /**
+     * Returns standing of specified player or null if player hasn't played yet
+     */
+    public LeaderboardEntry get(String playerId) {
+        Rating rating = ratings.get(playerId);
+        return rating == null ? null : rating.toEntry(rankOf(rating.rounded));
+    }
+
+    private long rankOf(int rating) {
+        int index = indexOf(rating);
+        return 1 + prefixCount(MAX_RANKED_RATING) - prefixCount(index);
+    }
+
+    /**
+     * Applies result of single round, called from background thread only
+     *
+     * @param outcome positive value if the first player won, negative if the second one won, 0 if it's a draw
+     */
+    void apply(String playerId1, String playerId2, int outcome) {
+        if (playerId1.equals(playerId2)) {
+            return;
+        }
+        Rating rating1 = ratings.getOrDefault(playerId1, Rating.initial(playerId1));
+        Rating rating2 = ratings.getOrDefault(playerId2, Rating.initial(playerId2));
+        double expected1 = 1 / (1 + Math.pow(10, (rating2.value - rating1.value) / 400));
+        double score1 = outcome > 0 ? 1 : outcome < 0 ? 0 : 0.5;
+        double change = kFactor * (score1 - expected1);
+        update(rating1, rating1.next(rating1.value + change, outcome));
+        update(rating2, rating2.next(rating2.value - change, -outcome));
+    }
+
+    private void update(Rating previous, Rating next) {
+        if (ratings.put(next.playerId, next) != null) {
+            ranking.remove(previous);
+            addCount(indexOf(previous.rounded), -1);
+        }
+        ranking.add(next);
+        addCount(indexOf(next.rounded), 1);
+    }
+
+    private static int indexOf(int rating) {
+        return Math.max(0, Math.min(MAX_RANKED_RATING, rating));
+    }
+
+    private void addCount(int index, long delta) {
+        for (int i = index + 1; i < counts.length(); i += i & -i) {
+            counts.addAndGet(i, delta);
+        }
+    }
+
+    /**
+     * Returns number of players with rating index not greater than specified one
+     */
+    private long prefixCount(int index) {
+        long count = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Applies rounds which are already published and stops background thread
+     */
+    @Override
+    public void close() {
+        eventLog.close();
+    }
+
+    private class Applier implements RoundEventWriter {
+
+        @Override
+        public void write(RoundEvent event) {
+            apply(event.getPlayerId(0), event.getPlayerId(1), event.getOutcome());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Immutable rating of player, replaced on every round
+     */
+    private static final class Rating {
+
+        private final String playerId;
+        private final double value;
+        private final int rounded;
+        private final long wins;
+        private final long losses;
+        private final long draws;
+
+        private Rating(String playerId, double value, long wins, long losses, long draws) {
+            this.playerId = playerId;
+            this.value = value;
+            this.rounded = (int) Math.round(value);
+            this.wins = wins;
+            this.losses = losses;
+            this.draws = draws;
+        }
+
+        static Rating initial(String playerId) {
+            return new Rating(playerId, INITIAL_RATING, 0, 0, 0);
+        }
+
+        Rating next(double value, int outcome) {
+            return new Rating(playerId, value, wins + (outcome > 0 ? 1 : 0), losses + (outcome < 0 ? 1 : 0), draws + (outcome == 0 ? 1 : 0));
+        }
+
+        LeaderboardEntry toEntry(long rank) {
+            return new LeaderboardEntry(rank, playerId, rounded, wins, losses, draws);
+        }
+    }
+}
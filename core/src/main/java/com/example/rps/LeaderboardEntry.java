@@ -0,0 +1,64 @@
+package com.example.rps;
+
+/**
+ * Standing of single player in {@link Leaderboard}
+ *
+ * @author Beka Tsotsoria
+ */
+public class LeaderboardEntry {
+
+    private final long rank;
+    private final String playerId;
+    private final int rating;
+    private final long wins;
+    private final long losses;
+    private final long draws;
+
+    LeaderboardEntry(long rank, String playerId, int rating, long wins, long losses, long draws) {
+        this.rank = rank;
+        this.playerId = playerId;
+        this.rating = rating;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+    }
+
+    /**
+     * Returns 1 plus number of players with higher rating, players with equal rating share rank
+     */
+    public long getRank() {
+        return rank;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public int getRating() {
+        return rating;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    @Override
+    public String toString() {
+        return "LeaderboardEntry{" +
+            "rank=" + rank +
+            ", playerId='" + playerId + '\'' +
+            ", rating=" + rating +
+            ", wins=" + wins +
+            ", losses=" + losses +
+            ", draws=" + draws +
+            '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rps;
+
+import java.util.Arrays;
+
+/**
+ * Predicts the next move of the opponent from the last <code>order</code> moves of the opponent (n-gram of
+ * order + 1 moves). Transition counts are kept in single array indexed by
+ * <code>state * size + move</code>, where state encodes last moves in base <code>size</code>.
+ * The most frequent transition of every state is maintained incrementally, so prediction does
+ * not scan anything
+ *
+ * @author Beka Tsotsoria
+ */
+public class MarkovModel implements OpponentModel {
+
+    /**
+     * Upper bound of memory used by transition counts, keeps thousands of bots cheap
+     */
+    static final int MAX_MODEL_BYTES = 8 * 1024;
+
+    private final int size;
+    private final int order;
+    private final int states;
+    private final int[] transitions;
+    private final byte[] best;
+    private int state;
+    private int observed;
+
+    /**
+     * @param size  number of weapons in the game
+     * @param order number of recent moves prediction is based on
+     * @throws IllegalArgumentException if order is not positive or model would use more than {@value #MAX_MODEL_BYTES} bytes
+     */
+    public MarkovModel(int size, int order) {
+        if (order <= 0) {
+            throw new IllegalArgumentException("Order must be positive, got " + order);
+        }
+        long cells = size;
+        for (int i = 0; i < order; i++) {
+            cells *= size;
+        }
+        if (cells * Integer.BYTES > MAX_MODEL_BYTES) {
+            throw new IllegalArgumentException("Model of order " + order + " for " + size + " weapons would not fit in "
+                + MAX_MODEL_BYTES + " bytes");
+        }
+        this.size = size;
+        this.order = order;
+        this.states = (int) (cells / size);
+        this.transitions = new int[(int) cells];
+        this.best = new byte[states];
+    }
+
+    @Override
+    public void observe(int ordinal) {
+        if (observed >= order) {
+            int row = state * size;
+            if (transitions[row + ordinal] == Integer.MAX_VALUE) {
+                for (int i = row; i < row + size; i++) {
+                    transitions[i] >>= 1;
+                }
+            }
+            transitions[row + ordinal]++;
+            if (transitions[row + ordinal] > transitions[row + best[state]]) {
+                best[state] = (byte) ordinal;
+            }
+        } else {
+            observed++;
+        }
+        state = (state * size + ordinal) % states;
+    }
+
+    @Override
+    public int predict() {
+        if (observed < order) {
+            return -1;
+        }
+        int move = best[state];
+        return transitions[state * size + move] > 0 ? move : -1;
+    }
+
+    @Override
+    public void reset() {
+        Arrays.fill(transitions, 0);
+        Arrays.fill(best, (byte) 0);
+        state = 0;
+        observed = 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.rps;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Player waiting in {@link Matchmaker} for opponent
+ *
+ * @author Beka Tsotsoria
+ */
+public class MatchTicket {
+
+    private static final int WAITING = 0;
+    private static final int MATCHED = 1;
+    private static final int CANCELLED = 2;
+
+    private final Player player;
+    private final Matchmaker.Bucket bucket;
+    private final long enqueuedNanos = System.nanoTime();
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+    private final CompletableFuture<Game> game = new CompletableFuture<>();
+
+    MatchTicket(Player player, Matchmaker.Bucket bucket) {
+        this.player = player;
+        this.bucket = bucket;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Returns game which player joined once opponent is found, completes exceptionally with
+     * {@link java.util.concurrent.CancellationException} if ticket gets cancelled
+     */
+    public CompletionStage<Game> getGame() {
+        return game;
+    }
+
+    /**
+     * Stops waiting for opponent
+     *
+     * @return false if player was already matched
+     */
+    public boolean cancel() {
+        if (!state.compareAndSet(WAITING, CANCELLED)) {
+            return false;
+        }
+        bucket.remove(this);
+        game.cancel(false);
+        return true;
+    }
+
+    boolean claim() {
+        return state.compareAndSet(WAITING, MATCHED);
+    }
+
+    void matched(Game game) {
+        this.game.complete(game);
+    }
+
+    void failed(Throwable e) {
+        this.game.completeExceptionally(e);
+    }
+
+    long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    Matchmaker.Bucket getBucket() {
+        return bucket;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.rps;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Pairs waiting players into new games, so that players don't need to know name of the game. Players wait
+ * in buckets by rules and optionally by rating band, only players of the same bucket play each other. Since
+ * game takes exactly 2 players, every bucket has single slot for waiting player: player either takes opponent
+ * from the slot or waits in it, both with single CAS, so every pair costs O(1) and no locks are taken.
+ * Game is created and joined on thread of the player who completes the pair
+ *
+ * @author Beka Tsotsoria
+ */
+public class Matchmaker {
+
+    /**
+     * Names of matched games start with this prefix followed by random UUID, so they don't collide with games
+     * matched before restart or on other nodes
+     */
+    public static final String GAME_PREFIX = "match-";
+
+    private static final int ANY_RATING = Integer.MIN_VALUE;
+
+    private final BiFunction<String, GameRules, Game> gameFactory;
+    private final int ratingBand;
+    private final ConcurrentMap<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingPlayers = new AtomicInteger();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder matchedPlayers = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private long lastSamplePlayers;
+    private long lastSampleWaitNanos;
+
+    /**
+     * @param gameFactory creates game with specified name and rules for every matched pair
+     * @param ratingBand  width of rating band, rated players play only opponents from the same band
+     */
+    public Matchmaker(BiFunction<String, GameRules, Game> gameFactory, int ratingBand) {
+        if (ratingBand <= 0) {
+            throw new IllegalArgumentException("Rating band must be positive");
+        }
+        this.gameFactory = gameFactory;
+        this.ratingBand = ratingBand;
+    }
+
+    /**
+     * Matches player with any opponent who wants to play by the same rules
+     */
+    public MatchTicket enqueue(Player player, GameRules rules) {
+        return enqueue(player, bucketOf(rules, ANY_RATING));
+    }
+
+    /**
+     * Matches player with opponent who wants to play by the same rules and has rating in the same band
+     */
+    public MatchTicket enqueue(Player player, GameRules rules, int rating) {
+        return enqueue(player, bucketOf(rules, Math.floorDiv(rating, ratingBand)));
+    }
+
+    private Bucket bucketOf(GameRules rules, int band) {
+        if (rules == null) {
+            throw new NullPointerException("rules");
+        }
+        return buckets.computeIfAbsent(new BucketKey(rules, band), Bucket::new);
+    }
+
+    private MatchTicket enqueue(Player player, Bucket bucket) {
+        if (player == null) {
+            throw new NullPointerException("player");
+        }
+        MatchTicket ticket = new MatchTicket(player, bucket);
+        for (; ; ) {
+            MatchTicket opponent = bucket.waiting.get();
+            if (opponent == null) {
+                if (bucket.waiting.compareAndSet(null, ticket)) {
+                    waitingPlayers.incrementAndGet();
+                    return ticket;
+                }
+            } else if (bucket.waiting.compareAndSet(opponent, null)) {
+                waitingPlayers.decrementAndGet();
+                if (opponent.getPlayer().getId().equals(player.getId())) {
+                    // Player enqueued again, the new ticket replaces the old one
+                    opponent.cancel();
+                } else if (opponent.claim()) {
+                    ticket.claim();
+                    match(opponent, ticket);
+                    return ticket;
+                }
+            }
+        }
+    }
+
+    private void match(MatchTicket waiting, MatchTicket ticket) {
+        Game game;
+        try {
+            game = gameFactory.apply(GAME_PREFIX + UUID.randomUUID(), waiting.getBucket().key.rules);
+            game.join(waiting.getPlayer());
+            game.join(ticket.getPlayer());
+        } catch (RuntimeException e) {
+            waiting.failed(e);
+            ticket.failed(e);
+            return;
+        }
+        long now = System.nanoTime();
+        long waited = now - waiting.getEnqueuedNanos();
+        matches.increment();
+        matchedPlayers.add(2);
+        waitNanos.add(waited + now - ticket.getEnqueuedNanos());
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        waiting.matched(game);
+        ticket.matched(game);
+    }
+
+    /**
+     * Tells whether game with specified name was created by matchmaker
+     */
+    public static boolean isMatchedGame(String name) {
+        return name.startsWith(GAME_PREFIX);
+    }
+
+    public synchronized MatchmakerMetrics getMetrics() {
+        long players = matchedPlayers.sum();
+        long nanos = waitNanos.sum();
+        long sampledPlayers = players - lastSamplePlayers;
+        double average = sampledPlayers == 0 ? 0 : (nanos - lastSampleWaitNanos) / (double) sampledPlayers / TimeUnit.MILLISECONDS.toNanos(1);
+        double max = maxWaitNanos.getAndSet(0) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        lastSamplePlayers = players;
+        lastSampleWaitNanos = nanos;
+        return new MatchmakerMetrics(waitingPlayers.get(), matches.sum(), average, max);
+    }
+
+    /**
+     * Players who wait for the same kind of opponent
+     */
+    class Bucket {
+
+        private final BucketKey key;
+        private final AtomicReference<MatchTicket> waiting = new AtomicReference<>();
+
+        private Bucket(BucketKey key) {
+            this.key = key;
+        }
+
+        void remove(MatchTicket ticket) {
+            if (waiting.compareAndSet(ticket, null)) {
+                waitingPlayers.decrementAndGet();
+            }
+        }
+    }
+
+    private static class BucketKey {
+
+        private final GameRules rules;
+        private final int band;
+
+        BucketKey(GameRules rules, int band) {
+            this.rules = rules;
+            this.band = band;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            BucketKey that = (BucketKey) o;
+            return band == that.band && rules == that.rules;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(rules) + band;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.rps;
+
+/**
+ * Point in time metrics of {@link Matchmaker}
+ *
+ * @author Beka Tsotsoria
+ */
+public class MatchmakerMetrics {
+
+    private final int waitingPlayers;
+    private final long matches;
+    private final double averageTimeToMatchMillis;
+    private final double maxTimeToMatchMillis;
+
+    public MatchmakerMetrics(int waitingPlayers, long matches, double averageTimeToMatchMillis, double maxTimeToMatchMillis) {
+        this.waitingPlayers = waitingPlayers;
+        this.matches = matches;
+        this.averageTimeToMatchMillis = averageTimeToMatchMillis;
+        this.maxTimeToMatchMillis = maxTimeToMatchMillis;
+    }
+
+    /**
+     * Returns number of players waiting for opponent
+     */
+    public int getWaitingPlayers() {
+        return waitingPlayers;
+    }
+
+    /**
+     * Returns total number of games created since matchmaker was created
+     */
+    public long getMatches() {
+        return matches;
+    }
+
+    /**
+     * Returns average time players matched since previous metrics sample were waiting for opponent
+     */
+    public double getAverageTimeToMatchMillis() {
+        return averageTimeToMatchMillis;
+    }
+
+    /**
+     * Returns the longest time player matched since previous metrics sample was waiting for opponent
+     */
+    public double getMaxTimeToMatchMillis() {
+        return maxTimeToMatchMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "waiting players: " + waitingPlayers + ", matches: " + matches +
+            ", avg time to match: " + averageTimeToMatchMillis + " ms, max time to match: " + maxTimeToMatchMillis + " ms";
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.rps;
+
+/**
+ * Read-only view of the most recent moves of the opponent, backed by fixed size ring buffer of
+ * {@link GameRules#ordinalOf(Weapon) ordinals}. Game records moves after every round, so view never
+ * copies or allocates. Reads are consistent while game waits for the move of the player, forfeited
+ * moves are not recorded
+ *
+ * @author Beka Tsotsoria
+ */
+public final class MoveHistory {
+
+    /**
+     * History which never records anything
+     */
+    static final MoveHistory EMPTY = new MoveHistory(1);
+
+    private final byte[] moves;
+    private final int mask;
+    private volatile long totalMoves;
+
+    /**
+     * @param capacity number of remembered moves, rounded up to power of two
+     */
+    MoveHistory(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 16) {
+            throw new IllegalArgumentException("Capacity must be in range (0, 65536], got " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.moves = new byte[size];
+        this.mask = size - 1;
+    }
+
+    void record(int ordinal) {
+        long total = totalMoves;
+        moves[(int) (total & mask)] = (byte) ordinal;
+        totalMoves = total + 1;
+    }
+
+    /**
+     * Forgets all recorded moves, {@link #getTotalMoves() total} number of moves starts from 0 again
+     */
+    void clear() {
+        totalMoves = 0;
+    }
+
+    /**
+     * Returns number of moves available in this view, never more than {@link #capacity()}
+     */
+    public int size() {
+        return (int) Math.min(totalMoves, moves.length);
+    }
+
+    public int capacity() {
+        return moves.length;
+    }
+
+    /**
+     * Returns number of moves recorded since opponent joined the game, including ones which
+     * do not fit in this view anymore
+     */
+    public long getTotalMoves() {
+        return totalMoves;
+    }
+
+    /**
+     * Returns ordinal of recorded move by its age, 0 being the most recent move
+     *
+     * @throws IndexOutOfBoundsException if age is not less than {@link #size()}
+     */
+    public int get(int age) {
+        long total = totalMoves;
+        if (age < 0 || age >= Math.min(total, moves.length)) {
+            throw new IndexOutOfBoundsException("Age: " + age + ", size: " + Math.min(total, moves.length));
+        }
+        return moves[(int) ((total - 1 - age) & mask)];
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.rps;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free mailbox handing moves over from producer (typically network thread) to consumer (game).
+ * Moves which arrive before they are {@link #request() requested} are queued, otherwise waiting request
+ * is completed directly. Nobody spins, waiting request is completed immediately when mailbox is {@link #abort(RuntimeException) aborted}
+ *
+ * @author Beka Tsotsoria
+ */
+class MoveMailbox {
+
+    private final ConcurrentLinkedDeque<Weapon> moves = new ConcurrentLinkedDeque<>();
+    private final AtomicReference<CompletableFuture<Weapon>> waiter = new AtomicReference<>();
+    private volatile RuntimeException abortCause;
+
+    /**
+     * Adds move and hands it over to waiting request if there is one
+     */
+    void offer(Weapon move) {
+        moves.offer(move);
+        deliver();
+    }
+
+    /**
+     * Returns future of the next move, completed already if there is queued one.
+     * Previous request which is not completed yet gets cancelled
+     */
+    CompletableFuture<Weapon> request() {
+        CompletableFuture<Weapon> previous = waiter.getAndSet(null);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        RuntimeException abortCause = this.abortCause;
+        if (abortCause != null) {
+            return failed(abortCause);
+        }
+        Weapon move = moves.poll();
+        if (move != null) {
+            return CompletableFuture.completedFuture(move);
+        }
+        CompletableFuture<Weapon> request = new CompletableFuture<>();
+        waiter.set(request);
+        // Move could have been queued or mailbox aborted after checks above
+        deliver();
+        abortCause = this.abortCause;
+        if (abortCause != null && waiter.compareAndSet(request, null)) {
+            request.completeExceptionally(abortCause);
+        }
+        return request;
+    }
+
+    /**
+     * Fails waiting and all subsequent requests with specified exception
+     */
+    void abort(RuntimeException cause) {
+        abortCause = cause;
+        CompletableFuture<Weapon> request = waiter.getAndSet(null);
+        if (request != null) {
+            request.completeExceptionally(cause);
+        }
+    }
+
+    boolean isAborted() {
+        return abortCause != null;
+    }
+
+    private void deliver() {
+        for (; ; ) {
+            CompletableFuture<Weapon> request = waiter.get();
+            if (request == null || moves.isEmpty()) {
+                return;
+            }
+            if (!waiter.compareAndSet(request, null)) {
+                continue;
+            }
+            Weapon move = moves.poll();
+            if (move == null) {
+                // Only newer request could take the move, which means this one is superseded
+                request.cancel(false);
+                return;
+            }
+            if (!request.complete(move)) {
+                // Request got cancelled in the meantime, keep the move for the next one
+                moves.offerFirst(move);
+            }
+        }
+    }
+
+    private static CompletableFuture<Weapon> failed(RuntimeException cause) {
+        CompletableFuture<Weapon> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.rps;
+
+/**
+ * Defines what happens when player does not make a move before {@link Game#setMoveDeadline(long, MoveTimeoutPolicy) deadline}
+ *
+ * @author Beka Tsotsoria
+ */
+public enum MoveTimeoutPolicy {
+
+    /**
+     * Player loses the round, if all players time out round finishes as a draw.
+     * Move of forfeiting player is reported as <code>null</code>
+     */
+    FORFEIT,
+
+    /**
+     * Random move is made on behalf of the player
+     */
+    RANDOM_MOVE
+}
@@ -0,0 +1,28 @@
+package com.example.rps;
+
+/**
+ * Predicts the next move of the opponent from moves observed so far. Moves are
+ * {@link GameRules#ordinalOf(Weapon) ordinals}, models keep their state in fixed size
+ * primitive arrays so that both {@link #observe(int)} and {@link #predict()} take constant time
+ * and don't allocate
+ *
+ * @author Beka Tsotsoria
+ * @see AdaptiveBot
+ */
+public interface OpponentModel {
+
+    /**
+     * Updates model with the move opponent made
+     */
+    void observe(int ordinal);
+
+    /**
+     * Returns the most probable next move of the opponent or -1 if model doesn't know yet
+     */
+    int predict();
+
+    /**
+     * Forgets everything observed so far
+     */
+    void reset();
+}
@@ -0,0 +1,67 @@
+package com.example.rps;
+
+/**
+ * Immutable statistics of single player taken from {@link Scoreboard}
+ *
+ * @author Beka Tsotsoria
+ */
+public class PlayerScore {
+
+    private final String playerId;
+    private final long wins;
+    private final long losses;
+    private final long draws;
+    private final long currentStreak;
+    private final long longestStreak;
+    private final long[] weaponCounts;
+
+    PlayerScore(String playerId, long wins, long losses, long draws, long currentStreak, long longestStreak, long[] weaponCounts) {
+        this.playerId = playerId;
+        this.wins = wins;
+        this.losses = losses;
+        this.draws = draws;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.weaponCounts = weaponCounts;
+    }
+
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns number of rounds won in a row up to the last round
+     */
+    public long getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public long getLongestStreak() {
+        return longestStreak;
+    }
+
+    /**
+     * Returns how many times player used each weapon, indexed by {@link GameRules#ordinalOf(Weapon) ordinal}
+     */
+    public long[] getWeaponCounts() {
+        return weaponCounts.clone();
+    }
+
+    @Override
+    public String toString() {
+        return playerId + " wins: " + wins + ", losses: " + losses + ", draws: " + draws +
+            ", current streak: " + currentStreak + ", longest streak: " + longestStreak;
+    }
+}
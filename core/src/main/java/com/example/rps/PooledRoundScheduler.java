@@ -0,0 +1,179 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RoundScheduler} backed by bounded pool of worker threads. Rounds are {@link Game#requestRound() requested}
+ * without blocking, so no worker waits for player's move. Completion of every round is separate task which
+ * publishes the result and requests next round of the same game, tasks of all games are queued fairly
+ *
+ * @author Beka Tsotsoria
+ */
+public class PooledRoundScheduler implements RoundScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledRoundScheduler.class);
+
+    private static volatile PooledRoundScheduler shared;
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger activeGames = new AtomicInteger();
+    private final LongAdder completedRounds = new LongAdder();
+
+    private long lastSampleNanos = System.nanoTime();
+    private long lastSampleRounds;
+    private double lastRate;
+
+    /**
+     * @param threads maximum number of worker threads
+     */
+    public PooledRoundScheduler(int threads) {
+        this(threads, "rps-round");
+    }
+
+    /**
+     * @param threads    maximum number of worker threads
+     * @param namePrefix prefix of worker thread names
+     */
+    public PooledRoundScheduler(int threads, String namePrefix) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least 1 thread is required");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = r -> {
+            Thread t = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns scheduler shared by games which are played without explicitly specified scheduler
+     */
+    public static PooledRoundScheduler shared() {
+        if (shared == null) {
+            synchronized (PooledRoundScheduler.class) {
+                if (shared == null) {
+                    shared = new PooledRoundScheduler(Runtime.getRuntime().availableProcessors());
+                }
+            }
+        }
+        return shared;
+    }
+
+    @Override
+    public AsyncPlay schedule(Game game, RoundResultListener listener) {
+        ScheduledGame scheduled = new ScheduledGame(game, listener);
+        activeGames.incrementAndGet();
+        scheduled.next();
+        return scheduled;
+    }
+
+    @Override
+    public synchronized RoundSchedulerMetrics getMetrics() {
+        long now = System.nanoTime();
+        long rounds = completedRounds.sum();
+        long elapsed = now - lastSampleNanos;
+        if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+            lastRate = (rounds - lastSampleRounds) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            lastSampleNanos = now;
+            lastSampleRounds = rounds;
+        }
+        return new RoundSchedulerMetrics(activeGames.get(), executor.getQueue().size(), rounds, lastRate);
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private class ScheduledGame implements Runnable, AsyncPlay {
+
+        private final Game game;
+        private final RoundResultListener listener;
+        private final AtomicBoolean running = new AtomicBoolean(true);
+
+        ScheduledGame(Game game, RoundResultListener listener) {
+            this.game = game;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            if (!running.get()) {
+                return;
+            }
+            try {
+                game.requestRound().whenCompleteAsync(this::onRoundCompleted, executor);
+            } catch (RejectedExecutionException e) {
+                log.warn("Scheduler is shut down, stopping round loop of game {}", game.getName());
+                stop();
+            } catch (RuntimeException e) {
+                onRoundCompleted(null, e);
+            }
+        }
+
+        private void onRoundCompleted(RoundResult result, Throwable e) {
+            if (e instanceof CompletionException && e.getCause() != null) {
+                e = e.getCause();
+            }
+            if (e == null) {
+                completedRounds.increment();
+                if (running.get()) {
+                    try {
+                        listener.onResult(result);
+                    } catch (RuntimeException listenerError) {
+                        log.error("Listener of game " + game.getName() + " failed", listenerError);
+                    }
+                }
+            } else if (e instanceof MoveAbortedException || e instanceof NoSuchElementException || e instanceof IllegalStateException) {
+                log.warn("Seems one of the player left game unexpectedly. Stopping round loop until someone joins again", e);
+                stop();
+            } else if (e instanceof CancellationException) {
+                stop();
+            } else {
+                log.error("Round of game " + game.getName() + " failed, stopping round loop", e);
+                stop();
+            }
+            next();
+        }
+
+        void next() {
+            if (!running.get()) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                log.warn("Scheduler is shut down, stopping round loop of game {}", game.getName());
+                stop();
+            }
+        }
+
+        @Override
+        public boolean isPlaying() {
+            return running.get();
+        }
+
+        @Override
+        public void stop() {
+            if (running.compareAndSet(true, false)) {
+                activeGames.decrementAndGet();
+            }
+        }
+    }
+}
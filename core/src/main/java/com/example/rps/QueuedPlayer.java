@@ -1,20 +1,19 @@
 package com.example.rps;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Implementation which {@link #makeMove(GameContext) makes} moves based
- * on queue
+ * on queue. {@link #requestMove(GameContext) Requested} moves are completed
+ * by {@link #addMove(Weapon)} without blocking any thread
  *
  * @author Beka Tsotsoria
  */
-public class QueuedPlayer implements AbortablePlayer {
+public class QueuedPlayer implements AbortablePlayer, AsyncPlayer {
 
     private String id;
-    private BlockingQueue<Weapon> weapons = new LinkedBlockingDeque<>();
-    private volatile boolean aborted;
+    private final MoveMailbox mailbox = new MoveMailbox();
 
     public QueuedPlayer(String id) {
         this.id = id;
@@ -28,28 +27,39 @@ public class QueuedPlayer implements AbortablePlayer {
     @Override
     public Weapon makeMove(GameContext context) {
         try {
-            Weapon move;
-            do {
-                move = weapons.poll(100, TimeUnit.MILLISECONDS);
-            } while (move == null && !aborted);
-            if (aborted) {
-                throw new MoveAbortedException("Move of player " + id + " got aborted");
-            }
-            return move;
+            return mailbox.request().get();
         } catch (InterruptedException e) {
             throw new IllegalStateException("Interrupted while waiting for next move for player: " + id, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MoveAbortedException) {
+                throw (MoveAbortedException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to wait for next move for player: " + id, e.getCause());
         }
     }
 
     /**
-     * Adds move to queue
+     * Completes pending {@link #requestMove(GameContext) move request} if there is one, otherwise adds move to queue
      */
     public void addMove(Weapon weapon) {
-        weapons.offer(weapon);
+        mailbox.offer(weapon);
     }
 
+    /**
+     * Returns already queued move or waits for the next {@link #addMove(Weapon) added} one.
+     * Previous request which is not completed yet gets cancelled
+     */
+    @Override
+    public CompletionStage<Weapon> requestMove(GameContext context) {
+        return mailbox.request();
+    }
+
+    /**
+     * Immediately wakes up {@link #makeMove(GameContext) waiting} thread or
+     * fails {@link #requestMove(GameContext) pending request}
+     */
     @Override
     public void abort() {
-        aborted = true;
+        mailbox.abort(new MoveAbortedException("Move of player " + id + " got aborted"));
     }
 }
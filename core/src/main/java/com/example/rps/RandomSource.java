@@ -0,0 +1,36 @@
+package com.example.rps;
+
+import java.util.SplittableRandom;
+
+/**
+ * Source of random numbers owned by single player, implementations don't need to be thread safe
+ * since game never requests moves of the same player concurrently
+ *
+ * @author Beka Tsotsoria
+ */
+public interface RandomSource {
+
+    /**
+     * Returns uniformly distributed value in range <code>[0, bound)</code>
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns uniformly distributed value in range <code>[0, 1)</code>
+     */
+    double nextDouble();
+
+    /**
+     * Returns source seeded from system entropy
+     */
+    static RandomSource create() {
+        return new SplittableRandomSource(new SplittableRandom());
+    }
+
+    /**
+     * Returns source which produces the same sequence of values for the same seed
+     */
+    static RandomSource seeded(long seed) {
+        return new SplittableRandomSource(new SplittableRandom(seed));
+    }
+}
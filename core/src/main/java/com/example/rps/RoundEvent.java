@@ -0,0 +1,88 @@
+package com.example.rps;
+
+/**
+ * Compact record of single round published to {@link RoundEventLog}. Instances are preallocated
+ * slots of the ring buffer and get reused, so {@link RoundEventWriter writers} must not keep
+ * references to them after {@link RoundEventWriter#write(RoundEvent) write} returns
+ *
+ * @author Beka Tsotsoria
+ */
+public final class RoundEvent {
+
+    private long timestamp;
+    private String game;
+    private long roundNumber;
+    private GameRules rules;
+    private String playerId1;
+    private int ordinal1;
+    private String playerId2;
+    private int ordinal2;
+    private int outcome;
+
+    RoundEvent() {
+    }
+
+    void set(long timestamp, String game, long roundNumber, GameRules rules,
+             String playerId1, int ordinal1, String playerId2, int ordinal2, int outcome) {
+        this.timestamp = timestamp;
+        this.game = game;
+        this.roundNumber = roundNumber;
+        this.rules = rules;
+        this.playerId1 = playerId1;
+        this.ordinal1 = ordinal1;
+        this.playerId2 = playerId2;
+        this.ordinal2 = ordinal2;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Returns time round completed at in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getGame() {
+        return game;
+    }
+
+    public long getRoundNumber() {
+        return roundNumber;
+    }
+
+    /**
+     * Returns rules of the game round was played in, moves are their ordinals
+     */
+    public GameRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns ID of the player at specified position, 0 or 1
+     */
+    public String getPlayerId(int player) {
+        return player == 0 ? playerId1 : playerId2;
+    }
+
+    /**
+     * Returns ordinal of move of the player at specified position or -1 if player forfeited the round
+     */
+    public int getMove(int player) {
+        return player == 0 ? ordinal1 : ordinal2;
+    }
+
+    /**
+     * Returns name of weapon used by the player at specified position or null if player forfeited the round
+     */
+    public String getWeaponName(int player) {
+        int ordinal = getMove(player);
+        return ordinal < 0 ? null : rules.weaponOf(ordinal).getName();
+    }
+
+    /**
+     * Returns positive value if the first player won, negative value if the second one won and 0 if it's a draw
+     */
+    public int getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free multi-producer ring buffer of {@link RoundEvent round events} drained by single background
+ * thread into {@link RoundEventWriter}. Games {@link #publish publish} events without locks, allocations
+ * or I/O. When writer falls behind and ring is full events are dropped rather than slowing games down,
+ * see {@link #getDroppedEvents()}, unless log is {@link #RoundEventLog(int, RoundEventWriter, boolean) lossless}:
+ * then events which don't fit go to unbounded overflow queue, which is needed when every event matters.
+ * Publishers never wait either way, lossless log trades memory for it while writer catches up,
+ * see {@link #getOverflowedEvents()}
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundEventLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoundEventLog.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final RoundEvent[] events;
+    private final int mask;
+    /**
+     * Sequence of the event stored in each slot once it is fully written, -1 initially
+     */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    /**
+     * Events which didn't fit into the ring, in order they were published. Once it is not empty, publishers add
+     * to it until writer catches up, so events of the same publisher are never reordered
+     */
+    private final Queue<RoundEvent> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final boolean lossless;
+    private final RoundEventWriter writer;
+    private final Thread drainer;
+    private volatile long consumed;
+    private volatile long overflowWritten;
+    private volatile boolean running = true;
+
+    /**
+     * @param capacity number of events ring can hold, gets rounded up to power of 2
+     * @param writer   destination of events
+     */
+    public RoundEventLog(int capacity, RoundEventWriter writer) {
+        this(capacity, writer, false);
+    }
+
+    /**
+     * @param capacity number of events ring can hold, gets rounded up to power of 2
+     * @param writer   destination of events
+     * @param lossless true if events which don't fit into full ring are queued instead of dropped
+     */
+    public RoundEventLog(int capacity, RoundEventWriter writer, boolean lossless) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Capacity must be in range (0, 2^30]");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.events = new RoundEvent[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            events[i] = new RoundEvent();
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.writer = writer;
+        this.lossless = lossless;
+        this.drainer = new Thread(this::drain, "rps-round-events");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    /**
+     * Claims next slot of the ring and fills it with round data, see {@link RoundEvent} for meaning of arguments
+     *
+     * @return false if event got dropped because ring is full or log is closed, lossless log drops events
+     * only when it is closed
+     */
+    boolean publish(String game, long roundNumber, GameRules rules,
+                    String playerId1, int ordinal1, String playerId2, int ordinal2, int outcome) {
+        long sequence;
+        for (; ; ) {
+            sequence = claimed.get();
+            boolean full = sequence - consumed >= events.length;
+            if (!running || !lossless && full) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (lossless && (full || overflowWritten != overflowed.get())) {
+                return overflow(game, roundNumber, rules, playerId1, ordinal1, playerId2, ordinal2, outcome);
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        int index = (int) sequence & mask;
+        events[index].set(System.currentTimeMillis(), game, roundNumber, rules, playerId1, ordinal1, playerId2, ordinal2, outcome);
+        published.lazySet(index, sequence);
+        return true;
+    }
+
+    /**
+     * Queues copy of the event, it is counted before log is checked for being closed, so that drainer which
+     * finishes after close always sees it
+     */
+    private boolean overflow(String game, long roundNumber, GameRules rules,
+                             String playerId1, int ordinal1, String playerId2, int ordinal2, int outcome) {
+        overflowed.incrementAndGet();
+        if (!running) {
+            overflowed.decrementAndGet();
+            dropped.incrementAndGet();
+            return false;
+        }
+        RoundEvent event = new RoundEvent();
+        event.set(System.currentTimeMillis(), game, roundNumber, rules, playerId1, ordinal1, playerId2, ordinal2, outcome);
+        overflow.add(event);
+        LockSupport.unpark(drainer);
+        return true;
+    }
+
+    /**
+     * Returns number of events which were not published because ring was full
+     */
+    public long getDroppedEvents() {
+        return dropped.get();
+    }
+
+    /**
+     * Returns number of events of lossless log which didn't fit into the ring and were queued instead
+     */
+    public long getOverflowedEvents() {
+        return overflowed.get();
+    }
+
+    /**
+     * Returns number of events waiting to be written
+     */
+    public int getPendingEvents() {
+        return (int) Math.max(0, claimed.get() - consumed + overflowed.get() - overflowWritten);
+    }
+
+    /**
+     * Stops accepting events, writes ones which are already published and closes writer
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (running) {
+                if (drainBatch() == 0) {
+                    idle();
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+            }
+            // Producers which claimed slot before log got closed finish shortly
+            while (drainBatch() > 0 || consumed < claimed.get() || overflowWritten < overflowed.get()) {
+                Thread.yield();
+            }
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("Failed to close round event writer", e);
+            }
+        }
+    }
+
+    private void idle() {
+        try {
+            writer.idle();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to flush round events", e);
+        }
+    }
+
+    /**
+     * Writes events published to the ring and then overflowed ones, the latter only once the ring is empty,
+     * because publishers switch to overflow queue only after ring gets full
+     */
+    private int drainBatch() {
+        int count = drainRing();
+        if (consumed == claimed.get()) {
+            count += drainOverflow();
+        }
+        if (count > 0) {
+            try {
+                writer.flush();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to flush round events", e);
+            }
+        }
+        return count;
+    }
+
+    private int drainOverflow() {
+        int count = 0;
+        for (RoundEvent event = overflow.poll(); event != null; event = overflow.poll()) {
+            write(event);
+            // Publishers return to the ring once all overflowed events are written
+            overflowWritten++;
+            if (++count == events.length) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private int drainRing() {
+        long sequence = consumed;
+        int count = 0;
+        for (; ; ) {
+            int index = (int) sequence & mask;
+            if (published.get(index) != sequence) {
+                break;
+            }
+            write(events[index]);
+            sequence++;
+            count++;
+            if (count == events.length) {
+                break;
+            }
+        }
+        if (count > 0) {
+            // Frees slots for producers
+            consumed = sequence;
+        }
+        return count;
+    }
+
+    private void write(RoundEvent event) {
+        try {
+            writer.write(event);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write round event", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.rps;
+
+import java.io.IOException;
+
+/**
+ * Destination of {@link RoundEvent round events}, called only from background thread of {@link RoundEventLog}
+ *
+ * @author Beka Tsotsoria
+ */
+public interface RoundEventWriter {
+
+    void write(RoundEvent event) throws IOException;
+
+    /**
+     * Called after every drained batch of events
+     */
+    void flush() throws IOException;
+
+    /**
+     * Called when there are no events to write, about every millisecond while log stays idle, so that writer
+     * can finish work postponed by {@link #flush()}
+     */
+    default void idle() throws IOException {
+    }
+
+    /**
+     * Called once when {@link RoundEventLog log} is closed
+     */
+    void close() throws IOException;
+}
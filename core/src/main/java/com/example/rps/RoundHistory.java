@@ -0,0 +1,231 @@
+package com.example.rps;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The most recent rounds of single game kept off-heap in direct {@link ByteBuffer} ring of fixed size
+ * records, so that history of many live games doesn't put any pressure on GC. Each record takes
+ * {@value #RECORD_SIZE} bytes:
+ * <pre>
+ * | round number (8) | slot 1 (1) | move 1 (1) | slot 2 (1) | move 2 (1) | outcome (1) | padding (3) |
+ * </pre>
+ * Moves are {@link GameRules#ordinalOf(Weapon) ordinals}, -1 for forfeited move. Round numbers grow, but not
+ * necessarily by one, e.g. rounds restored from journal may have gaps, so rounds are looked up by numbers
+ * stored in records. Game appends records one at a time under uncontended write lock, readers copy range of
+ * records into their own {@link Cursor} using optimistic reads and iterate it without allocations
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundHistory {
+
+    static final int RECORD_SIZE = 16;
+
+    private static final int ROUND_OFFSET = 0;
+    private static final int SLOT1_OFFSET = 8;
+    private static final int MOVE1_OFFSET = 9;
+    private static final int SLOT2_OFFSET = 10;
+    private static final int MOVE2_OFFSET = 11;
+    private static final int OUTCOME_OFFSET = 12;
+
+    private final StampedLock lock = new StampedLock();
+    private final ByteBuffer records;
+    private final int capacity;
+    private long appended;
+    private long latestRound;
+
+    /**
+     * @param capacity number of the most recent rounds to keep
+     */
+    RoundHistory(int capacity) {
+        if (capacity <= 0 || capacity > Integer.MAX_VALUE / RECORD_SIZE) {
+            throw new IllegalArgumentException("Capacity must be in range (0, " + Integer.MAX_VALUE / RECORD_SIZE + "], got " + capacity);
+        }
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE);
+    }
+
+    /**
+     * @param roundNumber number of the round, greater than number of any round appended before
+     */
+    void append(long roundNumber, int slot1, int ordinal1, int slot2, int ordinal2, int outcome) {
+        long stamp = lock.writeLock();
+        try {
+            if (appended > 0 && roundNumber <= latestRound) {
+                throw new IllegalArgumentException("Round " + roundNumber + " is not newer than round " + latestRound);
+            }
+            latestRound = roundNumber;
+            int position = (int) (appended % capacity) * RECORD_SIZE;
+            records.putLong(position + ROUND_OFFSET, roundNumber);
+            records.put(position + SLOT1_OFFSET, (byte) slot1);
+            records.put(position + MOVE1_OFFSET, (byte) ordinal1);
+            records.put(position + SLOT2_OFFSET, (byte) slot2);
+            records.put(position + MOVE2_OFFSET, (byte) ordinal2);
+            records.put(position + OUTCOME_OFFSET, (byte) Integer.signum(outcome));
+            appended++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns maximum number of rounds kept
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns number of the latest round or 0 if there were no rounds yet
+     */
+    public long getLatestRound() {
+        long stamp = lock.tryOptimisticRead();
+        long latest = latestRound;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                latest = latestRound;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Returns cursor able to hold the whole history, cursor should be reused for subsequent reads
+     */
+    public Cursor newCursor() {
+        return new Cursor(this);
+    }
+
+    /**
+     * Copies rounds starting with specified round number into cursor and positions cursor before the first
+     * of them. Rounds which are not kept anymore are skipped
+     *
+     * @return number of copied rounds
+     */
+    public int read(long fromRound, Cursor cursor) {
+        if (cursor.history != this) {
+            throw new IllegalArgumentException("Cursor belongs to another history");
+        }
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            copy(fromRound, cursor);
+            if (lock.validate(stamp)) {
+                return cursor.size;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return copy(fromRound, cursor);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int copy(long fromRound, Cursor cursor) {
+        long appended = this.appended;
+        long from = firstAtOrAfter(Math.max(0, appended - capacity), appended, fromRound);
+        int count = (int) (appended - from);
+        ByteBuffer source = cursor.source;
+        ByteBuffer target = cursor.records;
+        target.clear();
+        int start = (int) (from % capacity);
+        int firstPart = Math.min(count, capacity - start);
+        source.limit((start + firstPart) * RECORD_SIZE).position(start * RECORD_SIZE);
+        target.put(source);
+        if (firstPart < count) {
+            source.limit((count - firstPart) * RECORD_SIZE).position(0);
+            target.put(source);
+        }
+        cursor.reset(count);
+        return count;
+    }
+
+    /**
+     * Binary search over kept records by their round numbers
+     *
+     * @return index of the first record in range <code>[from, to)</code> with round number not less than
+     * specified one, <code>to</code> if there is none
+     */
+    private long firstAtOrAfter(long from, long to, long roundNumber) {
+        while (from < to) {
+            long middle = (from + to) >>> 1;
+            if (records.getLong((int) (middle % capacity) * RECORD_SIZE + ROUND_OFFSET) < roundNumber) {
+                from = middle + 1;
+            } else {
+                to = middle;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Reader-owned copy of range of records, iterated with {@link #next()}. Not thread safe
+     */
+    public static final class Cursor {
+
+        private final RoundHistory history;
+        private final ByteBuffer source;
+        private final ByteBuffer records;
+        private int size;
+        private int position;
+
+        private Cursor(RoundHistory history) {
+            this.history = history;
+            this.source = history.records.duplicate();
+            this.records = ByteBuffer.allocate(history.capacity * RECORD_SIZE);
+        }
+
+        private void reset(int size) {
+            this.size = size;
+            this.position = -RECORD_SIZE;
+        }
+
+        /**
+         * Returns number of records read
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Moves to the next record
+         *
+         * @return false if there are no more records
+         */
+        public boolean next() {
+            if (position + RECORD_SIZE >= size * RECORD_SIZE) {
+                return false;
+            }
+            position += RECORD_SIZE;
+            return true;
+        }
+
+        public long getRoundNumber() {
+            return records.getLong(position + ROUND_OFFSET);
+        }
+
+        /**
+         * Returns slot of the player at specified position of the round, 0 or 1
+         */
+        public int getSlot(int player) {
+            return records.get(position + (player == 0 ? SLOT1_OFFSET : SLOT2_OFFSET));
+        }
+
+        /**
+         * Returns ordinal of move of the player at specified position of the round or -1 if player forfeited
+         */
+        public int getMove(int player) {
+            return records.get(position + (player == 0 ? MOVE1_OFFSET : MOVE2_OFFSET));
+        }
+
+        /**
+         * Returns 1 if the first player won, -1 if the second one won and 0 if it's a draw
+         */
+        public int getOutcome() {
+            return records.get(position + OUTCOME_OFFSET);
+        }
+    }
+}
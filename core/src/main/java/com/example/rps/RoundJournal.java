@@ -0,0 +1,490 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of completed rounds, stored in directory as memory-mapped segments of fixed size.
+ * Every record is framed as <code>| payload length (4) | CRC32 of payload (4) | payload |</code>, zero length
+ * marks the end of segment. Payload starts with type of the record: round or {@link GameRules rules} of rounds,
+ * every segment defines rules it refers to, so rounds are read with rules of the game they were played in.
+ * Games {@link Game#setJournal(RoundJournal) publish} rounds into lock-free ring which queues rounds that don't fit
+ * instead of dropping them, so games never wait for disk. Background thread writes rounds in batches and forces
+ * them according to {@link FsyncPolicy}, also when journal becomes idle. Each opened journal appends to new
+ * segment, so segments written before are never modified
+ * <p>
+ * Use {@link #replay(Consumer)} on startup to rebuild games, or {@link #replay(long, Consumer)}
+ * to replay only segments written after {@link SnapshotStore snapshot} was taken. Every round has position,
+ * which is reported to {@link JournalListener listener} and allows to {@link #read(long, RoundEvent) read}
+ * single round without scanning segments, so journal can serve as storage for indexes.
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RoundJournal.class);
+
+    static final int FRAME_HEADER_SIZE = 8;
+    static final int MAX_PAYLOAD_SIZE = 4 * 1024;
+    static final byte ROUND_RECORD = 1;
+    static final byte RULES_RECORD = 2;
+
+    private static final String SEGMENT_PREFIX = "rounds-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final List<Path> existingSegments;
+    private final RoundEventLog eventLog;
+    private final JournalListener listener;
+    private final ConcurrentMap<Long, ByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+    /**
+     * Rules defined by segments, indexed by their IDs within segment
+     */
+    private final ConcurrentMap<Long, List<GameRules>> segmentRules = new ConcurrentHashMap<>();
+    private volatile long nextSegment;
+    private volatile long currentSegment;
+
+    private RoundJournal(Builder b) throws IOException {
+        this.directory = Files.createDirectories(b.directory);
+        this.existingSegments = new CopyOnWriteArrayList<>(listSegments(directory));
+        this.nextSegment = existingSegments.isEmpty() ? 1 : sequenceOf(existingSegments.get(existingSegments.size() - 1)) + 1;
+        this.listener = b.listener;
+        this.eventLog = new RoundEventLog(b.capacity, new JournalWriter(this, b.listener, b.segmentSize, b.fsyncPolicy, b.fsyncIntervalMillis), true);
+    }
+
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    RoundEventLog getEventLog() {
+        return eventLog;
+    }
+
+    /**
+     * Returns number of rounds which were queued in overflow queue because games were producing them faster than
+     * they could be written
+     */
+    public long getOverflowedRounds() {
+        return eventLog.getOverflowedEvents();
+    }
+
+    /**
+     * Returns number of rounds waiting to be written
+     */
+    public int getPendingRounds() {
+        return eventLog.getPendingEvents();
+    }
+
+    /**
+     * Returns sequence number of segment being written or of the next segment to be started if there is none,
+     * rounds published after this call are written to this segment or to the following ones
+     */
+    public long getCurrentSegment() {
+        // Read in the opposite order to nextSegment(), so that next segment is never seen while current one is not
+        long next = nextSegment;
+        long current = currentSegment;
+        return current != 0 ? current : next;
+    }
+
+    /**
+     * Returns sequence number of the oldest segment written by previous runs or of the {@link #getCurrentSegment()
+     * current segment} if there is none, rounds at positions before this segment can't be read
+     */
+    public long getFirstSegment() {
+        List<Path> segments = existingSegments;
+        return segments.isEmpty() ? getCurrentSegment() : sequenceOf(segments.get(0));
+    }
+
+    /**
+     * Reads rounds written by previous runs in order they were written. Reading of segment stops at the first
+     * record which doesn't pass CRC check, which is expected for the last record written before crash.
+     * Event passed to consumer gets reused for the next round
+     *
+     * @param consumer consumer of rounds
+     * @return number of read rounds
+     * @throws UncheckedIOException when segment can't be read
+     */
+    public long replay(Consumer<RoundEvent> consumer) {
+        return replay(0, consumer);
+    }
+
+    /**
+     * Same as {@link #replay(Consumer)} but skips segments with sequence number lower than specified one
+     *
+     * @param fromSegment sequence number of the first segment to read
+     */
+    public long replay(long fromSegment, Consumer<RoundEvent> consumer) {
+        return scan(fromSegment, (position, round) -> consumer.accept(round));
+    }
+
+    /**
+     * Same as {@link #replay(long, Consumer)} but reports positions of rounds too,
+     * which is needed to rebuild indexes
+     */
+    public long scan(long fromSegment, JournalListener consumer) {
+        RoundEvent event = new RoundEvent();
+        CRC32 crc = new CRC32();
+        long rounds = 0;
+        int segments = 0;
+        for (Path path : existingSegments) {
+            if (sequenceOf(path) < fromSegment) {
+                continue;
+            }
+            segments++;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                rounds += scan(path, segment, crc, event, consumer);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal segment " + path, e);
+            }
+        }
+        log.info("Replayed {} rounds from {} journal segments in {}", rounds, segments, directory);
+        return rounds;
+    }
+
+    private long scan(Path path, ByteBuffer segment, CRC32 crc, RoundEvent event, JournalListener consumer) {
+        long sequence = sequenceOf(path);
+        List<GameRules> rules = new ArrayList<>();
+        long rounds = 0;
+        while (segment.remaining() >= FRAME_HEADER_SIZE) {
+            int start = segment.position();
+            byte type = read(path, segment, crc, rules, event);
+            if (type == ROUND_RECORD) {
+                consumer.onAppend(position(sequence, start), event);
+                rounds++;
+            } else if (type != RULES_RECORD) {
+                break;
+            }
+        }
+        segmentRules.putIfAbsent(sequence, new CopyOnWriteArrayList<>(rules));
+        return rounds;
+    }
+
+    /**
+     * Reads round at specified position, rounds can be read while journal is being written
+     *
+     * @param position position {@link JournalListener#onAppend(long, RoundEvent) reported} by journal
+     * @param event    event to read round into
+     * @return false if segment of the round was deleted
+     * @throws UncheckedIOException when segment can't be read
+     */
+    public boolean read(long position, RoundEvent event) {
+        long sequence = position >>> 32;
+        ByteBuffer segment = mappedSegments.get(sequence);
+        if (segment == null) {
+            Path path = segmentPath(sequence);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            } catch (NoSuchFileException e) {
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read journal segment " + path, e);
+            }
+            ByteBuffer existing = mappedSegments.putIfAbsent(sequence, segment);
+            segment = existing != null ? existing : segment;
+        }
+        List<GameRules> rules = segmentRules.get(sequence);
+        if (rules == null) {
+            rules = rulesOf(sequence, segment);
+        }
+        ByteBuffer record = segment.duplicate();
+        record.position((int) position);
+        // Positions point to records which were already verified
+        return read(null, record, null, rules, event) == ROUND_RECORD;
+    }
+
+    /**
+     * Collects rules defined by segment written by previous run
+     */
+    private List<GameRules> rulesOf(long sequence, ByteBuffer segment) {
+        List<GameRules> rules = new CopyOnWriteArrayList<>();
+        ByteBuffer records = segment.duplicate();
+        records.position(0);
+        RoundEvent event = new RoundEvent();
+        while (records.remaining() >= FRAME_HEADER_SIZE) {
+            byte type = read(null, records, null, rules, event);
+            if (type != ROUND_RECORD && type != RULES_RECORD) {
+                break;
+            }
+        }
+        List<GameRules> existing = segmentRules.putIfAbsent(sequence, rules);
+        return existing != null ? existing : rules;
+    }
+
+    /**
+     * Remembers rules written to segment being written, called by writer only
+     */
+    void defineRules(long sequence, int rulesId, GameRules rules) {
+        List<GameRules> defined = segmentRules.computeIfAbsent(sequence, s -> new CopyOnWriteArrayList<>());
+        if (defined.size() != rulesId) {
+            throw new IllegalStateException("Rules " + rulesId + " of segment " + sequence + " are defined out of order");
+        }
+        defined.add(rules);
+    }
+
+    /**
+     * Reads record at current position of segment and moves to the next one, rules defined by record are added to
+     * rules of the segment
+     *
+     * @param crc verifies checksum of record when not null
+     * @return type of read record or 0 if there are no more valid records
+     */
+    private static byte read(Path path, ByteBuffer segment, CRC32 crc, List<GameRules> rules, RoundEvent event) {
+        int start = segment.position();
+        int length = segment.getInt();
+        if (length == 0) {
+            return 0;
+        }
+        int checksum = segment.getInt();
+        if (length < 0 || length > MAX_PAYLOAD_SIZE || length > segment.remaining()) {
+            log.warn("Journal segment {} has broken record at {}, ignoring rest of it", path, start);
+            return 0;
+        }
+        if (crc != null) {
+            ByteBuffer payload = segment.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Journal segment {} has corrupted record at {}, ignoring rest of it", path, start);
+                return 0;
+            }
+        }
+        ByteBuffer payload = segment.slice();
+        payload.limit(length);
+        segment.position(start + FRAME_HEADER_SIZE + length);
+        try {
+            byte type = payload.get();
+            int rulesId = payload.getShort();
+            if (type == RULES_RECORD) {
+                if (rulesId == rules.size()) {
+                    rules.add(getRules(payload));
+                }
+                return type;
+            }
+            if (type != ROUND_RECORD || rulesId < 0 || rulesId >= rules.size()) {
+                log.warn("Journal segment {} has unknown record at {}, ignoring rest of it", path, start);
+                return 0;
+            }
+            GameRules roundRules = rules.get(rulesId);
+            long roundNumber = payload.getLong();
+            int move1 = payload.get();
+            int move2 = payload.get();
+            int outcome = payload.get();
+            long timestamp = payload.getLong();
+            String game = getString(payload);
+            String playerId1 = getString(payload);
+            String playerId2 = getString(payload);
+            if (move1 >= roundRules.size() || move2 >= roundRules.size()) {
+                log.warn("Journal segment {} has round with unknown move at {}, ignoring rest of it", path, start);
+                return 0;
+            }
+            event.set(timestamp, game, roundNumber, roundRules, playerId1, move1, playerId2, move2, outcome);
+            return type;
+        } catch (RuntimeException e) {
+            log.warn("Journal segment {} has malformed record at {}, ignoring rest of it", path, start, e);
+            return 0;
+        }
+    }
+
+    private static GameRules getRules(ByteBuffer payload) {
+        int size = payload.get() & 0xff;
+        Weapon[] weapons = new Weapon[size];
+        for (int i = 0; i < size; i++) {
+            weapons[i] = Weapon.from(getString(payload));
+        }
+        // Ordinals of rounds refer to weapons in the order they were written
+        GameRules.Builder builder = GameRules.builder().ordered(weapons);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (payload.get() != 0) {
+                    builder.defeats(weapons[i], weapons[j]);
+                }
+            }
+        }
+        return GameRules.canonical(builder.build());
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deletes segments written by previous runs with sequence number lower than specified one, segment
+     * being written is never deleted
+     *
+     * @return number of deleted segments
+     * @throws IOException if segment can't be deleted
+     */
+    public int deleteSegmentsBefore(long segment) throws IOException {
+        return deleteSegmentsBefore(segment, Long.MAX_VALUE);
+    }
+
+    /**
+     * Deletes segments with sequence number lower than specified one which were last written before specified
+     * time, deletion stops at the first segment which is not old enough, so remaining segments stay contiguous.
+     * {@link JournalListener Listener} is notified about positions which can't be read anymore
+     *
+     * @param writtenBefore time in milliseconds since epoch, segments written after it are retained
+     * @return number of deleted segments
+     * @throws IOException if segment can't be deleted
+     */
+    public synchronized int deleteSegmentsBefore(long segment, long writtenBefore) throws IOException {
+        int deleted = 0;
+        long end = segment;
+        for (Path path : listSegments(directory)) {
+            long sequence = sequenceOf(path);
+            if (sequence >= segment || sequence >= getCurrentSegment()
+                || Files.getLastModifiedTime(path).toMillis() >= writtenBefore) {
+                end = Math.min(segment, sequence);
+                break;
+            }
+            if (Files.deleteIfExists(path)) {
+                deleted++;
+            }
+        }
+        long deletedEnd = end;
+        existingSegments.removeIf(path -> sequenceOf(path) < deletedEnd);
+        mappedSegments.keySet().removeIf(sequence -> sequence < deletedEnd);
+        segmentRules.keySet().removeIf(sequence -> sequence < deletedEnd);
+        if (deleted > 0) {
+            log.info("Deleted {} journal segments before {} in {}", deleted, deletedEnd, directory);
+            if (listener != null) {
+                listener.onDelete(position(deletedEnd, 0));
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Creates path of the next segment and makes it current, called by writer only
+     */
+    Path nextSegment() {
+        long sequence = nextSegment;
+        // Current segment goes first, otherwise getCurrentSegment() could see the next one before rounds reach it
+        currentSegment = sequence;
+        nextSegment = sequence + 1;
+        return segmentPath(sequence);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Packs sequence number of segment and offset of record in it into position
+     */
+    public static long position(long segment, int offset) {
+        return segment << 32 | offset;
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        // Sequence numbers are zero padded, so names sort in order segments were written
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long sequenceOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Writes rounds which are already published and closes current segment
+     */
+    @Override
+    public void close() {
+        eventLog.close();
+    }
+
+    public static class Builder {
+
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private long fsyncIntervalMillis = 100;
+        private int capacity = 64 * 1024;
+        private JournalListener listener;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Size of single segment file in bytes, 64 MB by default
+         */
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < FRAME_HEADER_SIZE + MAX_PAYLOAD_SIZE) {
+                throw new IllegalArgumentException("Segment must be able to hold at least one record of maximum size");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * When written rounds are forced to disk, {@link FsyncPolicy#INTERVAL every 100 ms} by default
+         *
+         * @param intervalMillis used by {@link FsyncPolicy#INTERVAL} only
+         */
+        public Builder fsyncPolicy(FsyncPolicy policy, long intervalMillis) {
+            if (policy == null) {
+                throw new NullPointerException("policy");
+            }
+            this.fsyncPolicy = policy;
+            this.fsyncIntervalMillis = intervalMillis;
+            return this;
+        }
+
+        /**
+         * Number of rounds which may wait for being written, games publishing rounds when there is no room
+         * wait until writer catches up, 64K by default
+         */
+        public Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Listener of written rounds, rounds read by {@link #replay(Consumer) replay} are not reported to it
+         */
+        public Builder listener(JournalListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Opens journal and starts its writer
+         *
+         * @throws IOException if directory can't be created or listed
+         */
+        public RoundJournal build() throws IOException {
+            return new RoundJournal(this);
+        }
+    }
+}
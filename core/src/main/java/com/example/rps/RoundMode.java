@@ -0,0 +1,22 @@
+package com.example.rps;
+
+/**
+ * Defines how {@link Game} collects moves of players in single round
+ *
+ * @author Beka Tsotsoria
+ */
+public enum RoundMode {
+
+    /**
+     * Moves are requested in turn, next player is asked only after previous one has moved.
+     * Latency of round is sum of players' think times
+     */
+    SEQUENTIAL,
+
+    /**
+     * Moves of all players are requested at once, so latency of round is the longest think time.
+     * When one of the players' move gets aborted round fails immediately and pending
+     * requests of other players get cancelled, so their moves are kept for the next round
+     */
+    CONCURRENT
+}
@@ -0,0 +1,29 @@
+package com.example.rps;
+
+/**
+ * Drives rounds of many {@link Game games} on shared resources instead of dedicating
+ * thread per game
+ *
+ * @author Beka Tsotsoria
+ */
+public interface RoundScheduler {
+
+    /**
+     * Starts performing rounds of the game until returned play is {@link AsyncPlay#stop() stopped}
+     * or one of the players leaves the game
+     *
+     * @param game     game to play, must be {@link Game#isReady() ready}
+     * @param listener listener which will receive results of rounds
+     */
+    AsyncPlay schedule(Game game, RoundResultListener listener);
+
+    /**
+     * Returns current metrics of this scheduler
+     */
+    RoundSchedulerMetrics getMetrics();
+
+    /**
+     * Stops all scheduled games and releases resources
+     */
+    void shutdown();
+}
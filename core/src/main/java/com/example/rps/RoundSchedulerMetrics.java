@@ -0,0 +1,55 @@
+package com.example.rps;
+
+/**
+ * Point in time metrics of {@link RoundScheduler}
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundSchedulerMetrics {
+
+    private final int activeGames;
+    private final int queuedRounds;
+    private final long completedRounds;
+    private final double roundsPerSecond;
+
+    public RoundSchedulerMetrics(int activeGames, int queuedRounds, long completedRounds, double roundsPerSecond) {
+        this.activeGames = activeGames;
+        this.queuedRounds = queuedRounds;
+        this.completedRounds = completedRounds;
+        this.roundsPerSecond = roundsPerSecond;
+    }
+
+    /**
+     * Returns number of games currently being played
+     */
+    public int getActiveGames() {
+        return activeGames;
+    }
+
+    /**
+     * Returns number of rounds waiting for free worker
+     */
+    public int getQueuedRounds() {
+        return queuedRounds;
+    }
+
+    /**
+     * Returns total number of rounds completed since scheduler was created
+     */
+    public long getCompletedRounds() {
+        return completedRounds;
+    }
+
+    /**
+     * Returns rate of completed rounds measured since previous metrics sample
+     */
+    public double getRoundsPerSecond() {
+        return roundsPerSecond;
+    }
+
+    @Override
+    public String toString() {
+        return "active games: " + activeGames + ", queued rounds: " + queuedRounds +
+            ", completed rounds: " + completedRounds + ", rounds/sec: " + roundsPerSecond;
+    }
+}
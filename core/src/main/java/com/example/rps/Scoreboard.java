@@ -0,0 +1,301 @@
+package com.example.rps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Statistics of players currently in the game, kept in primitive arrays indexed by slot of the player.
+ * Rounds of the game are completed one at a time, so the only writer updates both players under
+ * uncontended write lock. {@link #snapshot() Snapshots} are taken with optimistic reads, which
+ * never block the game and are consistent across all counters of both players
+ *
+ * @author Beka Tsotsoria
+ */
+public class Scoreboard {
+
+    private final StampedLock lock = new StampedLock();
+    private final int weapons;
+    private final String[] playerIds;
+    /**
+     * Slots holding statistics {@link #restore restored} from journal, which are waiting for their player to join
+     */
+    private final boolean[] restored;
+    private final long[] wins;
+    private final long[] losses;
+    private final long[] draws;
+    private final long[] currentStreaks;
+    private final long[] longestStreaks;
+    /**
+     * Weapon usage indexed by <code>slot * weapons + ordinal</code>
+     */
+    private final long[] weaponCounts;
+    /**
+     * Number of the last round recorded, kept together with statistics for consistent {@link #capture() captures}
+     */
+    private long lastRound;
+
+    Scoreboard(int slots, int weapons) {
+        this.weapons = weapons;
+        this.playerIds = new String[slots];
+        this.restored = new boolean[slots];
+        this.wins = new long[slots];
+        this.losses = new long[slots];
+        this.draws = new long[slots];
+        this.currentStreaks = new long[slots];
+        this.longestStreaks = new long[slots];
+        this.weaponCounts = new long[slots * weapons];
+    }
+
+    /**
+     * Starts statistics of the player from scratch, unless they were {@link #restore restored} for this player
+     */
+    void join(int slot, String playerId) {
+        long stamp = lock.writeLock();
+        try {
+            if (restored[slot] && playerId.equals(playerIds[slot])) {
+                restored[slot] = false;
+                return;
+            }
+            clear(slot);
+            playerIds[slot] = playerId;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Forgets statistics of the player who left
+     */
+    void leave(int slot) {
+        long stamp = lock.writeLock();
+        try {
+            clear(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns slot which holds restored statistics of the player or -1 if there is none
+     */
+    int restoredSlotOf(String playerId) {
+        long stamp = lock.readLock();
+        try {
+            for (int slot = 0; slot < playerIds.length; slot++) {
+                if (restored[slot] && playerId.equals(playerIds[slot])) {
+                    return slot;
+                }
+            }
+            return -1;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void clear(int slot) {
+        playerIds[slot] = null;
+        restored[slot] = false;
+        wins[slot] = 0;
+        losses[slot] = 0;
+        draws[slot] = 0;
+        currentStreaks[slot] = 0;
+        longestStreaks[slot] = 0;
+        Arrays.fill(weaponCounts, slot * weapons, (slot + 1) * weapons, 0);
+    }
+
+    /**
+     * Records round played by players of two slots, ordinal is -1 when player forfeited. Round is ignored
+     * if any of the players left in the meantime
+     *
+     * @param outcome positive value if the first player won, negative value if the second one won and 0 if it's a draw
+     */
+    void record(long roundNumber, int slot1, String playerId1, int ordinal1, int slot2, String playerId2, int ordinal2, int outcome) {
+        long stamp = lock.writeLock();
+        try {
+            lastRound = Math.max(lastRound, roundNumber);
+            if (!playerId1.equals(playerIds[slot1]) || !playerId2.equals(playerIds[slot2])) {
+                return;
+            }
+            apply(slot1, ordinal1, slot2, ordinal2, outcome);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Replays round recorded before restart, statistics of the slot start from scratch when
+     * it was played by another player. Restored statistics are not part of {@link #snapshot() snapshots}
+     * until player {@link #join joins} again
+     */
+    void restore(long roundNumber, int slot1, String playerId1, int ordinal1, int slot2, String playerId2, int ordinal2, int outcome) {
+        long stamp = lock.writeLock();
+        try {
+            lastRound = Math.max(lastRound, roundNumber);
+            restoreSlot(slot1, playerId1);
+            restoreSlot(slot2, playerId2);
+            apply(slot1, ordinal1, slot2, ordinal2, outcome);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void restoreSlot(int slot, String playerId) {
+        if (!playerId.equals(playerIds[slot])) {
+            clear(slot);
+            playerIds[slot] = playerId;
+        }
+        restored[slot] = true;
+    }
+
+    private void apply(int slot1, int ordinal1, int slot2, int ordinal2, int outcome) {
+        if (ordinal1 >= 0) {
+            weaponCounts[slot1 * weapons + ordinal1]++;
+        }
+        if (ordinal2 >= 0) {
+            weaponCounts[slot2 * weapons + ordinal2]++;
+        }
+        if (outcome > 0) {
+            win(slot1);
+            lose(slot2);
+        } else if (outcome < 0) {
+            win(slot2);
+            lose(slot1);
+        } else {
+            draws[slot1]++;
+            draws[slot2]++;
+            currentStreaks[slot1] = 0;
+            currentStreaks[slot2] = 0;
+        }
+    }
+
+    private void win(int slot) {
+        wins[slot]++;
+        long streak = ++currentStreaks[slot];
+        if (streak > longestStreaks[slot]) {
+            longestStreaks[slot] = streak;
+        }
+    }
+
+    private void lose(int slot) {
+        losses[slot]++;
+        currentStreaks[slot] = 0;
+    }
+
+    /**
+     * Restores statistics of all slots {@link #capture() captured} before restart, statistics are not part of
+     * {@link #snapshot() snapshots} until their players {@link #join join} again
+     *
+     * @param scores    statistics indexed by slot, null for empty slot
+     * @param lastRound number of the last round statistics include
+     */
+    void restore(PlayerScore[] scores, long lastRound) {
+        long stamp = lock.writeLock();
+        try {
+            for (int slot = 0; slot < playerIds.length; slot++) {
+                clear(slot);
+                PlayerScore score = slot < scores.length ? scores[slot] : null;
+                if (score != null) {
+                    playerIds[slot] = score.getPlayerId();
+                    restored[slot] = true;
+                    wins[slot] = score.getWins();
+                    losses[slot] = score.getLosses();
+                    draws[slot] = score.getDraws();
+                    currentStreaks[slot] = score.getCurrentStreak();
+                    longestStreaks[slot] = score.getLongestStreak();
+                    long[] counts = score.getWeaponCounts();
+                    System.arraycopy(counts, 0, weaponCounts, slot * weapons, Math.min(counts.length, weapons));
+                }
+            }
+            this.lastRound = lastRound;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns consistent copy of statistics of all slots, including restored ones, and number of the last
+     * round they include
+     */
+    Capture capture() {
+        long stamp = lock.tryOptimisticRead();
+        Capture capture = readAll();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                capture = readAll();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return capture;
+    }
+
+    private Capture readAll() {
+        PlayerScore[] scores = new PlayerScore[playerIds.length];
+        for (int slot = 0; slot < playerIds.length; slot++) {
+            scores[slot] = read(slot);
+        }
+        return new Capture(scores, lastRound);
+    }
+
+    /**
+     * Returns number of wins of the player in specified slot, must be called by the game only
+     */
+    long winsOf(int slot) {
+        return wins[slot];
+    }
+
+    /**
+     * Returns consistent statistics of all players currently in the game in order of their slots
+     */
+    public List<PlayerScore> snapshot() {
+        long stamp = lock.tryOptimisticRead();
+        List<PlayerScore> scores = read();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                scores = read();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return Collections.unmodifiableList(scores);
+    }
+
+    private List<PlayerScore> read() {
+        List<PlayerScore> scores = new ArrayList<>(playerIds.length);
+        for (int slot = 0; slot < playerIds.length; slot++) {
+            if (!restored[slot]) {
+                PlayerScore score = read(slot);
+                if (score != null) {
+                    scores.add(score);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private PlayerScore read(int slot) {
+        String playerId = playerIds[slot];
+        if (playerId == null) {
+            return null;
+        }
+        return new PlayerScore(playerId, wins[slot], losses[slot], draws[slot],
+            currentStreaks[slot], longestStreaks[slot],
+            Arrays.copyOfRange(weaponCounts, slot * weapons, (slot + 1) * weapons));
+    }
+
+    static class Capture {
+
+        final PlayerScore[] scores;
+        final long lastRound;
+
+        Capture(PlayerScore[] scores, long lastRound) {
+            this.scores = scores;
+            this.lastRound = lastRound;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.rps;
+
+import java.util.Arrays;
+
+/**
+ * Aggregated outcome of {@link GameRules#simulate(byte[], byte[]) bulk simulation}. Players are
+ * identified by their position, 0 for the first one and 1 for the second one
+ *
+ * @author Beka Tsotsoria
+ */
+public class SimulationResult {
+
+    private final long rounds;
+    private final long[] wins;
+    private final long draws;
+    private final long[][] weaponCounts;
+    private final long elapsedNanos;
+
+    SimulationResult(long rounds, long[] wins, long draws, long[][] weaponCounts, long elapsedNanos) {
+        this.rounds = rounds;
+        this.wins = wins;
+        this.draws = draws;
+        this.weaponCounts = weaponCounts;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns number of rounds won by player at specified position
+     */
+    public long getWins(int player) {
+        return wins[player];
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns how many times player at specified position used each weapon, indexed by {@link GameRules#ordinalOf(Weapon) ordinal}
+     */
+    public long[] getWeaponCounts(int player) {
+        return weaponCounts[player].clone();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRoundsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rounds * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "rounds: " + rounds + ", wins: " + Arrays.toString(wins) + ", draws: " + draws +
+            ", weapons: " + Arrays.deepToString(weaponCounts) + ", rounds/sec: " + getRoundsPerSecond();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rps;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates range of moves against outcome matrix, ranges bigger than {@link #THRESHOLD}
+ * are split in halves and evaluated in parallel. Counts of both halves are merged into parent task
+ *
+ * @author Beka Tsotsoria
+ */
+class SimulationTask extends RecursiveAction {
+
+    static final int THRESHOLD = 1 << 16;
+
+    private final byte[] outcomes;
+    private final int size;
+    private final byte[] moves1;
+    private final byte[] moves2;
+    private final int from;
+    private final int to;
+
+    long wins1;
+    long wins2;
+    long draws;
+    final long[] weaponCounts1;
+    final long[] weaponCounts2;
+
+    SimulationTask(byte[] outcomes, int size, byte[] moves1, byte[] moves2, int from, int to) {
+        this.outcomes = outcomes;
+        this.size = size;
+        this.moves1 = moves1;
+        this.moves2 = moves2;
+        this.from = from;
+        this.to = to;
+        this.weaponCounts1 = new long[size];
+        this.weaponCounts2 = new long[size];
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= THRESHOLD) {
+            evaluate();
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        SimulationTask left = new SimulationTask(outcomes, size, moves1, moves2, from, middle);
+        SimulationTask right = new SimulationTask(outcomes, size, moves1, moves2, middle, to);
+        invokeAll(left, right);
+        merge(left);
+        merge(right);
+    }
+
+    private void evaluate() {
+        byte[] outcomes = this.outcomes;
+        byte[] moves1 = this.moves1;
+        byte[] moves2 = this.moves2;
+        long[] weaponCounts1 = this.weaponCounts1;
+        long[] weaponCounts2 = this.weaponCounts2;
+        int size = this.size;
+        long wins1 = 0;
+        long wins2 = 0;
+        for (int i = from; i < to; i++) {
+            int move1 = moves1[i];
+            int move2 = moves2[i];
+            weaponCounts1[move1]++;
+            weaponCounts2[move2]++;
+            int outcome = outcomes[move1 * size + move2];
+            // Branch free counting, outcome is one of -1, 0, 1
+            wins1 += (outcome + 1) >> 1;
+            wins2 += (-outcome + 1) >> 1;
+        }
+        this.wins1 = wins1;
+        this.wins2 = wins2;
+        this.draws = (to - from) - wins1 - wins2;
+    }
+
+    private void merge(SimulationTask task) {
+        wins1 += task.wins1;
+        wins2 += task.wins2;
+        draws += task.draws;
+        for (int i = 0; i < size; i++) {
+            weaponCounts1[i] += task.weaponCounts1[i];
+            weaponCounts2[i] += task.weaponCounts2[i];
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps compact binary snapshots of games in directory, so that restart only needs to
+ * {@link RoundJournal#replay(long, java.util.function.Consumer) replay}
+ * tail of the journal. Every snapshot remembers journal segment which was being written when snapshot
+ * started, rounds not included in snapshot can only be in that segment or the following ones.
+ * <p>
+ * Snapshot is written to temporary file and atomically renamed once it is synced, file ends with CRC32 of its content.
+ * Only the newest snapshots are retained
+ *
+ * @author Beka Tsotsoria
+ */
+public class SnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotStore.class);
+
+    private static final int MAGIC = 0x52505353;
+    private static final int VERSION = 1;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".snap";
+
+    private final Path directory;
+    private final int retained;
+    private long nextSnapshot;
+
+    /**
+     * @param directory directory of snapshots
+     * @param retained  number of the newest snapshots to keep, older ones are deleted
+     * @throws IOException if directory can't be created or listed
+     */
+    public SnapshotStore(Path directory, int retained) throws IOException {
+        if (retained <= 0) {
+            throw new IllegalArgumentException("At least one snapshot must be retained");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.retained = retained;
+        List<Path> snapshots = listSnapshots();
+        this.nextSnapshot = snapshots.isEmpty() ? 1 : sequenceOf(snapshots.get(snapshots.size() - 1)) + 1;
+    }
+
+    /**
+     * Writes snapshot of games and deletes snapshots which are not retained anymore
+     *
+     * @param journalSegment {@link RoundJournal#getCurrentSegment() current segment} of journal read before games
+     *                       were captured, 0 if there is no journal
+     * @return journal segment of the oldest retained snapshot, segments before it are not needed anymore
+     */
+    public synchronized long write(long journalSegment, Collection<GameSnapshot> games) throws IOException {
+        Path target = directory.resolve(String.format("%s%016d%s", PREFIX, nextSnapshot++, SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(journalSegment);
+            out.writeInt(games.size());
+            for (GameSnapshot game : games) {
+                writeGame(out, game);
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Written snapshot of {} games to {}", games.size(), target);
+
+        List<Path> snapshots = listSnapshots();
+        for (int i = 0; i < snapshots.size() - retained; i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        return readJournalSegment(snapshots.get(Math.max(0, snapshots.size() - retained)));
+    }
+
+    /**
+     * Encodes snapshot of single game in the same format games are stored in, so that game can be moved to
+     * another process, see {@link #decode(byte[])}
+     */
+    public static byte[] encode(GameSnapshot game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeGame(out, game);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes snapshot of single game {@link #encode(GameSnapshot) encoded} by this or another process
+     *
+     * @throws IOException if bytes are not encoded snapshot of supported version
+     */
+    public static GameSnapshot decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a snapshot of supported version");
+        }
+        try {
+            return readGame(in);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    private static void writeGame(DataOutputStream out, GameSnapshot game) throws IOException {
+        out.writeUTF(game.getName());
+        GameRules rules = game.getRules();
+        out.writeByte(rules.size());
+        for (int i = 0; i < rules.size(); i++) {
+            out.writeUTF(rules.weaponOf(i).getName());
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            for (int j = 0; j < rules.size(); j++) {
+                out.writeBoolean(rules.defeats(i, j));
+            }
+        }
+        out.writeLong(game.getRoundNumber());
+        out.writeByte(game.getSlots());
+        for (int slot = 0; slot < game.getSlots(); slot++) {
+            PlayerScore score = game.getScore(slot);
+            out.writeBoolean(score != null);
+            if (score != null) {
+                out.writeUTF(score.getPlayerId());
+                out.writeLong(score.getWins());
+                out.writeLong(score.getLosses());
+                out.writeLong(score.getDraws());
+                out.writeLong(score.getCurrentStreak());
+                out.writeLong(score.getLongestStreak());
+                for (long count : score.getWeaponCounts()) {
+                    out.writeLong(count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the newest valid snapshot, snapshots which fail CRC check or can't be decoded are skipped
+     *
+     * @return snapshot or null if there is none
+     */
+    public Snapshot readLatest() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            try {
+                Snapshot snapshot = read(snapshots.get(i));
+                log.info("Read snapshot of {} games from {}", snapshot.getGames().size(), snapshots.get(i));
+                return snapshot;
+            } catch (IOException e) {
+                log.warn("Skipping broken snapshot {}", snapshots.get(i), e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Verifies CRC of the whole file before decoding it, so that only content which was written by this store
+     * is decoded, content which still can't be decoded is reported as broken snapshot too
+     */
+    private static Snapshot read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < 4) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (ByteBuffer.wrap(bytes).getInt(bytes.length - 4) != (int) crc.getValue()) {
+            throw new IOException("CRC check failed");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a snapshot of supported version");
+            }
+            long journalSegment = in.readLong();
+            int count = in.readInt();
+            List<GameSnapshot> games = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                games.add(readGame(in));
+            }
+            if (in.available() != 0) {
+                throw new IOException("Unexpected content after " + count + " games");
+            }
+            return new Snapshot(journalSegment, games);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed snapshot", e);
+        }
+    }
+
+    private static GameSnapshot readGame(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        int size = in.readUnsignedByte();
+        Weapon[] weapons = new Weapon[size];
+        for (int i = 0; i < size; i++) {
+            weapons[i] = Weapon.from(in.readUTF());
+        }
+        GameRules.Builder builder = GameRules.builder().ordered(weapons);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (in.readBoolean()) {
+                    builder.defeats(weapons[i], weapons[j]);
+                }
+            }
+        }
+        GameRules rules = GameRules.canonical(builder.build());
+        long roundNumber = in.readLong();
+        PlayerScore[] scores = new PlayerScore[in.readUnsignedByte()];
+        for (int slot = 0; slot < scores.length; slot++) {
+            if (in.readBoolean()) {
+                String playerId = in.readUTF();
+                long wins = in.readLong();
+                long losses = in.readLong();
+                long draws = in.readLong();
+                long currentStreak = in.readLong();
+                long longestStreak = in.readLong();
+                long[] weaponCounts = new long[size];
+                for (int i = 0; i < size; i++) {
+                    weaponCounts[i] = in.readLong();
+                }
+                scores[slot] = new PlayerScore(playerId, wins, losses, draws, currentStreak, longestStreak, weaponCounts);
+            }
+        }
+        return new GameSnapshot(name, rules, roundNumber, scores);
+    }
+
+    private static long readJournalSegment(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            in.readInt();
+            in.readInt();
+            return in.readLong();
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(snapshots::add);
+        }
+        Collections.sort(snapshots);
+        return snapshots;
+    }
+
+    private static long sequenceOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Games read from snapshot file
+     */
+    public static class Snapshot {
+
+        private final long journalSegment;
+        private final List<GameSnapshot> games;
+
+        Snapshot(long journalSegment, List<GameSnapshot> games) {
+            this.journalSegment = journalSegment;
+            this.games = games;
+        }
+
+        /**
+         * Returns the first journal segment which may contain rounds not included in this snapshot
+         */
+        public long getJournalSegment() {
+            return journalSegment;
+        }
+
+        public List<GameSnapshot> getGames() {
+            return games;
+        }
+    }
+}
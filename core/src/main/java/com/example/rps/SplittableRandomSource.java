@@ -0,0 +1,28 @@
+package com.example.rps;
+
+import java.util.SplittableRandom;
+
+/**
+ * {@link RandomSource} backed by {@link SplittableRandom}, which keeps its state in plain fields
+ * (no shared atomic seed like {@link java.util.Random}) and samples bounded values without modulo bias
+ *
+ * @author Beka Tsotsoria
+ */
+class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    SplittableRandomSource(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+}
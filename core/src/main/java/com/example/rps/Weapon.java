@@ -1,5 +1,7 @@
 package com.example.rps;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -7,11 +9,13 @@ import java.util.Objects;
  */
 public class Weapon {
 
-    public static final Weapon ROCK = from("rock");
-    public static final Weapon PAPER = from("paper");
-    public static final Weapon SCISSORS = from("scissors");
-    public static final Weapon LIZARD = from("lizard");
-    public static final Weapon SPOCK = from("spock");
+    private static final Map<String, Weapon> WELL_KNOWN = new HashMap<>();
+
+    public static final Weapon ROCK = wellKnown("rock");
+    public static final Weapon PAPER = wellKnown("paper");
+    public static final Weapon SCISSORS = wellKnown("scissors");
+    public static final Weapon LIZARD = wellKnown("lizard");
+    public static final Weapon SPOCK = wellKnown("spock");
 
     private String name;
 
@@ -27,8 +31,20 @@ public class Weapon {
         return equals(weapon);
     }
 
+    /**
+     * Returns weapon by name, well known weapons such as {@link #ROCK} are returned as is without
+     * creating new instance. Prefer {@link WeaponRegistry#resolve(String)} to resolve moves of specific rules
+     */
     public static Weapon from(String weaponName) {
-        return new Weapon(weaponName.toLowerCase());
+        String name = weaponName.toLowerCase();
+        Weapon weapon = WELL_KNOWN.get(name);
+        return weapon != null ? weapon : new Weapon(name);
+    }
+
+    private static Weapon wellKnown(String name) {
+        Weapon weapon = new Weapon(name);
+        WELL_KNOWN.put(name, weapon);
+        return weapon;
     }
 
     @Override
@@ -41,7 +57,7 @@ public class Weapon {
 
     @Override
     public int hashCode() {
-        return Objects.hash(name);
+        return name.hashCode();
     }
 
     @Override
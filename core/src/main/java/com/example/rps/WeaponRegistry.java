@@ -0,0 +1,85 @@
+package com.example.rps;
+
+import java.util.*;
+
+/**
+ * Canonical set of weapons of single {@link GameRules rule set}. Every weapon gets small, stable
+ * ordinal in range <code>[0, size)</code> which is the same on the server and the client as long as
+ * both use the same rules, so moves can be identified either by name or by ordinal.
+ * <p>
+ * Lookups don't allocate, thus registry is meant to be used to resolve raw moves at ingress
+ * into interned {@link Weapon} instances.
+ *
+ * @author Beka Tsotsoria
+ */
+public class WeaponRegistry {
+
+    private final Weapon[] weapons;
+    private final List<Weapon> all;
+    private final Map<Weapon, Integer> ordinals = new HashMap<>();
+    private final Map<String, Weapon> byName = new HashMap<>();
+
+    WeaponRegistry(Collection<Weapon> weapons) {
+        this.weapons = weapons.toArray(new Weapon[weapons.size()]);
+        this.all = Collections.unmodifiableList(Arrays.asList(this.weapons));
+        for (int i = 0; i < this.weapons.length; i++) {
+            ordinals.put(this.weapons[i], i);
+            byName.put(this.weapons[i].getName(), this.weapons[i]);
+        }
+    }
+
+    /**
+     * Returns number of weapons
+     */
+    public int size() {
+        return weapons.length;
+    }
+
+    /**
+     * Returns ordinal of weapon or -1 if weapon is not registered
+     */
+    public int ordinalOf(Weapon weapon) {
+        Integer ordinal = ordinals.get(weapon);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Returns interned weapon by its {@link #ordinalOf(Weapon) ordinal}
+     *
+     * @throws IndexOutOfBoundsException if ordinal is not valid
+     */
+    public Weapon byOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= weapons.length) {
+            throw new IndexOutOfBoundsException("Unknown weapon ordinal " + ordinal);
+        }
+        return weapons[ordinal];
+    }
+
+    /**
+     * Resolves interned weapon by its name, case insensitive
+     *
+     * @return weapon or null if there is no such weapon in this registry
+     */
+    public Weapon resolve(String name) {
+        if (name == null) {
+            return null;
+        }
+        Weapon weapon = byName.get(name);
+        if (weapon != null) {
+            return weapon;
+        }
+        for (Weapon w : weapons) {
+            if (w.getName().equalsIgnoreCase(name)) {
+                return w;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns all weapons ordered by their ordinals
+     */
+    public List<Weapon> getAll() {
+        return all;
+    }
+}
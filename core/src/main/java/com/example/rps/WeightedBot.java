@@ -0,0 +1,68 @@
+package com.example.rps;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bot which prefers some weapons over others, each move is sampled in constant time
+ * from {@link AliasTable} built for available moves of the game. Weapons without weight
+ * are never chosen unless none of the available moves has positive weight, in which case
+ * bot falls back to uniform choice
+ *
+ * @author Beka Tsotsoria
+ */
+public class WeightedBot extends Bot {
+
+    private final Map<Weapon, Double> weights;
+    private volatile Strategy strategy;
+
+    public WeightedBot(String id, Map<Weapon, Double> weights) {
+        this(id, weights, RandomSource.create());
+    }
+
+    public WeightedBot(String id, Map<Weapon, Double> weights, RandomSource random) {
+        super(id, random);
+        this.weights = new HashMap<>(weights);
+        this.weights.values().forEach(weight -> {
+            if (weight == null || weight < 0) {
+                throw new IllegalArgumentException("Weight must be non-negative number, got " + weight);
+            }
+        });
+    }
+
+    @Override
+    public Weapon makeMove(GameContext context) {
+        Strategy strategy = this.strategy;
+        if (strategy == null || strategy.moves != context.getAvailableMoves()) {
+            strategy = new Strategy(context, weights);
+            this.strategy = strategy;
+        }
+        if (strategy.table == null) {
+            return super.makeMove(context);
+        }
+        return context.getAvailableMoves().get(strategy.table.sample(getRandom()));
+    }
+
+    /**
+     * Alias table of available moves, moves are shared by all games with the same rules,
+     * so table is rebuilt only when bot joins game with other rules
+     */
+    private static class Strategy {
+
+        private final List<Weapon> moves;
+        private final AliasTable table;
+
+        Strategy(GameContext context, Map<Weapon, Double> weights) {
+            List<Weapon> moves = context.getAvailableMoves();
+            double[] movesWeights = new double[moves.size()];
+            double total = 0;
+            for (int i = 0; i < movesWeights.length; i++) {
+                movesWeights[i] = weights.getOrDefault(moves.get(i), 0d);
+                total += movesWeights[i];
+            }
+            this.moves = moves;
+            this.table = total > 0 ? new AliasTable(movesWeights) : null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class AdaptiveBotTest {
+
+    private final GameRules rules = GameRules.CLASSIC;
+
+    @Test
+    public void frequencyModelShouldPredictTheMostFrequentMove() throws Exception {
+        FrequencyModel model = new FrequencyModel(3);
+        assertThat(model.predict()).isEqualTo(-1);
+
+        model.observe(2);
+        model.observe(1);
+        model.observe(1);
+
+        assertThat(model.predict()).isEqualTo(1);
+    }
+
+    @Test
+    public void markovModelShouldPredictMoveFollowingRecentMoves() throws Exception {
+        MarkovModel model = new MarkovModel(3, 2);
+        int[] cycle = {0, 0, 1, 2};
+        for (int i = 0; i < 20; i++) {
+            model.observe(cycle[i % cycle.length]);
+        }
+        // Last moves are 1, 2, which are always followed by 0
+        assertThat(model.predict()).isEqualTo(0);
+
+        model.observe(0);
+        // 2, 0 are always followed by 0
+        assertThat(model.predict()).isEqualTo(0);
+
+        model.observe(0);
+        assertThat(model.predict()).isEqualTo(1);
+    }
+
+    @Test
+    public void markovModelShouldNotExceedMemoryLimit() throws Exception {
+        assertThatThrownBy(() -> new MarkovModel(5, 4)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void frequencyBotShouldBeatOpponentPlayingTheSameMove() throws Exception {
+        Game game = new Game("Test", rules);
+        game.join(AdaptiveBot.frequency("bot"));
+        game.join(FakePlayer.using("rocky", Weapon.ROCK));
+
+        game.doRound();
+        for (int i = 0; i < 10; i++) {
+            assertThat(game.doRound().getWinnerIds()).containsExactly("bot");
+        }
+    }
+
+    @Test
+    public void markovBotShouldBeatOpponentPlayingInCycle() throws Exception {
+        Game game = new Game("Test", rules);
+        game.join(new AdaptiveBot("bot", size -> new MarkovModel(size, 1), RandomSource.seeded(1)));
+        Weapon[] moves = new Weapon[20];
+        for (int i = 0; i < moves.length; i++) {
+            moves[i] = rules.weaponOf(i % rules.size());
+        }
+        game.join(FakePlayer.inTurn("cyclic", moves));
+
+        for (int i = 0; i < 10; i++) {
+            game.doRound();
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(game.doRound().getWinnerIds()).containsExactly("bot");
+        }
+    }
+
+    @Test
+    public void botShouldMakeRandomMoveWithoutRules() throws Exception {
+        GameContext context = new GameContext(rules.getAllWeapons());
+
+        assertThat(AdaptiveBot.frequency("bot").makeMove(context)).isIn(rules.getAllWeapons());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class AliasTableTest {
+
+    @Test
+    public void shouldSampleProportionallyToWeights() throws Exception {
+        AliasTable table = new AliasTable(new double[]{1, 0, 2, 5});
+        RandomSource random = RandomSource.seeded(1);
+        int[] counts = new int[table.size()];
+
+        for (int i = 0; i < 80_000; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertThat(counts[0]).isBetween(9_000, 11_000);
+        assertThat(counts[1]).isZero();
+        assertThat(counts[2]).isBetween(19_000, 21_000);
+        assertThat(counts[3]).isBetween(49_000, 51_000);
+    }
+
+    @Test
+    public void shouldAlwaysSampleSingleIndex() throws Exception {
+        AliasTable table = new AliasTable(new double[]{0.3});
+
+        assertThat(table.sample(RandomSource.create())).isZero();
+    }
+
+    @Test
+    public void shouldRejectInvalidWeights() throws Exception {
+        assertThatThrownBy(() -> new AliasTable(new double[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AliasTable(new double[]{0, 0})).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AliasTable(new double[]{1, -1})).isInstanceOf(IllegalArgumentException.class);
+    }
+}
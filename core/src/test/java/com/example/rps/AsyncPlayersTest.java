@@ -0,0 +1,95 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class AsyncPlayersTest {
+
+    private final GameContext context = GameRules.CLASSIC.getContext();
+
+    @Test
+    public void asyncPlayersShouldNotBeWrapped() throws Exception {
+        Bot bot = new Bot();
+        assertThat(AsyncPlayers.adapt(bot)).isSameAs(bot);
+    }
+
+    @Test
+    public void botAndFakePlayerShouldCompleteImmediately() throws Exception {
+        assertThat(new Bot().requestMove(context).toCompletableFuture().isDone()).isTrue();
+        assertThat(FakePlayer.using("id", Weapon.ROCK).requestMove(context).toCompletableFuture().getNow(null))
+            .isEqualTo(Weapon.ROCK);
+    }
+
+    @Test
+    public void blockingPlayerShouldBeAdapted() throws Exception {
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("ID");
+        when(player.makeMove(any())).thenReturn(Weapon.PAPER);
+
+        AsyncPlayer asyncPlayer = AsyncPlayers.adapt(player);
+
+        assertThat(asyncPlayer.getId()).isEqualTo("ID");
+        assertThat(asyncPlayer.requestMove(context).toCompletableFuture().get(1, SECONDS)).isEqualTo(Weapon.PAPER);
+    }
+
+    @Test
+    public void queuedPlayerShouldCompletePendingRequestWhenMoveIsAdded() throws Exception {
+        QueuedPlayer player = new QueuedPlayer("id");
+
+        CompletableFuture<Weapon> move = player.requestMove(context).toCompletableFuture();
+        assertThat(move.isDone()).isFalse();
+
+        player.addMove(Weapon.SCISSORS);
+        assertThat(move.getNow(null)).isEqualTo(Weapon.SCISSORS);
+    }
+
+    @Test
+    public void queuedPlayerShouldKeepMoveWhenRequestIsCancelled() throws Exception {
+        QueuedPlayer player = new QueuedPlayer("id");
+
+        player.requestMove(context).toCompletableFuture().cancel(false);
+        player.addMove(Weapon.ROCK);
+
+        assertThat(player.requestMove(context).toCompletableFuture().getNow(null)).isEqualTo(Weapon.ROCK);
+    }
+
+    @Test
+    public void queuedPlayerShouldFailPendingRequestWhenAborted() throws Exception {
+        QueuedPlayer player = new QueuedPlayer("id");
+
+        CompletableFuture<Weapon> move = player.requestMove(context).toCompletableFuture();
+        player.abort();
+
+        assertThatThrownBy(move::get)
+            .isInstanceOf(ExecutionException.class)
+            .hasCauseInstanceOf(MoveAbortedException.class);
+    }
+
+    @Test
+    public void gameShouldCompleteRoundWhenMovesArrive() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        QueuedPlayer edward = new QueuedPlayer("edward");
+        Game game = new Game("game");
+        game.join(john);
+        game.join(edward);
+
+        CompletableFuture<RoundResult> round = game.requestRound().toCompletableFuture();
+        john.addMove(Weapon.ROCK);
+        assertThat(round.isDone()).isFalse();
+        edward.addMove(Weapon.PAPER);
+
+        assertThat(round.getNow(null).getWinnerIds()).containsExactly("edward");
+    }
+}
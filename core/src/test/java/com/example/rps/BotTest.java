@@ -3,6 +3,9 @@ package com.example.rps;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -33,4 +36,53 @@ public class BotTest {
         assertThat(bot.makeMove(new GameContext(Arrays.asList(Weapon.SCISSORS, Weapon.ROCK, Weapon.PAPER))))
             .isNotNull();
     }
+
+    @Test
+    public void seededBotsShouldMakeSameMoves() throws Exception {
+        Bot bot = new Bot("bot", RandomSource.seeded(42));
+        Bot anotherBot = new Bot("another bot", RandomSource.seeded(42));
+        GameContext context = GameRules.LIZARD_SPOCK_EXTENSION.getContext();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(bot.makeMove(context)).isEqualTo(anotherBot.makeMove(context));
+        }
+    }
+
+    @Test
+    public void randomMovesShouldBeUniformlyDistributed() throws Exception {
+        Bot bot = new Bot("bot", RandomSource.seeded(7));
+        GameContext context = GameRules.LIZARD_SPOCK_EXTENSION.getContext();
+        Map<Weapon, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            counts.merge(bot.makeMove(context), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(5);
+        counts.values().forEach(count -> assertThat(count).isBetween(9_500, 10_500));
+    }
+
+    @Test
+    public void weightedBotShouldPreferWeaponsWithBiggerWeight() throws Exception {
+        Map<Weapon, Double> weights = new HashMap<>();
+        weights.put(Weapon.ROCK, 3d);
+        weights.put(Weapon.PAPER, 1d);
+        Bot bot = new WeightedBot("bot", weights, RandomSource.seeded(7));
+        Map<Weapon, Integer> counts = new HashMap<>();
+
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(bot.makeMove(GameRules.CLASSIC.getContext()), 1, Integer::sum);
+        }
+
+        assertThat(counts).doesNotContainKey(Weapon.SCISSORS);
+        assertThat(counts.get(Weapon.ROCK)).isBetween(29_000, 31_000);
+        assertThat(counts.get(Weapon.PAPER)).isBetween(9_000, 11_000);
+    }
+
+    @Test
+    public void weightedBotShouldChooseUniformlyWhenNoneOfAvailableMovesHasWeight() throws Exception {
+        Bot bot = new WeightedBot("bot", Collections.singletonMap(Weapon.SPOCK, 1d), RandomSource.seeded(7));
+
+        assertThat(bot.makeMove(GameRules.CLASSIC.getContext())).isIn(Weapon.ROCK, Weapon.PAPER, Weapon.SCISSORS);
+    }
 }
@@ -0,0 +1,85 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 30000;
+
+    @Test
+    public void keysShouldBeSpreadEvenlyAcrossNodes() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"));
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.ownerOf("game-" + i), 1, Integer::sum);
+        }
+
+        assertThat(owned).containsOnlyKeys("node1", "node2", "node3");
+        assertThat(owned.values()).allMatch(count -> Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2);
+    }
+
+    @Test
+    public void ownershipShouldNotDependOnOrderOfNodes() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"));
+        ConsistentHashRing sameRing = new ConsistentHashRing(Arrays.asList("node3", "node1", "node2"));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(sameRing.ownerOf("game-" + i)).isEqualTo(ring.ownerOf("game-" + i));
+        }
+    }
+
+    @Test
+    public void addedNodeShouldTakeOverOnlyItsShare() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"));
+        ConsistentHashRing grown = ring.withNodes(Arrays.asList("node1", "node2", "node3", "node4"));
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.ownerOf("game-" + i);
+            String after = grown.ownerOf("game-" + i);
+            if (!before.equals(after)) {
+                assertThat(after).isEqualTo("node4");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween((int) (KEYS / 4 * 0.8), (int) (KEYS / 4 * 1.2));
+    }
+
+    @Test
+    public void keysOfRemovedNodeShouldBeSpreadAcrossRemainingNodes() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("node1", "node2", "node3"));
+        ConsistentHashRing shrunk = ring.withNodes(Arrays.asList("node1", "node3"));
+
+        Map<String, Integer> movedTo = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String before = ring.ownerOf("game-" + i);
+            String after = shrunk.ownerOf("game-" + i);
+            if (!before.equals("node2")) {
+                assertThat(after).isEqualTo(before);
+            } else {
+                movedTo.merge(after, 1, Integer::sum);
+            }
+        }
+        assertThat(movedTo).containsOnlyKeys("node1", "node3");
+    }
+
+    @Test
+    public void emptyRingShouldNotOwnKeys() throws Exception {
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.emptyList());
+
+        assertThat(ring.getNodes()).isEmpty();
+        assertThatThrownBy(() -> ring.ownerOf("game")).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.rps;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards steady-state round path against allocation regressions. Only published {@link RoundResult}
+ * (result itself, list of 2 {@link PlayerResult}s) is expected to be allocated per round
+ *
+ * @author Beka Tsotsoria
+ */
+public class GameAllocationTest {
+
+    private static final int ROUNDS = 200_000;
+    private static final long MAX_BYTES_PER_ROUND = 192;
+
+    @Test
+    public void roundShouldNotAllocateBeyondPublishedResult() throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Game game = new Game("allocations", GameRules.LIZARD_SPOCK_EXTENSION);
+        game.join(FakePlayer.using("john", Weapon.SPOCK));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+
+        long threadId = Thread.currentThread().getId();
+        playRounds(game);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        playRounds(game);
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        assertThat((after - before) / ROUNDS).isLessThanOrEqualTo(MAX_BYTES_PER_ROUND);
+    }
+
+    private void playRounds(Game game) {
+        for (int i = 0; i < ROUNDS; i++) {
+            game.doRound();
+        }
+    }
+}
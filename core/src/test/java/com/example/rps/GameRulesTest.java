@@ -2,6 +2,9 @@ package com.example.rps;
 
 import org.junit.Test;
 
+import java.util.Random;
+import java.util.stream.LongStream;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
@@ -48,4 +51,100 @@ public class GameRulesTest {
             .hasMessageContaining("scissors is not defeatable")
             .isInstanceOf(InconsistentGameRulesException.class);
     }
+
+    @Test
+    public void ordinalsShouldFollowDeclarationOrder() throws Exception {
+        assertThat(GameRules.CLASSIC.size()).isEqualTo(3);
+        assertThat(GameRules.CLASSIC.ordinalOf(Weapon.PAPER)).isEqualTo(0);
+        assertThat(GameRules.CLASSIC.ordinalOf(Weapon.ROCK)).isEqualTo(1);
+        assertThat(GameRules.CLASSIC.ordinalOf(Weapon.SCISSORS)).isEqualTo(2);
+        assertThat(GameRules.CLASSIC.ordinalOf(Weapon.SPOCK)).isEqualTo(-1);
+        assertThat(GameRules.CLASSIC.weaponOf(2)).isEqualTo(Weapon.SCISSORS);
+    }
+
+    @Test
+    public void classicOutcomesShouldMatchExpectedMatrix() throws Exception {
+        assertOutcomes(GameRules.CLASSIC, new Weapon[]{Weapon.PAPER, Weapon.ROCK, Weapon.SCISSORS}, new int[][]{
+            {0, 1, -1},
+            {-1, 0, 1},
+            {1, -1, 0}});
+    }
+
+    @Test
+    public void lizardSpockOutcomesShouldMatchExpectedMatrix() throws Exception {
+        assertOutcomes(GameRules.LIZARD_SPOCK_EXTENSION,
+            new Weapon[]{Weapon.ROCK, Weapon.PAPER, Weapon.SCISSORS, Weapon.LIZARD, Weapon.SPOCK}, new int[][]{
+                {0, -1, 1, 1, -1},
+                {1, 0, -1, -1, 1},
+                {-1, 1, 0, 1, -1},
+                {-1, 1, -1, 0, 1},
+                {1, -1, 1, -1, 0}});
+    }
+
+    @Test
+    public void simulationShouldCountWinsDrawsAndWeapons() throws Exception {
+        GameRules rules = GameRules.CLASSIC;
+        byte paper = (byte) rules.ordinalOf(Weapon.PAPER);
+        byte rock = (byte) rules.ordinalOf(Weapon.ROCK);
+        byte scissors = (byte) rules.ordinalOf(Weapon.SCISSORS);
+
+        SimulationResult result = rules.simulate(
+            new byte[]{paper, rock, rock, scissors},
+            new byte[]{rock, paper, rock, paper});
+
+        assertThat(result.getRounds()).isEqualTo(4);
+        assertThat(result.getWins(0)).isEqualTo(2);
+        assertThat(result.getWins(1)).isEqualTo(1);
+        assertThat(result.getDraws()).isEqualTo(1);
+        assertThat(result.getWeaponCounts(0)).containsExactly(1, 2, 1);
+        assertThat(result.getWeaponCounts(1)).containsExactly(2, 2, 0);
+    }
+
+    @Test
+    public void largeSimulationShouldBeSplitWithoutLosingRounds() throws Exception {
+        GameRules rules = GameRules.LIZARD_SPOCK_EXTENSION;
+        int rounds = SimulationTask.THRESHOLD * 8 + 3;
+        byte[] moves1 = new byte[rounds];
+        byte[] moves2 = new byte[rounds];
+        Random random = new Random(42);
+        long wins1 = 0;
+        long wins2 = 0;
+        for (int i = 0; i < rounds; i++) {
+            moves1[i] = (byte) random.nextInt(rules.size());
+            moves2[i] = (byte) random.nextInt(rules.size());
+            int outcome = rules.outcome(moves1[i], moves2[i]);
+            wins1 += outcome > 0 ? 1 : 0;
+            wins2 += outcome < 0 ? 1 : 0;
+        }
+
+        SimulationResult result = rules.simulate(moves1, moves2);
+
+        assertThat(result.getRounds()).isEqualTo(rounds);
+        assertThat(result.getWins(0)).isEqualTo(wins1);
+        assertThat(result.getWins(1)).isEqualTo(wins2);
+        assertThat(result.getDraws()).isEqualTo(rounds - wins1 - wins2);
+        assertThat(LongStream.of(result.getWeaponCounts(1)).sum()).isEqualTo(rounds);
+        assertThat(result.getRoundsPerSecond()).isPositive();
+    }
+
+    @Test
+    public void simulationShouldFailWhenMovesHaveDifferentLength() throws Exception {
+        assertThatThrownBy(() -> GameRules.CLASSIC.simulate(new byte[2], new byte[3]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Asserts outcome of every pair of weapons, <code>expected[i][j]</code> is outcome of <code>weapons[i]</code>
+     * against <code>weapons[j]</code>
+     */
+    private static void assertOutcomes(GameRules rules, Weapon[] weapons, int[][] expected) {
+        assertThat(rules.size()).isEqualTo(weapons.length);
+        for (int i = 0; i < weapons.length; i++) {
+            for (int j = 0; j < weapons.length; j++) {
+                assertThat(rules.outcome(rules.ordinalOf(weapons[i]), rules.ordinalOf(weapons[j])))
+                    .as("%s against %s", weapons[i], weapons[j])
+                    .isEqualTo(expected[i][j]);
+            }
+        }
+    }
 }
@@ -7,6 +7,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -61,6 +62,15 @@ public class GameTest {
             .isInstanceOf(IllegalArgumentException.class);
     }
 
+    @Test
+    public void joinShouldReturnFalseWhenGameIsFull() throws Exception {
+        assertThat(game.join(new FakePlayer(Weapon.PAPER, "john"))).isTrue();
+        assertThat(game.join(new FakePlayer(Weapon.PAPER, "edward"))).isTrue();
+
+        assertThat(game.join(new FakePlayer(Weapon.PAPER, "bot"))).isFalse();
+        assertThat(game.getPlayerIds()).containsExactly("john", "edward");
+    }
+
     @Test
     public void shouldGetListOfPlayers() throws Exception {
         game.join(new FakePlayer(Weapon.PAPER, "id"));
@@ -390,6 +400,166 @@ public class GameTest {
 
     }
 
+    @Test(timeout = 1000)
+    public void concurrentRoundShouldTakeAsLongAsTheSlowestPlayer() throws Exception {
+        game.setRoundMode(RoundMode.CONCURRENT);
+        game.join(FakePlayer.inTurn("john", Weapon.PAPER).withDelay(300));
+        game.join(FakePlayer.inTurn("edward", Weapon.ROCK).withDelay(300));
+
+        long started = System.nanoTime();
+        RoundResult result = game.doRound();
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(result.getWinnerIds()).containsExactly("john");
+        assertThat(elapsedMillis).isLessThan(500);
+    }
+
+    @Test
+    public void concurrentRoundShouldFailWithMoveAbortedExceptionWhenPlayerGetsAborted() throws Exception {
+        MoveAbortedException e = new MoveAbortedException("boom");
+
+        Player player = mock(Player.class);
+        when(player.getId()).thenReturn("ID");
+        when(player.makeMove(any())).thenThrow(e);
+
+        game.setRoundMode(RoundMode.CONCURRENT);
+        game.join(player);
+        game.join(FakePlayer.using("edward", Weapon.SCISSORS));
+
+        assertThatThrownBy(() -> game.doRound())
+            .isEqualTo(e);
+    }
+
+    @Test
+    public void concurrentRoundShouldFailImmediatelyAndKeepMoveOfRemainingPlayerWhenAnotherOneLeaves() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        QueuedPlayer edward = new QueuedPlayer("edward");
+        game.setRoundMode(RoundMode.CONCURRENT);
+        game.join(john);
+        game.join(edward);
+
+        CompletableFuture<RoundResult> round = game.requestRound().toCompletableFuture();
+        game.leave("edward");
+
+        assertThatThrownBy(round::join)
+            .hasCauseInstanceOf(MoveAbortedException.class);
+
+        john.addMove(Weapon.ROCK);
+        assertThat(john.requestMove(GameRules.CLASSIC.getContext()).toCompletableFuture().getNow(null))
+            .isEqualTo(Weapon.ROCK);
+    }
+
+    @Test(timeout = 2000)
+    public void playerShouldForfeitRoundWhenMoveDeadlineExpires() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        game.join(john);
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.setMoveDeadline(100, MoveTimeoutPolicy.FORFEIT);
+
+        RoundResult result = game.doRound();
+
+        assertThat(result.getWinnerIds()).containsExactly("edward");
+        assertThat(result.getWeaponUsed("john")).isNull();
+    }
+
+    @Test(timeout = 2000)
+    public void randomMoveShouldBeMadeWhenMoveDeadlineExpires() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        game.join(john);
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.setMoveDeadline(100, MoveTimeoutPolicy.RANDOM_MOVE);
+
+        RoundResult result = game.doRound();
+
+        assertThat(result.getWeaponUsed("john")).isIn("rock", "paper", "scissors");
+    }
+
+    @Test(timeout = 2000)
+    public void moveMadeAfterDeadlineShouldBeUsedInNextRound() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        game.join(john);
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.setMoveDeadline(100, MoveTimeoutPolicy.FORFEIT);
+
+        game.doRound();
+        john.addMove(Weapon.PAPER);
+
+        assertThat(game.doRound().getWinnerIds()).containsExactly("john");
+    }
+
+    @Test
+    public void playerShouldSeeRecentMovesOfOpponent() throws Exception {
+        List<Integer> lastOpponentMoves = new ArrayList<>();
+        Bot observer = new Bot("observer") {
+            @Override
+            public Weapon makeMove(GameContext context) {
+                MoveHistory opponentMoves = context.getOpponentMoves();
+                lastOpponentMoves.add(opponentMoves.size() > 0 ? opponentMoves.get(0) : -1);
+                return super.makeMove(context);
+            }
+        };
+        game.join(observer);
+        game.join(FakePlayer.inTurn("edward", Weapon.ROCK, Weapon.PAPER, Weapon.ROCK));
+
+        game.doRound();
+        game.doRound();
+        game.doRound();
+
+        assertThat(lastOpponentMoves).containsExactly(-1,
+            GameRules.CLASSIC.ordinalOf(Weapon.ROCK), GameRules.CLASSIC.ordinalOf(Weapon.PAPER));
+    }
+
+    @Test
+    public void opponentMovesShouldBeForgottenWhenNewOpponentJoins() throws Exception {
+        List<Long> totalMoves = new ArrayList<>();
+        game.join(new Bot("observer") {
+            @Override
+            public Weapon makeMove(GameContext context) {
+                totalMoves.add(context.getOpponentMoves().getTotalMoves());
+                return super.makeMove(context);
+            }
+        });
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        game.doRound();
+        game.leave("edward");
+        game.join(FakePlayer.using("john", Weapon.ROCK));
+
+        game.doRound();
+
+        assertThat(totalMoves).containsExactly(0L, 1L, 0L);
+    }
+
+    @Test
+    public void scoresShouldBeKeptOnlyForJoinedPlayers() throws Exception {
+        game.join(FakePlayer.using("john", Weapon.PAPER));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        game.doRound();
+
+        assertThat(game.getScores()).extracting(PlayerScore::getWins).containsExactly(2L, 0L);
+        assertThat(game.getScores()).extracting(PlayerScore::getLongestStreak).containsExactly(2L, 0L);
+
+        game.leave("john");
+        game.join(FakePlayer.using("john", Weapon.ROCK));
+
+        assertThat(game.getScores()).extracting(PlayerScore::getWins).containsExactly(0L, 0L);
+        assertThat(game.doRound().resultFor("john").getTotalWins()).isZero();
+    }
+
+    @Test
+    public void roundNumberOutOfRangeShouldNotBeRestored() throws Exception {
+        RoundEvent round = new RoundEvent();
+        round.set(0, "Test", Integer.MAX_VALUE + 1L, GameRules.CLASSIC, "john", 0, "edward", 1, -1);
+
+        assertThatThrownBy(() -> game.restore(round))
+            .hasMessageContaining("out of range")
+            .isInstanceOf(IllegalArgumentException.class);
+        game.join(FakePlayer.using("john", Weapon.PAPER));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        assertThat(game.doRound().getRoundNumber()).isEqualTo(1);
+    }
+
     private RoundResult doRound() {
         RoundResult result = game.doRound();
         assertThat(result).isNotNull();
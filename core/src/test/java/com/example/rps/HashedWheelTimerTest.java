@@ -0,0 +1,77 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class HashedWheelTimerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 64);
+
+    @After
+    public void tearDown() throws Exception {
+        timer.stop();
+    }
+
+    @Test(timeout = 2000)
+    public void shouldRunTaskAfterDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        HashedWheelTimer.Timeout timeout = timer.schedule(fired::countDown, 50, TimeUnit.MILLISECONDS);
+        fired.await();
+
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(timer.getPendingTimeouts()).isZero();
+    }
+
+    @Test(timeout = 2000)
+    public void shouldRunTasksWithDelayLongerThanSingleRevolution() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long started = System.nanoTime();
+
+        timer.schedule(fired::countDown, 200, TimeUnit.MILLISECONDS);
+        fired.await();
+
+        assertThat(System.nanoTime() - started).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void cancelledTaskShouldNotRun() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+
+        HashedWheelTimer.Timeout timeout = timer.schedule(fired::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        Thread.sleep(100);
+
+        assertThat(fired.get()).isZero();
+        assertThat(timeout.isCancelled()).isTrue();
+    }
+
+    @Test(timeout = 5000)
+    public void shouldArmAndCancelManyTimeouts() throws Exception {
+        AtomicInteger fired = new AtomicInteger();
+        List<HashedWheelTimer.Timeout> timeouts = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            timeouts.add(timer.schedule(fired::incrementAndGet, 1 + i % 500, TimeUnit.MILLISECONDS));
+        }
+        timeouts.forEach(HashedWheelTimer.Timeout::cancel);
+
+        assertThat(timer.getPendingTimeouts()).isZero();
+        Thread.sleep(600);
+        assertThat(fired.get()).isLessThan(timeouts.size());
+        assertThat(timeouts.stream().filter(HashedWheelTimer.Timeout::isExpired).count()).isEqualTo(fired.get());
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class LeaderboardTest {
+
+    private final Leaderboard leaderboard = new Leaderboard();
+
+    @After
+    public void tearDown() {
+        leaderboard.close();
+    }
+
+    @Test
+    public void ratingsShouldBeUpdatedByResultOfRound() {
+        leaderboard.apply("john", "edward", 1);
+
+        LeaderboardEntry john = leaderboard.get("john");
+        LeaderboardEntry edward = leaderboard.get("edward");
+        assertThat(john.getRating()).isEqualTo(1516);
+        assertThat(john.getRank()).isEqualTo(1);
+        assertThat(john.getWins()).isEqualTo(1);
+        assertThat(edward.getRating()).isEqualTo(1484);
+        assertThat(edward.getRank()).isEqualTo(2);
+        assertThat(edward.getLosses()).isEqualTo(1);
+        assertThat(leaderboard.get("nobody")).isNull();
+    }
+
+    @Test
+    public void drawShouldMoveRatingsTowardsEachOther() {
+        leaderboard.apply("john", "edward", 1);
+        leaderboard.apply("john", "edward", 0);
+
+        assertThat(leaderboard.get("john").getRating()).isLessThan(1516);
+        assertThat(leaderboard.get("edward").getRating()).isGreaterThan(1484);
+        assertThat(leaderboard.get("edward").getDraws()).isEqualTo(1);
+    }
+
+    @Test
+    public void playersWithEqualRatingShouldShareRank() {
+        leaderboard.apply("john", "edward", 1);
+        leaderboard.apply("bot", "alice", -1);
+        leaderboard.apply("bot", "bot", 1);
+
+        assertThat(leaderboard.top(3)).extracting(e -> e.getPlayerId() + ":" + e.getRank())
+            .containsExactly("alice:1", "john:1", "bot:3");
+        assertThat(leaderboard.get("edward").getRank()).isEqualTo(3);
+        assertThat(leaderboard.size()).isEqualTo(4);
+    }
+
+    @Test
+    public void rankOfPlayerShouldMatchTopList() {
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            leaderboard.apply("player" + random.nextInt(500), "player" + random.nextInt(500), random.nextInt(3) - 1);
+        }
+
+        List<LeaderboardEntry> top = leaderboard.top(Integer.MAX_VALUE);
+        assertThat(top).hasSize(leaderboard.size());
+        for (int i = 0; i < top.size(); i++) {
+            LeaderboardEntry entry = top.get(i);
+            assertThat(leaderboard.get(entry.getPlayerId()).getRank()).isEqualTo(entry.getRank());
+            if (i > 0) {
+                assertThat(entry.getRating()).isLessThanOrEqualTo(top.get(i - 1).getRating());
+            }
+        }
+    }
+
+    @Test
+    public void gamesShouldPublishRoundsToLeaderboard() throws Exception {
+        Game game1 = new Game("game1");
+        game1.setLeaderboard(leaderboard);
+        game1.join(FakePlayer.using("john", Weapon.PAPER));
+        game1.join(FakePlayer.using("edward", Weapon.ROCK));
+        Game game2 = new Game("game2");
+        game2.setLeaderboard(leaderboard);
+        game2.join(FakePlayer.using("john", Weapon.SCISSORS));
+        game2.join(FakePlayer.using("bot", Weapon.PAPER));
+        game1.doRound();
+        game1.doRound();
+        game2.doRound();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((leaderboard.size() < 3 || leaderboard.getPendingRounds() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(leaderboard.top(1)).extracting(LeaderboardEntry::getPlayerId).containsExactly("john");
+        assertThat(leaderboard.get("john").getWins()).isEqualTo(3);
+    }
+
+    @Test
+    public void roundsShouldNotBeDroppedWhenGamesOutpaceRanking() throws Exception {
+        try (Leaderboard small = new Leaderboard(32, 2)) {
+            Game game = new Game("game");
+            game.setLeaderboard(small);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            for (int i = 0; i < 500; i++) {
+                game.doRound();
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (small.getPendingRounds() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertThat(small.get("john").getWins()).isEqualTo(500);
+            assertThat(small.get("edward").getLosses()).isEqualTo(500);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class MatchmakerTest {
+
+    private final Matchmaker matchmaker = new Matchmaker(Game::new, 200);
+
+    @Test
+    public void waitingPlayersShouldBeMatchedIntoNewGame() throws Exception {
+        MatchTicket john = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        assertThat(john.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(matchmaker.getMetrics().getWaitingPlayers()).isEqualTo(1);
+
+        MatchTicket edward = matchmaker.enqueue(new FakePlayer(Weapon.ROCK, "edward"), GameRules.CLASSIC);
+
+        Game game = john.getGame().toCompletableFuture().get();
+        assertThat(edward.getGame().toCompletableFuture().get()).isSameAs(game);
+        assertThat(game.getPlayerIds()).containsExactly("john", "edward");
+        assertThat(game.getRules()).isSameAs(GameRules.CLASSIC);
+        assertThat(game.doRound().resultFor("john").isWinner()).isTrue();
+        MatchmakerMetrics metrics = matchmaker.getMetrics();
+        assertThat(metrics.getWaitingPlayers()).isEqualTo(0);
+        assertThat(metrics.getMatches()).isEqualTo(1);
+    }
+
+    @Test
+    public void playersShouldBeMatchedOnlyWithinTheirBucket() throws Exception {
+        MatchTicket classic = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        MatchTicket extended = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "edward"), GameRules.LIZARD_SPOCK_EXTENSION);
+        MatchTicket strong = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "alice"), GameRules.CLASSIC, 1810);
+        MatchTicket weak = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "bob"), GameRules.CLASSIC, 1420);
+        MatchTicket alsoStrong = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "carol"), GameRules.CLASSIC, 1999);
+
+        assertThat(classic.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(extended.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(weak.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(strong.getGame().toCompletableFuture().get().getPlayerIds()).containsExactly("alice", "carol");
+        assertThat(alsoStrong.getGame().toCompletableFuture().isDone()).isTrue();
+        assertThat(matchmaker.getMetrics().getWaitingPlayers()).isEqualTo(3);
+    }
+
+    @Test
+    public void cancelledPlayerShouldNotBeMatched() throws Exception {
+        MatchTicket john = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        assertThat(john.cancel()).isTrue();
+        MatchTicket edward = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "edward"), GameRules.CLASSIC);
+
+        assertThatThrownBy(() -> john.getGame().toCompletableFuture().get()).isInstanceOf(CancellationException.class);
+        assertThat(edward.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(matchmaker.getMetrics().getWaitingPlayers()).isEqualTo(1);
+
+        matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "bob"), GameRules.CLASSIC);
+        assertThat(edward.cancel()).isFalse();
+    }
+
+    @Test
+    public void playerEnqueuedAgainShouldNotBeMatchedWithItself() throws Exception {
+        MatchTicket first = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        MatchTicket second = matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+
+        assertThat(first.getGame().toCompletableFuture().isCancelled()).isTrue();
+        assertThat(second.getGame().toCompletableFuture().isDone()).isFalse();
+        assertThat(matchmaker.getMetrics().getWaitingPlayers()).isEqualTo(1);
+    }
+
+    @Test
+    public void matchedGamesShouldNotReuseNamesOfGamesMatchedBeforeRestart() throws Exception {
+        Matchmaker restarted = new Matchmaker(Game::new, 200);
+        matchmaker.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        String before = matchmaker.enqueue(new FakePlayer(Weapon.ROCK, "edward"), GameRules.CLASSIC)
+            .getGame().toCompletableFuture().get().getName();
+        restarted.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        String after = restarted.enqueue(new FakePlayer(Weapon.ROCK, "edward"), GameRules.CLASSIC)
+            .getGame().toCompletableFuture().get().getName();
+
+        assertThat(after).isNotEqualTo(before);
+        assertThat(Matchmaker.isMatchedGame(before)).isTrue();
+        assertThat(Matchmaker.isMatchedGame(after)).isTrue();
+        assertThat(Matchmaker.isMatchedGame("theGame")).isFalse();
+    }
+
+    @Test
+    public void bothTicketsShouldFailWhenGameCannotBeCreated() throws Exception {
+        Matchmaker failing = new Matchmaker((name, rules) -> {
+            throw new IllegalStateException("Game with name " + name + " already exists");
+        }, 200);
+        MatchTicket john = failing.enqueue(new FakePlayer(Weapon.PAPER, "john"), GameRules.CLASSIC);
+        MatchTicket edward = failing.enqueue(new FakePlayer(Weapon.ROCK, "edward"), GameRules.CLASSIC);
+
+        assertThatThrownBy(() -> john.getGame().toCompletableFuture().get()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> edward.getGame().toCompletableFuture().get()).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(failing.getMetrics().getWaitingPlayers()).isEqualTo(0);
+    }
+
+    @Test
+    public void concurrentlyEnqueuedPlayersShouldAllBeMatched() throws Exception {
+        int threads = 8;
+        int playersPerThread = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<MatchTicket>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                List<MatchTicket> tickets = new ArrayList<>();
+                for (int i = 0; i < playersPerThread; i++) {
+                    tickets.add(matchmaker.enqueue(new FakePlayer(Weapon.PAPER, thread + "-" + i), GameRules.CLASSIC));
+                }
+                return tickets;
+            }));
+        }
+        start.countDown();
+
+        Set<Game> games = ConcurrentHashMap.newKeySet();
+        for (Future<List<MatchTicket>> future : futures) {
+            for (MatchTicket ticket : future.get(10, TimeUnit.SECONDS)) {
+                Game game = ticket.getGame().toCompletableFuture().get(1, TimeUnit.SECONDS);
+                assertThat(game.getPlayerIds()).hasSize(2).contains(ticket.getPlayer().getId());
+                games.add(game);
+            }
+        }
+        executor.shutdown();
+        assertThat(games).hasSize(threads * playersPerThread / 2);
+        assertThat(matchmaker.getMetrics().getWaitingPlayers()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class MoveHistoryTest {
+
+    @Test
+    public void capacityShouldBeRoundedUpToPowerOfTwo() throws Exception {
+        assertThat(new MoveHistory(1).capacity()).isEqualTo(1);
+        assertThat(new MoveHistory(5).capacity()).isEqualTo(8);
+        assertThat(new MoveHistory(64).capacity()).isEqualTo(64);
+    }
+
+    @Test
+    public void shouldReturnMovesFromTheMostRecentOne() throws Exception {
+        MoveHistory history = new MoveHistory(4);
+        history.record(0);
+        history.record(1);
+        history.record(2);
+
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.get(0)).isEqualTo(2);
+        assertThat(history.get(2)).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldKeepOnlyTheMostRecentMovesWhenFull() throws Exception {
+        MoveHistory history = new MoveHistory(4);
+        for (int i = 0; i < 6; i++) {
+            history.record(i);
+        }
+
+        assertThat(history.size()).isEqualTo(4);
+        assertThat(history.getTotalMoves()).isEqualTo(6);
+        assertThat(history.get(0)).isEqualTo(5);
+        assertThat(history.get(3)).isEqualTo(2);
+        assertThatThrownBy(() -> history.get(4)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void clearShouldForgetMoves() throws Exception {
+        MoveHistory history = new MoveHistory(4);
+        history.record(1);
+        history.clear();
+
+        assertThat(history.size()).isZero();
+        assertThat(history.getTotalMoves()).isZero();
+    }
+}
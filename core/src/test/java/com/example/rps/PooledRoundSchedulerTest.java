@@ -0,0 +1,83 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class PooledRoundSchedulerTest {
+
+    private final PooledRoundScheduler scheduler = new PooledRoundScheduler(2);
+
+    @After
+    public void tearDown() throws Exception {
+        scheduler.shutdown();
+    }
+
+    @Test(timeout = 5000)
+    public void shouldDriveMoreGamesThanThreads() throws Exception {
+        List<AtomicInteger> counters = new ArrayList<>();
+        List<AsyncPlay> plays = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Game game = new Game("game" + i);
+            game.join(FakePlayer.using("john", Weapon.ROCK));
+            game.join(FakePlayer.using("edward", Weapon.PAPER));
+            AtomicInteger counter = new AtomicInteger();
+            counters.add(counter);
+            plays.add(game.doRoundsAsync(rr -> counter.incrementAndGet(), scheduler));
+        }
+
+        assertThat(scheduler.getMetrics().getActiveGames()).isEqualTo(10);
+        for (AtomicInteger counter : counters) {
+            while (counter.get() < 100) {
+                Thread.sleep(1);
+            }
+        }
+
+        plays.forEach(AsyncPlay::stop);
+
+        RoundSchedulerMetrics metrics = scheduler.getMetrics();
+        assertThat(metrics.getActiveGames()).isZero();
+        assertThat(metrics.getCompletedRounds()).isGreaterThanOrEqualTo(1000);
+    }
+
+    @Test(timeout = 5000)
+    public void shouldStopGameWhenPlayerLeaves() throws Exception {
+        QueuedPlayer john = new QueuedPlayer("john");
+        Game game = new Game("game");
+        game.join(john);
+        game.join(FakePlayer.using("edward", Weapon.PAPER));
+
+        AsyncPlay play = game.doRoundsAsync(rr -> {
+        }, scheduler);
+        game.leave("john");
+
+        while (play.isPlaying()) {
+            Thread.sleep(1);
+        }
+        assertThat(scheduler.getMetrics().getActiveGames()).isZero();
+    }
+
+    @Test
+    public void shouldReportRoundsPerSecond() throws Exception {
+        Game game = new Game("game");
+        game.join(FakePlayer.using("john", Weapon.ROCK));
+        game.join(FakePlayer.using("edward", Weapon.PAPER));
+
+        scheduler.getMetrics();
+        AsyncPlay play = game.doRoundsAsync(rr -> {
+        }, scheduler);
+        Thread.sleep(1100);
+        RoundSchedulerMetrics metrics = scheduler.getMetrics();
+        play.stop();
+
+        assertThat(metrics.getRoundsPerSecond()).isPositive();
+    }
+}
@@ -3,6 +3,9 @@ package com.example.rps;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -12,6 +15,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
  */
 public class QueuedPlayerTest {
 
+    private static final int LATENCY_SAMPLES = 200;
+
     @Test
     public void canCreateQueuedPlayer() throws Exception {
         QueuedPlayer player = new QueuedPlayer("id");
@@ -49,6 +54,72 @@ public class QueuedPlayerTest {
 
     }
 
+    @Test(timeout = 10000)
+    public void moveShouldBeHandedOverToWaitingThreadInLessThanMillisecond() throws Exception {
+        QueuedPlayer player = new QueuedPlayer("id");
+        long[] latencies = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            latencies[i] = measureWakeUp(() -> player.addMove(Weapon.ROCK), () -> player.makeMove(newContext()));
+        }
+
+        assertThat(median(latencies)).isLessThan(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test(timeout = 10000)
+    public void abortShouldWakeUpWaitingThreadInLessThanMillisecond() throws Exception {
+        long[] latencies = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            QueuedPlayer player = new QueuedPlayer("id");
+            latencies[i] = measureWakeUp(player::abort, () -> {
+                try {
+                    player.makeMove(newContext());
+                } catch (MoveAbortedException ignored) {
+                }
+            });
+        }
+
+        assertThat(median(latencies)).isLessThan(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void abortedPlayerShouldFailMoveEvenIfMovesAreQueued() throws Exception {
+        QueuedPlayer player = new QueuedPlayer("id");
+        player.addMove(Weapon.ROCK);
+        player.abort();
+
+        assertThatThrownBy(() -> player.makeMove(newContext()))
+            .isInstanceOf(MoveAbortedException.class);
+    }
+
+    /**
+     * Returns nanos elapsed between invocation of <code>wakeUp</code> and the moment
+     * when thread blocked by <code>waiter</code> resumes
+     */
+    private long measureWakeUp(Runnable wakeUp, Runnable waiter) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicLong resumedAt = new AtomicLong();
+        Thread thread = new Thread(() -> {
+            started.countDown();
+            waiter.run();
+            resumedAt.set(System.nanoTime());
+        });
+        thread.start();
+        started.await();
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        long wokenAt = System.nanoTime();
+        wakeUp.run();
+        thread.join();
+        return resumedAt.get() - wokenAt;
+    }
+
+    private long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
     private GameContext newContext() {
         return new GameContext(Arrays.asList(Weapon.PAPER, Weapon.ROCK, Weapon.SCISSORS));
     }
@@ -0,0 +1,189 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class RoundEventLogTest {
+
+    private final List<String> written = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void shouldWriteEventsPublishedFromManyThreads() throws Exception {
+        RoundEventLog eventLog = new RoundEventLog(1024, new CollectingWriter());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int t = 0; t < 4; t++) {
+            String game = "game" + t;
+            executor.execute(() -> {
+                for (int round = 1; round <= 200; round++) {
+                    while (!eventLog.publish(game, round, GameRules.CLASSIC, "john", 0, "bot", 1, 1)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        eventLog.close();
+
+        assertThat(written).hasSize(800);
+        assertThat(written).contains("game3:200:john:paper:bot:rock:1");
+        assertThat(eventLog.getPendingEvents()).isZero();
+    }
+
+    @Test
+    public void shouldDropEventsWhenRingIsFull() throws Exception {
+        CountDownLatch blockWriter = new CountDownLatch(1);
+        RoundEventLog eventLog = new RoundEventLog(2, new CollectingWriter() {
+            @Override
+            public void write(RoundEvent event) {
+                try {
+                    blockWriter.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                super.write(event);
+            }
+        });
+
+        for (int round = 1; round <= 5; round++) {
+            eventLog.publish("game", round, GameRules.CLASSIC, "john", 0, "bot", 1, 1);
+        }
+        blockWriter.countDown();
+        eventLog.close();
+
+        assertThat(eventLog.getDroppedEvents()).isEqualTo(3);
+        assertThat(written).hasSize(2);
+    }
+
+    @Test
+    public void losslessLogShouldQueueEventsWithoutWaitingWhenRingIsFull() throws Exception {
+        CountDownLatch blockWriter = new CountDownLatch(1);
+        RoundEventLog eventLog = new RoundEventLog(2, new CollectingWriter() {
+            @Override
+            public void write(RoundEvent event) {
+                try {
+                    blockWriter.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                super.write(event);
+            }
+        }, true);
+
+        for (int round = 1; round <= 5; round++) {
+            assertThat(eventLog.publish("game", round, GameRules.CLASSIC, "john", 0, "bot", 1, 1)).isTrue();
+        }
+        assertThat(eventLog.getOverflowedEvents()).isPositive();
+        assertThat(eventLog.getPendingEvents()).isEqualTo(5);
+
+        blockWriter.countDown();
+        eventLog.close();
+
+        assertThat(eventLog.getDroppedEvents()).isZero();
+        assertThat(written).extracting(event -> event.split(":")[1]).containsExactly("1", "2", "3", "4", "5");
+    }
+
+    @Test
+    public void losslessLogShouldKeepOrderOfEventsWhileWriterCatchesUp() throws Exception {
+        RoundEventLog eventLog = new RoundEventLog(4, new CollectingWriter() {
+            @Override
+            public void write(RoundEvent event) {
+                LockSupport.parkNanos(10_000);
+                super.write(event);
+            }
+        }, true);
+
+        for (int round = 1; round <= 200; round++) {
+            eventLog.publish("game", round, GameRules.CLASSIC, "john", 0, "bot", 1, 1);
+        }
+        eventLog.close();
+
+        assertThat(eventLog.getOverflowedEvents()).isPositive();
+        assertThat(written).extracting(event -> Integer.parseInt(event.split(":")[1]))
+            .containsExactlyElementsOf(IntStream.rangeClosed(1, 200).boxed().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void writerShouldBeNotifiedWhenLogBecomesIdle() throws Exception {
+        CountDownLatch idle = new CountDownLatch(1);
+        RoundEventLog eventLog = new RoundEventLog(16, new CollectingWriter() {
+            @Override
+            public void idle() {
+                if (!written.isEmpty()) {
+                    idle.countDown();
+                }
+            }
+        });
+
+        eventLog.publish("game", 1, GameRules.CLASSIC, "john", 0, "bot", 1, 1);
+
+        assertThat(idle.await(1, TimeUnit.SECONDS)).isTrue();
+        eventLog.close();
+    }
+
+    @Test
+    public void gameShouldPublishSampledRounds() throws Exception {
+        RoundEventLog eventLog = new RoundEventLog(64, new CollectingWriter());
+        Game game = new Game("Test");
+        game.setRoundEventLog(eventLog, 3);
+        game.join(FakePlayer.using("john", Weapon.ROCK));
+        game.join(FakePlayer.using("edward", Weapon.PAPER));
+
+        for (int i = 0; i < 10; i++) {
+            game.doRound();
+        }
+        eventLog.close();
+
+        assertThat(written).containsExactly(
+            "Test:3:john:rock:edward:paper:-1",
+            "Test:6:john:rock:edward:paper:-1",
+            "Test:9:john:rock:edward:paper:-1");
+    }
+
+    @Test
+    public void jsonWriterShouldWriteEventPerLine() throws Exception {
+        StringWriter out = new StringWriter();
+        RoundEventLog eventLog = new RoundEventLog(8, new JsonRoundEventWriter(out));
+
+        eventLog.publish("g\"1", 7, GameRules.CLASSIC, "john", 1, "bot", -1, 1);
+        eventLog.close();
+
+        assertThat(out.toString())
+            .matches("\\{\"ts\":\\d+,\"game\":\"g\\\\\"1\",\"round\":7,\"p1\":\"john\",\"m1\":\"rock\",\"p2\":\"bot\",\"m2\":null,\"outcome\":1}\n");
+    }
+
+    private class CollectingWriter implements RoundEventWriter {
+
+        @Override
+        public void write(RoundEvent event) {
+            written.add(event.getGame() + ":" + event.getRoundNumber() + ":" +
+                event.getPlayerId(0) + ":" + event.getWeaponName(0) + ":" +
+                event.getPlayerId(1) + ":" + event.getWeaponName(1) + ":" + event.getOutcome());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class RoundHistoryTest {
+
+    private final RoundHistory history = new RoundHistory(4);
+
+    @Test
+    public void shouldReadRoundsStartingWithSpecifiedOne() throws Exception {
+        history.append(1, 0, 1, 1, 2, -1);
+        history.append(2, 0, -1, 1, 0, -1);
+        history.append(3, 0, 2, 1, 1, 1);
+
+        RoundHistory.Cursor cursor = history.newCursor();
+        assertThat(history.read(2, cursor)).isEqualTo(2);
+
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.getRoundNumber()).isEqualTo(2);
+        assertThat(cursor.getSlot(0)).isEqualTo(0);
+        assertThat(cursor.getMove(0)).isEqualTo(-1);
+        assertThat(cursor.getSlot(1)).isEqualTo(1);
+        assertThat(cursor.getMove(1)).isEqualTo(0);
+        assertThat(cursor.getOutcome()).isEqualTo(-1);
+
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.getRoundNumber()).isEqualTo(3);
+        assertThat(cursor.getOutcome()).isEqualTo(1);
+        assertThat(cursor.next()).isFalse();
+    }
+
+    @Test
+    public void shouldKeepOnlyTheMostRecentRounds() throws Exception {
+        for (int round = 1; round <= 10; round++) {
+            history.append(round, 0, 0, 1, 1, 1);
+        }
+
+        assertThat(history.getLatestRound()).isEqualTo(10);
+        assertThat(roundNumbers(1)).containsExactly(7L, 8L, 9L, 10L);
+        assertThat(roundNumbers(9)).containsExactly(9L, 10L);
+        assertThat(roundNumbers(11)).isEmpty();
+    }
+
+    @Test
+    public void shouldFindRoundsByNumberWhenThereAreGaps() throws Exception {
+        for (long round : new long[]{3, 4, 9, 12, 20}) {
+            history.append(round, 0, 0, 1, 1, 1);
+        }
+
+        assertThat(history.getLatestRound()).isEqualTo(20);
+        assertThat(roundNumbers(1)).containsExactly(4L, 9L, 12L, 20L);
+        assertThat(roundNumbers(9)).containsExactly(9L, 12L, 20L);
+        assertThat(roundNumbers(10)).containsExactly(12L, 20L);
+        assertThat(roundNumbers(21)).isEmpty();
+    }
+
+    @Test
+    public void shouldRejectRoundsWhichAreNotNewer() throws Exception {
+        history.append(5, 0, 0, 1, 1, 1);
+
+        assertThatThrownBy(() -> history.append(5, 0, 0, 1, 1, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void cursorShouldBeReusable() throws Exception {
+        RoundHistory.Cursor cursor = history.newCursor();
+        history.append(1, 0, 0, 1, 1, 1);
+        history.read(1, cursor);
+        history.append(2, 0, 0, 1, 1, 1);
+
+        assertThat(history.read(2, cursor)).isEqualTo(1);
+        assertThat(cursor.next()).isTrue();
+        assertThat(cursor.getRoundNumber()).isEqualTo(2);
+    }
+
+    @Test
+    public void readsShouldBeConsistentWhileRoundsAreAppended() throws Exception {
+        RoundHistory history = new RoundHistory(64);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (long round = 1; running.get(); round++) {
+                history.append(round, 0, (int) (round % 3), 1, (int) (round % 3), 0);
+            }
+        });
+        writer.start();
+        RoundHistory.Cursor cursor = history.newCursor();
+
+        for (int i = 0; i < 10_000; i++) {
+            history.read(1, cursor);
+            long previous = -1;
+            while (cursor.next()) {
+                assertThat(cursor.getMove(0)).isEqualTo((int) (cursor.getRoundNumber() % 3));
+                if (previous >= 0) {
+                    assertThat(cursor.getRoundNumber()).isEqualTo(previous + 1);
+                }
+                previous = cursor.getRoundNumber();
+            }
+        }
+        running.set(false);
+        writer.join();
+    }
+
+    @Test
+    public void gameShouldRecordRounds() throws Exception {
+        Game game = new Game("Test", GameRules.CLASSIC, 16);
+        game.join(FakePlayer.using("john", Weapon.PAPER));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        game.doRound();
+
+        RoundHistory.Cursor cursor = game.getHistory().newCursor();
+        game.getHistory().read(1, cursor);
+
+        assertThat(cursor.size()).isEqualTo(2);
+        cursor.next();
+        assertThat(cursor.getMove(0)).isEqualTo(GameRules.CLASSIC.ordinalOf(Weapon.PAPER));
+        assertThat(cursor.getMove(1)).isEqualTo(GameRules.CLASSIC.ordinalOf(Weapon.ROCK));
+        assertThat(cursor.getOutcome()).isEqualTo(1);
+    }
+
+    private List<Long> roundNumbers(long fromRound) {
+        RoundHistory.Cursor cursor = history.newCursor();
+        history.read(fromRound, cursor);
+        List<Long> rounds = new ArrayList<>();
+        while (cursor.next()) {
+            rounds.add(cursor.getRoundNumber());
+        }
+        return rounds;
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.rps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class RoundJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundsShouldBeReplayedAfterRestart() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (RoundJournal journal = RoundJournal.builder(directory).fsyncPolicy(FsyncPolicy.BATCH, 0).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            for (int i = 0; i < 3; i++) {
+                game.doRound();
+            }
+        }
+
+        List<String> rounds = new ArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            long replayed = journal.replay(round -> rounds.add(round.getGame() + ":" +
+                round.getRoundNumber() + ":" + round.getPlayerId(0) + ":" + round.getWeaponName(0) + ":" +
+                round.getPlayerId(1) + ":" + round.getWeaponName(1) + ":" + round.getOutcome()));
+
+            assertThat(replayed).isEqualTo(3);
+        }
+        assertThat(rounds).containsExactly(
+            "game:1:john:paper:edward:rock:1",
+            "game:2:john:paper:edward:rock:1",
+            "game:3:john:paper:edward:rock:1");
+    }
+
+    @Test
+    public void gameShouldBeRestoredFromJournal() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            game.doRound();
+            game.doRound();
+        }
+
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            Game game = newGame("game", journal);
+            journal.replay(game::restore);
+            assertThat(game.getScores()).isEmpty();
+            assertThat(game.getHistory().getLatestRound()).isEqualTo(2);
+
+            // Players come back in different order
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+
+            assertThat(game.getScores()).extracting(PlayerScore::getPlayerId).containsExactly("john", "edward");
+            RoundResult result = game.doRound();
+            assertThat(result.getRoundNumber()).isEqualTo(3);
+            assertThat(result.resultFor("john").getTotalWins()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void roundsShouldBeReadWithRulesOfTheirGames() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        List<Long> positions = new CopyOnWriteArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).segmentSize(8 * 1024)
+            .listener((position, round) -> positions.add(position)).build()) {
+            Game classic = newGame("classic", journal);
+            classic.join(FakePlayer.using("john", Weapon.PAPER));
+            classic.join(FakePlayer.using("edward", Weapon.ROCK));
+            Game extended = new Game("extended", GameRules.LIZARD_SPOCK_EXTENSION);
+            extended.setJournal(journal);
+            extended.join(FakePlayer.using("john", Weapon.SPOCK));
+            extended.join(FakePlayer.using("edward", Weapon.LIZARD));
+            for (int i = 0; i < 200; i++) {
+                classic.doRound();
+                extended.doRound();
+            }
+        }
+
+        assertThat(segments(directory).size()).isGreaterThan(1);
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            Game extended = new Game("extended", GameRules.LIZARD_SPOCK_EXTENSION);
+            List<String> weapons = new ArrayList<>();
+            journal.replay(round -> {
+                weapons.add(round.getWeaponName(0) + ":" + round.getWeaponName(1));
+                if (round.getGame().equals("extended")) {
+                    assertThat(round.getRules()).isSameAs(GameRules.LIZARD_SPOCK_EXTENSION);
+                    extended.restore(round);
+                } else {
+                    assertThat(round.getRules()).isSameAs(GameRules.CLASSIC);
+                }
+            });
+            assertThat(weapons).hasSize(400).containsOnly("paper:rock", "spock:lizard");
+
+            extended.join(FakePlayer.using("john", Weapon.SPOCK));
+            extended.join(FakePlayer.using("edward", Weapon.LIZARD));
+            assertThat(extended.getScores().get(1).getWeaponCounts()[GameRules.LIZARD_SPOCK_EXTENSION.ordinalOf(Weapon.LIZARD)]).isEqualTo(200);
+
+            RoundEvent event = new RoundEvent();
+            assertThat(journal.read(positions.get(positions.size() - 1), event)).isTrue();
+            assertThat(event.getWeaponName(1)).isEqualTo("lizard");
+        }
+    }
+
+    @Test
+    public void roundsShouldBeSplitIntoSegments() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (RoundJournal journal = RoundJournal.builder(directory).segmentSize(8 * 1024).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            for (int i = 0; i < 1000; i++) {
+                game.doRound();
+            }
+        }
+
+        assertThat(segments(directory).size()).isGreaterThan(1);
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            assertThat(journal.replay(round -> {
+            })).isEqualTo(1000);
+        }
+    }
+
+    @Test
+    public void roundsShouldNotBeDroppedWhenGamesOutpaceWriter() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (RoundJournal journal = RoundJournal.builder(directory).capacity(2).fsyncPolicy(FsyncPolicy.BATCH, 0).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            for (int i = 0; i < 500; i++) {
+                game.doRound();
+            }
+        }
+
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            assertThat(journal.replay(round -> {
+            })).isEqualTo(500);
+        }
+    }
+
+    @Test
+    public void replayShouldStopAtCorruptedRecord() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            game.doRound();
+            game.doRound();
+        }
+        Path segment = segments(directory).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Rules record comes first, both round records have the same size, flip move of john in the second one
+            int rulesRecordSize = 8 + file.readInt();
+            file.seek(rulesRecordSize);
+            int roundRecordSize = 8 + file.readInt();
+            file.seek(rulesRecordSize + roundRecordSize + 8 + 1 + 2 + 8);
+            file.write(2);
+        }
+
+        List<Long> rounds = new ArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            journal.replay(round -> rounds.add(round.getRoundNumber()));
+        }
+        assertThat(rounds).containsExactly(1L);
+    }
+
+    @Test
+    public void replayShouldStartFromSpecifiedSegment() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        for (int run = 0; run < 3; run++) {
+            try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+                assertThat(journal.getCurrentSegment()).isEqualTo(run + 1);
+                Game game = newGame("game" + run, journal);
+                game.join(FakePlayer.using("john", Weapon.PAPER));
+                game.join(FakePlayer.using("edward", Weapon.ROCK));
+                game.doRound();
+            }
+        }
+
+        List<String> games = new ArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            journal.replay(2, round -> games.add(round.getGame()));
+            assertThat(journal.deleteSegmentsBefore(3)).isEqualTo(2);
+        }
+        assertThat(games).containsExactly("game1", "game2");
+        assertThat(segments(directory)).extracting(path -> path.getFileName().toString())
+            .containsExactly("rounds-0000000000000003.journal");
+    }
+
+    @Test
+    public void segmentsWrittenRecentlyShouldBeRetained() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        for (int run = 0; run < 3; run++) {
+            try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+                Game game = newGame("game" + run, journal);
+                game.join(FakePlayer.using("john", Weapon.PAPER));
+                game.join(FakePlayer.using("edward", Weapon.ROCK));
+                game.doRound();
+            }
+        }
+        long now = System.currentTimeMillis();
+        Files.setLastModifiedTime(segments(directory).get(0), FileTime.fromMillis(now - TimeUnit.HOURS.toMillis(2)));
+
+        List<Long> deletedBefore = new ArrayList<>();
+        JournalListener listener = new JournalListener() {
+            @Override
+            public void onAppend(long position, RoundEvent round) {
+            }
+
+            @Override
+            public void onDelete(long position) {
+                deletedBefore.add(position);
+            }
+        };
+        List<String> games = new ArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).listener(listener).build()) {
+            assertThat(journal.deleteSegmentsBefore(3, now - TimeUnit.HOURS.toMillis(1))).isEqualTo(1);
+            journal.replay(round -> games.add(round.getGame()));
+        }
+        assertThat(games).containsExactly("game1", "game2");
+        assertThat(deletedBefore).containsExactly(RoundJournal.position(2, 0));
+    }
+
+    @Test
+    public void roundsShouldBeReadByPositions() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        List<Long> positions = new CopyOnWriteArrayList<>();
+        long start = System.currentTimeMillis();
+        try (RoundJournal journal = RoundJournal.builder(directory).listener((position, round) -> positions.add(position)).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+            game.doRound();
+            game.doRound();
+        }
+
+        List<Long> scanned = new ArrayList<>();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            journal.scan(0, (position, round) -> scanned.add(position));
+            assertThat(scanned).isEqualTo(positions).hasSize(2);
+
+            RoundEvent event = new RoundEvent();
+            assertThat(journal.read(positions.get(1), event)).isTrue();
+            assertThat(event.getRoundNumber()).isEqualTo(2);
+            assertThat(event.getWeaponName(0)).isEqualTo("paper");
+            assertThat(event.getTimestamp()).isBetween(start, System.currentTimeMillis());
+        }
+    }
+
+    private static Game newGame(String name, RoundJournal journal) {
+        Game game = new Game(name);
+        game.setJournal(journal);
+        return game;
+    }
+
+    private static List<Path> segments(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class ScoreboardTest {
+
+    private final Scoreboard scoreboard = new Scoreboard(2, 3);
+
+    @Test
+    public void shouldTrackWinsLossesDrawsAndWeapons() throws Exception {
+        scoreboard.join(0, "john");
+        scoreboard.join(1, "edward");
+
+        scoreboard.record(1, 0, "john", 0, 1, "edward", 1, 1);
+        scoreboard.record(1, 0, "john", 0, 1, "edward", 1, 1);
+        scoreboard.record(1, 0, "john", 2, 1, "edward", 2, 0);
+        scoreboard.record(1, 0, "john", -1, 1, "edward", 1, -1);
+
+        List<PlayerScore> scores = scoreboard.snapshot();
+        PlayerScore john = scores.get(0);
+        assertThat(john.getPlayerId()).isEqualTo("john");
+        assertThat(john.getWins()).isEqualTo(2);
+        assertThat(john.getLosses()).isEqualTo(1);
+        assertThat(john.getDraws()).isEqualTo(1);
+        assertThat(john.getWeaponCounts()).containsExactly(2, 0, 1);
+        assertThat(john.getLongestStreak()).isEqualTo(2);
+        assertThat(john.getCurrentStreak()).isEqualTo(0);
+
+        PlayerScore edward = scores.get(1);
+        assertThat(edward.getWins()).isEqualTo(1);
+        assertThat(edward.getCurrentStreak()).isEqualTo(1);
+        assertThat(edward.getWeaponCounts()).containsExactly(0, 3, 1);
+    }
+
+    @Test
+    public void statisticsShouldBeDiscardedWhenPlayerLeaves() throws Exception {
+        scoreboard.join(0, "john");
+        scoreboard.join(1, "edward");
+        scoreboard.record(1, 0, "john", 0, 1, "edward", 1, 1);
+
+        scoreboard.leave(0);
+        assertThat(scoreboard.snapshot()).extracting(PlayerScore::getPlayerId).containsExactly("edward");
+
+        scoreboard.join(0, "john");
+        assertThat(scoreboard.snapshot().get(0).getWins()).isZero();
+    }
+
+    @Test
+    public void roundShouldBeIgnoredWhenPlayerLeftInTheMeantime() throws Exception {
+        scoreboard.join(0, "john");
+        scoreboard.join(1, "edward");
+        scoreboard.leave(1);
+        scoreboard.join(1, "bob");
+
+        scoreboard.record(1, 0, "john", 0, 1, "edward", 1, 1);
+
+        assertThat(scoreboard.snapshot()).allMatch(score -> score.getWins() + score.getLosses() == 0);
+    }
+
+    @Test
+    public void snapshotShouldBeConsistentWhileRoundsAreRecorded() throws Exception {
+        scoreboard.join(0, "john");
+        scoreboard.join(1, "edward");
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(1);
+        Thread writer = new Thread(() -> {
+            started.countDown();
+            while (running.get()) {
+                scoreboard.record(1, 0, "john", 0, 1, "edward", 1, 1);
+            }
+        });
+        writer.start();
+        started.await();
+
+        for (int i = 0; i < 10_000; i++) {
+            List<PlayerScore> scores = scoreboard.snapshot();
+            assertThat(scores.get(0).getWins()).isEqualTo(scores.get(1).getLosses());
+            assertThat(scores.get(0).getWeaponCounts()[0]).isEqualTo(scores.get(0).getWins());
+        }
+        running.set(false);
+        writer.join();
+    }
+}
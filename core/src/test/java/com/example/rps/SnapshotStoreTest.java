@@ -0,0 +1,186 @@
+package com.example.rps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class SnapshotStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void gameShouldBeRestoredFromSnapshotAndJournalTail() throws Exception {
+        Path journalDirectory = folder.newFolder("journal").toPath();
+        SnapshotStore store = new SnapshotStore(folder.newFolder("snapshots").toPath(), 2);
+        try (RoundJournal journal = RoundJournal.builder(journalDirectory).build()) {
+            Game game = newGame("game", journal);
+            game.join(FakePlayer.inTurn("john", Weapon.PAPER, Weapon.PAPER, Weapon.PAPER));
+            game.join(FakePlayer.inTurn("edward", Weapon.ROCK, Weapon.ROCK, Weapon.SCISSORS));
+            game.doRound();
+            game.doRound();
+            store.write(journal.getCurrentSegment(), Collections.singletonList(game.snapshot()));
+            game.doRound();
+        }
+
+        try (RoundJournal journal = RoundJournal.builder(journalDirectory).build()) {
+            SnapshotStore.Snapshot snapshot = store.readLatest();
+            assertThat(snapshot.getGames()).hasSize(1);
+            GameSnapshot gameSnapshot = snapshot.getGames().get(0);
+            assertThat(gameSnapshot.getRoundNumber()).isEqualTo(2);
+            assertThat(gameSnapshot.getRules()).isSameAs(GameRules.CLASSIC);
+
+            Game game = newGame("game", journal);
+            game.restore(gameSnapshot);
+            // Tail segment contains rounds already in snapshot too
+            journal.replay(snapshot.getJournalSegment(), game::restore);
+            game.join(FakePlayer.using("john", Weapon.PAPER));
+            game.join(FakePlayer.using("edward", Weapon.ROCK));
+
+            assertThat(game.getScores()).extracting(PlayerScore::getWins).containsExactly(2L, 1L);
+            assertThat(game.getScores().get(0).getWeaponCounts()[GameRules.CLASSIC.ordinalOf(Weapon.PAPER)]).isEqualTo(3);
+            assertThat(game.doRound().getRoundNumber()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void brokenSnapshotShouldBeSkipped() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SnapshotStore store = new SnapshotStore(directory, 2);
+        Game game = new Game("game");
+        game.join(FakePlayer.using("john", Weapon.PAPER));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        store.write(1, Collections.singletonList(game.snapshot()));
+        game.doRound();
+        store.write(2, Collections.singletonList(game.snapshot()));
+
+        Path newest = snapshots(directory).get(1);
+        try (RandomAccessFile file = new RandomAccessFile(newest.toFile(), "rw")) {
+            file.seek(file.length() - 5);
+            file.write(file.read() + 1);
+        }
+
+        SnapshotStore.Snapshot snapshot = new SnapshotStore(directory, 2).readLatest();
+        assertThat(snapshot.getJournalSegment()).isEqualTo(1);
+        assertThat(snapshot.getGames().get(0).getRoundNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void snapshotWithCorruptedBodyShouldBeSkipped() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SnapshotStore store = new SnapshotStore(directory, 3);
+        Game game = new Game("game");
+        game.join(FakePlayer.using("john", Weapon.PAPER));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        store.write(1, Collections.singletonList(game.snapshot()));
+        game.doRound();
+        store.write(2, Collections.singletonList(game.snapshot()));
+        game.doRound();
+        store.write(3, Collections.singletonList(game.snapshot()));
+
+        List<Path> snapshots = snapshots(directory);
+        // Body of the newest one is overwritten by garbage, the other one gets garbage with matching CRC
+        byte[] newest = Files.readAllBytes(snapshots.get(2));
+        Arrays.fill(newest, 20, newest.length - 4, (byte) 0xFF);
+        Files.write(snapshots.get(2), newest);
+        byte[] middle = Files.readAllBytes(snapshots.get(1));
+        Arrays.fill(middle, 20, middle.length - 4, (byte) 0xFF);
+        CRC32 crc = new CRC32();
+        crc.update(middle, 0, middle.length - 4);
+        ByteBuffer.wrap(middle).putInt(middle.length - 4, (int) crc.getValue());
+        Files.write(snapshots.get(1), middle);
+
+        SnapshotStore.Snapshot snapshot = new SnapshotStore(directory, 3).readLatest();
+        assertThat(snapshot.getJournalSegment()).isEqualTo(1);
+        assertThat(snapshot.getGames().get(0).getRoundNumber()).isEqualTo(1);
+    }
+
+    @Test
+    public void encodedGameShouldBeDecodedIntoTheSameSnapshot() throws Exception {
+        Game game = new Game("game", GameRules.LIZARD_SPOCK_EXTENSION);
+        game.join(FakePlayer.using("john", Weapon.SPOCK));
+        game.join(FakePlayer.using("edward", Weapon.ROCK));
+        game.doRound();
+        game.doRound();
+
+        GameSnapshot snapshot = SnapshotStore.decode(SnapshotStore.encode(game.snapshot()));
+
+        assertThat(snapshot.getName()).isEqualTo("game");
+        assertThat(snapshot.getRules()).isSameAs(GameRules.LIZARD_SPOCK_EXTENSION);
+        assertThat(snapshot.getRoundNumber()).isEqualTo(2);
+        assertThat(snapshot.getScore(0).getPlayerId()).isEqualTo("john");
+        assertThat(snapshot.getScore(0).getWins()).isEqualTo(2);
+        assertThat(snapshot.getScore(1).getLosses()).isEqualTo(2);
+    }
+
+    @Test
+    public void onlyNewestSnapshotsShouldBeRetained() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        SnapshotStore store = new SnapshotStore(directory, 2);
+
+        assertThat(store.readLatest()).isNull();
+        assertThat(store.write(3, Collections.emptyList())).isEqualTo(3);
+        assertThat(store.write(5, Collections.emptyList())).isEqualTo(3);
+        assertThat(store.write(8, Collections.emptyList())).isEqualTo(5);
+        assertThat(snapshots(directory)).hasSize(2);
+        assertThat(store.readLatest().getJournalSegment()).isEqualTo(8);
+    }
+
+    @Test
+    public void customRulesShouldSurviveSnapshot() throws Exception {
+        Weapon fire = new Weapon("fire");
+        Weapon water = new Weapon("water");
+        Weapon sponge = new Weapon("sponge");
+        GameRules rules = GameRules.builder()
+            .defeats(fire, sponge)
+            .defeats(water, fire)
+            .defeats(sponge, water)
+            .build();
+        Game game = new Game("game", rules);
+        game.join(FakePlayer.using("john", fire));
+        game.join(FakePlayer.using("edward", sponge));
+        game.doRound();
+        SnapshotStore store = new SnapshotStore(folder.getRoot().toPath(), 1);
+        store.write(0, Collections.singletonList(game.snapshot()));
+
+        GameSnapshot snapshot = store.readLatest().getGames().get(0);
+        GameRules restoredRules = snapshot.getRules();
+        assertThat(restoredRules.getAllWeapons()).containsOnly(fire, water, sponge);
+        assertThat(restoredRules.defeats(fire, sponge)).isTrue();
+        assertThat(restoredRules.defeats(sponge, fire)).isFalse();
+        PlayerScore john = snapshot.getScore(0);
+        assertThat(john.getWins()).isEqualTo(1);
+        assertThat(john.getWeaponCounts()[restoredRules.ordinalOf(fire)]).isEqualTo(1);
+        assertThat(john.getWeaponCounts()[restoredRules.ordinalOf(water)]).isEqualTo(0);
+    }
+
+    private static Game newGame(String name, RoundJournal journal) {
+        Game game = new Game(name);
+        game.setJournal(journal);
+        return game;
+    }
+
+    private static List<Path> snapshots(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
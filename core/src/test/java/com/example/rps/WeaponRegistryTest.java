@@ -0,0 +1,45 @@
+package com.example.rps;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class WeaponRegistryTest {
+
+    private final WeaponRegistry registry = GameRules.LIZARD_SPOCK_EXTENSION.getWeapons();
+
+    @Test
+    public void shouldResolveInternedWeaponsByName() throws Exception {
+        assertThat(registry.resolve("rock")).isSameAs(Weapon.ROCK);
+        assertThat(registry.resolve("Spock")).isSameAs(Weapon.SPOCK);
+        assertThat(registry.resolve("LIZARD")).isSameAs(Weapon.LIZARD);
+    }
+
+    @Test
+    public void shouldRejectUnknownMoves() throws Exception {
+        assertThat(registry.resolve("stone")).isNull();
+        assertThat(registry.resolve(null)).isNull();
+        assertThat(GameRules.CLASSIC.getWeapons().resolve("spock")).isNull();
+    }
+
+    @Test
+    public void ordinalsShouldBeStableAndResolvable() throws Exception {
+        assertThat(registry.size()).isEqualTo(5);
+        for (int i = 0; i < registry.size(); i++) {
+            assertThat(registry.ordinalOf(registry.byOrdinal(i))).isEqualTo(i);
+        }
+        assertThat(registry.getAll()).containsExactly(Weapon.PAPER, Weapon.ROCK, Weapon.SPOCK, Weapon.SCISSORS, Weapon.LIZARD);
+        assertThatThrownBy(() -> registry.byOrdinal(5))
+            .isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    public void weaponFromShouldReturnWellKnownInstances() throws Exception {
+        assertThat(Weapon.from("ROCK")).isSameAs(Weapon.ROCK);
+        assertThat(Weapon.from("torch")).isEqualTo(new Weapon("torch"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.rps;
+
+import java.util.Arrays;
+
+/**
+ * Growing list of journal positions of rounds which share single key of {@link RoundIndex}. Positions are
+ * appended in ascending order by single writer and read without locks: positions and their count are kept
+ * in block which is replaced when it grows or gets pruned, count of block only grows, so block read once
+ * always holds at least as many positions as its count says
+ *
+ * @author Beka Tsotsoria
+ */
+final class PostingList {
+
+    private volatile Block block = new Block(new long[8], 0);
+
+    void add(long position) {
+        Block block = this.block;
+        int size = block.size;
+        if (size == block.positions.length) {
+            block = new Block(Arrays.copyOf(block.positions, size * 2), size);
+            this.block = block;
+        }
+        block.positions[size] = position;
+        block.size = size + 1;
+    }
+
+    /**
+     * Removes positions lower than specified one, must not be called concurrently with {@link #add(long)}
+     *
+     * @return number of removed positions
+     */
+    int removeBefore(long position) {
+        Block block = this.block;
+        int size = block.size;
+        int from = Arrays.binarySearch(block.positions, 0, size, position);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        if (from > 0) {
+            long[] positions = new long[Math.max(8, Integer.highestOneBit(size - from) * 2)];
+            System.arraycopy(block.positions, from, positions, 0, size - from);
+            this.block = new Block(positions, size - from);
+        }
+        return from;
+    }
+
+    int size() {
+        return block.size;
+    }
+
+    /**
+     * Returns positions added so far, view doesn't change when new positions are added
+     */
+    View view() {
+        Block block = this.block;
+        int size = block.size;
+        return new View(block.positions, size);
+    }
+
+    private static final class Block {
+
+        private final long[] positions;
+        private volatile int size;
+
+        private Block(long[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+    }
+
+    static final class View {
+
+        private final long[] positions;
+        private final int size;
+
+        private View(long[] positions, int size) {
+            this.positions = positions;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long get(int i) {
+            return positions[i];
+        }
+
+        /**
+         * Returns number of positions lower than specified one
+         */
+        int sizeBefore(long position) {
+            int index = Arrays.binarySearch(positions, 0, size, position);
+            return index < 0 ? -index - 1 : index;
+        }
+
+        boolean contains(long position) {
+            return Arrays.binarySearch(positions, 0, size, position) >= 0;
+        }
+    }
+}
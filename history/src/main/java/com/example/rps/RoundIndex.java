@@ -0,0 +1,281 @@
+package com.example.rps;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Secondary indexes of rounds stored in {@link RoundJournal}: journal positions of rounds by player ID, by game
+ * and by time bucket. Index is built incrementally, it should be registered as {@link RoundJournal.Builder#listener
+ * listener} of journal and fed with rounds written before by {@link RoundJournal#scan scan} right after journal is
+ * opened. Index doesn't hold rounds themselves, they are {@link RoundQueryExecutor read} from journal when queried.
+ * Positions of rounds in deleted segments are removed, so index holds only rounds journal still has.
+ * <p>
+ * Index can be {@link #save(Path, long) saved} to file and {@link #load(Path) loaded} on the next start, so that only
+ * segments written after it was saved need to be scanned
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundIndex implements JournalListener {
+
+    private static final int MAGIC = 0x52505349;
+    private static final int VERSION = 1;
+
+    private final long bucketMillis;
+    private final ConcurrentMap<String, PostingList> players = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PostingList> games = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<Long, PostingList> buckets = new ConcurrentSkipListMap<>();
+    private volatile long rounds;
+
+    /**
+     * Creates index with buckets of one minute
+     */
+    public RoundIndex() {
+        this(TimeUnit.MINUTES.toMillis(1));
+    }
+
+    /**
+     * @param bucketMillis length of time bucket, queries for time ranges read rounds of whole buckets
+     */
+    public RoundIndex(long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("Bucket length must be positive");
+        }
+        this.bucketMillis = bucketMillis;
+    }
+
+    /**
+     * Adds round to indexes, positions of rounds must grow
+     */
+    @Override
+    public synchronized void onAppend(long position, RoundEvent round) {
+        add(games, round.getGame(), position);
+        add(players, round.getPlayerId(0), position);
+        if (!round.getPlayerId(0).equals(round.getPlayerId(1))) {
+            add(players, round.getPlayerId(1), position);
+        }
+        buckets.computeIfAbsent(bucketOf(round.getTimestamp()), b -> new PostingList()).add(position);
+        rounds++;
+    }
+
+    private static void add(ConcurrentMap<String, PostingList> index, String key, long position) {
+        index.computeIfAbsent(key, k -> new PostingList()).add(position);
+    }
+
+    /**
+     * Removes positions of rounds in deleted journal segments, keys which have no rounds left are removed too
+     */
+    @Override
+    public synchronized void onDelete(long position) {
+        rounds -= removeBefore(games, position);
+        removeBefore(players, position);
+        removeBefore(buckets, position);
+    }
+
+    private static <K> long removeBefore(Map<K, PostingList> index, long position) {
+        long removed = 0;
+        for (Iterator<PostingList> lists = index.values().iterator(); lists.hasNext(); ) {
+            PostingList list = lists.next();
+            removed += list.removeBefore(position);
+            if (list.size() == 0) {
+                lists.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Writes positions lower than specified one to temporary file which is atomically renamed once it is synced,
+     * file ends with CRC32 of its content. Positions are captured under the same lock rounds are added with, but
+     * written without it, so journal doesn't wait for disk
+     *
+     * @param before position below which every round journal has was already added, e.g. start of current segment
+     */
+    public void save(Path file, long before) throws IOException {
+        Map<String, PostingList.View> games;
+        Map<String, PostingList.View> players;
+        Map<Long, PostingList.View> buckets;
+        synchronized (this) {
+            games = views(this.games, before);
+            players = views(this.players, before);
+            buckets = views(this.buckets, before);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(stream), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(bucketMillis);
+            out.writeLong(before);
+            writeLists(out, games, before);
+            writeLists(out, players, before);
+            out.writeInt(buckets.size());
+            for (Map.Entry<Long, PostingList.View> bucket : buckets.entrySet()) {
+                out.writeLong(bucket.getKey());
+                writePositions(out, bucket.getValue(), before);
+            }
+            out.writeInt((int) checked.getChecksum().getValue());
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static <K> Map<K, PostingList.View> views(Map<K, PostingList> index, long before) {
+        Map<K, PostingList.View> views = new HashMap<>();
+        index.forEach((key, list) -> {
+            PostingList.View view = list.view();
+            if (view.sizeBefore(before) > 0) {
+                views.put(key, view);
+            }
+        });
+        return views;
+    }
+
+    private static void writeLists(DataOutputStream out, Map<String, PostingList.View> lists, long before) throws IOException {
+        out.writeInt(lists.size());
+        for (Map.Entry<String, PostingList.View> list : lists.entrySet()) {
+            out.writeUTF(list.getKey());
+            writePositions(out, list.getValue(), before);
+        }
+    }
+
+    private static void writePositions(DataOutputStream out, PostingList.View view, long before) throws IOException {
+        int size = view.sizeBefore(before);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(view.get(i));
+        }
+    }
+
+    /**
+     * Adds positions {@link #save(Path, long) saved} by previous run to empty index. Index saved with different
+     * bucket length is not loaded, so that rounds get indexed by {@link RoundJournal#scan scan} again
+     *
+     * @return position below which all rounds were loaded, 0 if file doesn't exist or wasn't loaded
+     * @throws IOException if file can't be read or is broken, index stays empty then
+     */
+    public synchronized long load(Path file) throws IOException {
+        if (rounds != 0) {
+            throw new IllegalStateException("Index already has rounds");
+        }
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+        if (bytes.length < 4) {
+            throw new IOException("Index is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if (ByteBuffer.wrap(bytes).getInt(bytes.length - 4) != (int) crc.getValue()) {
+            throw new IOException("CRC check failed");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not an index of supported version");
+        }
+        if (in.readLong() != bucketMillis) {
+            return 0;
+        }
+        long before = in.readLong();
+        Map<String, PostingList> games = readLists(in);
+        Map<String, PostingList> players = readLists(in);
+        Map<Long, PostingList> buckets = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            buckets.put(in.readLong(), readPositions(in));
+        }
+        if (in.available() != 0) {
+            throw new IOException("Unexpected content after index");
+        }
+        this.games.putAll(games);
+        this.players.putAll(players);
+        this.buckets.putAll(buckets);
+        rounds = games.values().stream().mapToLong(PostingList::size).sum();
+        return before;
+    }
+
+    private static Map<String, PostingList> readLists(DataInputStream in) throws IOException {
+        Map<String, PostingList> lists = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            lists.put(in.readUTF(), readPositions(in));
+        }
+        return lists;
+    }
+
+    private static PostingList readPositions(DataInputStream in) throws IOException {
+        PostingList list = new PostingList();
+        for (int i = in.readInt(); i > 0; i--) {
+            list.add(in.readLong());
+        }
+        return list;
+    }
+
+    /**
+     * Returns number of indexed rounds
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    public Set<String> getGames() {
+        return Collections.unmodifiableSet(games.keySet());
+    }
+
+    public Set<String> getPlayers() {
+        return Collections.unmodifiableSet(players.keySet());
+    }
+
+    public long getBucketMillis() {
+        return bucketMillis;
+    }
+
+    PostingList ofPlayer(String playerId) {
+        return players.get(playerId);
+    }
+
+    PostingList ofGame(String game) {
+        return games.get(game);
+    }
+
+    /**
+     * Returns buckets which may contain rounds completed in specified time range
+     *
+     * @param from inclusive start of range in milliseconds since epoch
+     * @param to   exclusive end of range in milliseconds since epoch
+     */
+    NavigableMap<Long, PostingList> bucketsBetween(long from, long to) {
+        if (from >= to) {
+            return Collections.emptyNavigableMap();
+        }
+        return buckets.subMap(bucketOf(from), true, bucketOf(to - 1), true);
+    }
+
+    private long bucketOf(long timestamp) {
+        return Math.floorDiv(timestamp, bucketMillis);
+    }
+}
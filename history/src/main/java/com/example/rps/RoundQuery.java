@@ -0,0 +1,140 @@
+package com.example.rps;
+
+/**
+ * Criteria of rounds {@link RoundQueryExecutor executed} against {@link RoundIndex}, all specified criteria
+ * must match
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundQuery {
+
+    private final String playerId;
+    private final String game;
+    private final long from;
+    private final long to;
+    private final long limit;
+
+    private RoundQuery(Builder b) {
+        this.playerId = b.playerId;
+        this.game = b.game;
+        this.from = b.from;
+        this.to = b.to;
+        this.limit = b.limit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns ID of player who must have played round or null if any player matches
+     */
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Returns name of game round must be played in or null if any game matches
+     */
+    public String getGame() {
+        return game;
+    }
+
+    /**
+     * Returns inclusive start of time range in milliseconds since epoch
+     */
+    public long getFrom() {
+        return from;
+    }
+
+    /**
+     * Returns exclusive end of time range in milliseconds since epoch
+     */
+    public long getTo() {
+        return to;
+    }
+
+    public boolean isTimeBounded() {
+        return from != Long.MIN_VALUE || to != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns maximum number of rounds to return
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    boolean matches(RoundEvent round) {
+        return (playerId == null || playerId.equals(round.getPlayerId(0)) || playerId.equals(round.getPlayerId(1))) &&
+            (game == null || game.equals(round.getGame())) &&
+            round.getTimestamp() >= from && round.getTimestamp() < to;
+    }
+
+    @Override
+    public String toString() {
+        return "RoundQuery{" +
+            "playerId='" + playerId + '\'' +
+            ", game='" + game + '\'' +
+            ", from=" + from +
+            ", to=" + to +
+            ", limit=" + limit +
+            '}';
+    }
+
+    public static class Builder {
+
+        private String playerId;
+        private String game;
+        private long from = Long.MIN_VALUE;
+        private long to = Long.MAX_VALUE;
+        private long limit = Long.MAX_VALUE;
+
+        private Builder() {
+        }
+
+        public Builder player(String playerId) {
+            this.playerId = playerId;
+            return this;
+        }
+
+        public Builder game(String game) {
+            this.game = game;
+            return this;
+        }
+
+        /**
+         * Inclusive start of time range in milliseconds since epoch
+         */
+        public Builder from(long from) {
+            this.from = from;
+            return this;
+        }
+
+        /**
+         * Exclusive end of time range in milliseconds since epoch
+         */
+        public Builder to(long to) {
+            this.to = to;
+            return this;
+        }
+
+        public Builder limit(long limit) {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("Limit must be positive");
+            }
+            this.limit = limit;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if time range is empty
+         */
+        public RoundQuery build() {
+            if (from >= to) {
+                throw new IllegalArgumentException("Start of time range must be before its end");
+            }
+            return new RoundQuery(this);
+        }
+    }
+}
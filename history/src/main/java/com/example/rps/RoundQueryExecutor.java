@@ -0,0 +1,139 @@
+package com.example.rps;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Executes {@link RoundQuery queries} using {@link RoundIndex} and reads matching rounds from {@link RoundJournal}
+ * one by one, so results are never held in memory. Query is driven by the smallest of lists of matching positions,
+ * positions of another list are looked up with binary search before round is read. Rounds written to segments
+ * which were deleted since they were indexed are skipped. Thread safe
+ *
+ * @author Beka Tsotsoria
+ */
+public class RoundQueryExecutor {
+
+    private final RoundJournal journal;
+    private final RoundIndex index;
+
+    public RoundQueryExecutor(RoundJournal journal, RoundIndex index) {
+        this.journal = journal;
+        this.index = index;
+    }
+
+    /**
+     * Passes matching rounds to consumer in order they were written within single time bucket. Event passed to
+     * consumer gets reused for the next round
+     *
+     * @return number of matching rounds
+     */
+    public long execute(RoundQuery query, Consumer<RoundEvent> consumer) {
+        PostingList.View players = null;
+        if (query.getPlayerId() != null) {
+            PostingList list = index.ofPlayer(query.getPlayerId());
+            if (list == null) {
+                return 0;
+            }
+            players = list.view();
+        }
+        PostingList.View games = null;
+        if (query.getGame() != null) {
+            PostingList list = index.ofGame(query.getGame());
+            if (list == null) {
+                return 0;
+            }
+            games = list.view();
+        }
+        PostingList.View driving = players;
+        PostingList.View other = games;
+        if (driving == null || other != null && other.size() < driving.size()) {
+            driving = games;
+            other = players;
+        }
+
+        Execution execution = new Execution(query, consumer);
+        NavigableMap<Long, PostingList> buckets = null;
+        if (driving == null || query.isTimeBounded()) {
+            buckets = index.bucketsBetween(query.getFrom(), query.getTo());
+            if (driving != null && sizeOf(buckets, driving.size()) >= driving.size()) {
+                buckets = null;
+            }
+        }
+        if (buckets != null) {
+            for (PostingList bucket : buckets.values()) {
+                if (!execution.visit(bucket.view(), driving, other)) {
+                    break;
+                }
+            }
+        } else {
+            execution.visit(driving, other, null);
+        }
+        return execution.matched;
+    }
+
+    /**
+     * Returns number of times each weapon was used in matching rounds, only weapons of the queried player
+     * are counted if query has player
+     */
+    public Map<String, Long> weaponDistribution(RoundQuery query) {
+        Map<String, Long> distribution = new TreeMap<>();
+        execute(query, round -> {
+            for (int player = 0; player < 2; player++) {
+                String weapon = round.getWeaponName(player);
+                if (weapon != null && (query.getPlayerId() == null || query.getPlayerId().equals(round.getPlayerId(player)))) {
+                    distribution.merge(weapon, 1L, Long::sum);
+                }
+            }
+        });
+        return distribution;
+    }
+
+    /**
+     * Sums sizes of buckets, stops once sum reaches specified maximum
+     */
+    private static long sizeOf(NavigableMap<Long, PostingList> buckets, long max) {
+        long size = 0;
+        for (PostingList bucket : buckets.values()) {
+            size += bucket.size();
+            if (size >= max) {
+                break;
+            }
+        }
+        return size;
+    }
+
+    private class Execution {
+
+        private final RoundQuery query;
+        private final Consumer<RoundEvent> consumer;
+        private final RoundEvent event = new RoundEvent();
+        private long matched;
+
+        Execution(RoundQuery query, Consumer<RoundEvent> consumer) {
+            this.query = query;
+            this.consumer = consumer;
+        }
+
+        /**
+         * @return false once limit is reached
+         */
+        boolean visit(PostingList.View positions, PostingList.View filter, PostingList.View anotherFilter) {
+            for (int i = 0; i < positions.size(); i++) {
+                long position = positions.get(i);
+                if (filter != null && !filter.contains(position) || anotherFilter != null && !anotherFilter.contains(position)) {
+                    continue;
+                }
+                if (!journal.read(position, event) || !query.matches(event)) {
+                    continue;
+                }
+                consumer.accept(event);
+                if (++matched >= query.getLimit()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.rps;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class RoundIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final RoundIndex index = new RoundIndex(1000);
+    private final RoundEvent event = new RoundEvent();
+
+    @Test
+    public void roundsShouldBeIndexedByPlayersAndGame() {
+        append(1, 500, "game1", "john", "edward");
+        append(2, 700, "game2", "john", "bot");
+        append(3, 900, "game2", "bot", "bot");
+
+        assertThat(positions(index.ofPlayer("john").view())).containsExactly(1L, 2L);
+        assertThat(positions(index.ofPlayer("bot").view())).containsExactly(2L, 3L);
+        assertThat(positions(index.ofGame("game2").view())).containsExactly(2L, 3L);
+        assertThat(index.ofPlayer("nobody")).isNull();
+        assertThat(index.getGames()).containsOnly("game1", "game2");
+        assertThat(index.getRounds()).isEqualTo(3);
+    }
+
+    @Test
+    public void roundsShouldBeIndexedByTimeBuckets() {
+        append(1, 500, "game", "john", "edward");
+        append(2, 1500, "game", "john", "edward");
+        append(3, 1999, "game", "john", "edward");
+        append(4, 3200, "game", "john", "edward");
+
+        assertThat(index.bucketsBetween(1000, 2000).keySet()).containsExactly(1L);
+        assertThat(index.bucketsBetween(999, 3001).keySet()).containsExactly(0L, 1L, 3L);
+        assertThat(index.bucketsBetween(2000, 3000)).isEmpty();
+        assertThat(index.bucketsBetween(3000, 3000)).isEmpty();
+        assertThat(positions(index.bucketsBetween(1000, 2000).get(1L).view())).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void viewShouldNotChangeWhenPositionsAreAdded() {
+        PostingList list = new PostingList();
+        for (int i = 0; i < 8; i++) {
+            list.add(i);
+        }
+        PostingList.View view = list.view();
+        list.add(8);
+
+        assertThat(view.size()).isEqualTo(8);
+        assertThat(view.contains(7)).isTrue();
+        assertThat(view.contains(8)).isFalse();
+        assertThat(list.view().contains(8)).isTrue();
+    }
+
+    @Test
+    public void positionsOfDeletedSegmentsShouldBeRemoved() {
+        for (int i = 1; i <= 20; i++) {
+            append(i, i * 100, i <= 10 ? "game1" : "game2", "john", i <= 10 ? "edward" : "bot");
+        }
+        PostingList.View before = index.ofPlayer("john").view();
+
+        index.onDelete(11);
+
+        assertThat(index.getRounds()).isEqualTo(10);
+        assertThat(index.getGames()).containsOnly("game2");
+        assertThat(index.getPlayers()).containsOnly("john", "bot");
+        assertThat(positions(index.ofPlayer("john").view())).hasSize(10).startsWith(11L);
+        assertThat(index.bucketsBetween(0, 3000).keySet()).containsExactly(1L, 2L);
+        assertThat(before.size()).isEqualTo(20);
+        assertThat(before.get(0)).isEqualTo(1L);
+        index.ofPlayer("john").add(21);
+        assertThat(positions(index.ofPlayer("john").view())).hasSize(11).endsWith(21L);
+    }
+
+    @Test
+    public void savedIndexShouldBeLoadedWithRoundsBeforeSavedPosition() throws Exception {
+        append(1, 500, "game1", "john", "edward");
+        append(2, 1500, "game2", "john", "bot");
+        append(3, 2500, "game3", "alice", "bot");
+        Path file = folder.getRoot().toPath().resolve("rounds.index");
+        index.save(file, 3);
+
+        RoundIndex loaded = new RoundIndex(1000);
+
+        assertThat(loaded.load(file)).isEqualTo(3);
+        assertThat(loaded.getRounds()).isEqualTo(2);
+        assertThat(loaded.getGames()).containsOnly("game1", "game2");
+        assertThat(loaded.getPlayers()).containsOnly("john", "edward", "bot");
+        assertThat(positions(loaded.ofPlayer("john").view())).containsExactly(1L, 2L);
+        assertThat(loaded.bucketsBetween(0, 3000).keySet()).containsExactly(0L, 1L);
+        event.set(2500, "game3", 3, GameRules.CLASSIC, "alice", 0, "bot", 1, 1);
+        loaded.onAppend(3, event);
+        assertThat(positions(loaded.ofPlayer("bot").view())).containsExactly(2L, 3L);
+    }
+
+    @Test
+    public void missingIndexOrIndexWithOtherBucketsShouldNotBeLoaded() throws Exception {
+        append(1, 500, "game", "john", "edward");
+        Path file = folder.getRoot().toPath().resolve("rounds.index");
+        RoundIndex otherBuckets = new RoundIndex(2000);
+
+        assertThat(otherBuckets.load(file)).isEqualTo(0);
+        index.save(file, 2);
+        assertThat(otherBuckets.load(file)).isEqualTo(0);
+        assertThat(otherBuckets.getRounds()).isEqualTo(0);
+        assertThat(otherBuckets.getGames()).isEmpty();
+    }
+
+    @Test
+    public void brokenIndexShouldNotBeLoaded() throws Exception {
+        append(1, 500, "game", "john", "edward");
+        Path file = folder.getRoot().toPath().resolve("rounds.index");
+        index.save(file, 2);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+
+        RoundIndex loaded = new RoundIndex(1000);
+
+        assertThatThrownBy(() -> loaded.load(file)).isInstanceOf(IOException.class);
+        assertThat(loaded.getRounds()).isEqualTo(0);
+        assertThat(loaded.getGames()).isEmpty();
+    }
+
+    private void append(long position, long timestamp, String game, String playerId1, String playerId2) {
+        event.set(timestamp, game, position, GameRules.CLASSIC, playerId1, 0, playerId2, 1, 1);
+        index.onAppend(position, event);
+    }
+
+    private static List<Long> positions(PostingList.View view) {
+        List<Long> positions = new ArrayList<>();
+        for (int i = 0; i < view.size(); i++) {
+            positions.add(view.get(i));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class RoundQueryExecutorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private RoundJournal journal;
+    private RoundIndex index;
+    private RoundQueryExecutor executor;
+    private long start;
+
+    @Before
+    public void setUp() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        start = System.currentTimeMillis();
+        try (RoundJournal journal = RoundJournal.builder(directory).build()) {
+            play(journal, "game1", FakePlayer.using("john", Weapon.PAPER), FakePlayer.using("edward", Weapon.ROCK), 3);
+            play(journal, "game2", FakePlayer.using("john", Weapon.SCISSORS), FakePlayer.using("bot", Weapon.PAPER), 2);
+            play(journal, "game3", FakePlayer.using("bot", Weapon.ROCK), FakePlayer.using("edward", Weapon.ROCK), 4);
+        }
+
+        index = new RoundIndex();
+        journal = RoundJournal.builder(directory).listener(index).build();
+        journal.scan(0, index);
+        executor = new RoundQueryExecutor(journal, index);
+    }
+
+    @After
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    public void roundsOfPlayerShouldBeFoundAcrossGames() {
+        assertThat(rounds(RoundQuery.builder().player("john").build()))
+            .containsExactly("game1:1", "game1:2", "game1:3", "game2:1", "game2:2");
+        assertThat(rounds(RoundQuery.builder().player("john").game("game2").build()))
+            .containsExactly("game2:1", "game2:2");
+        assertThat(rounds(RoundQuery.builder().player("john").game("game3").build())).isEmpty();
+        assertThat(rounds(RoundQuery.builder().player("nobody").build())).isEmpty();
+    }
+
+    @Test
+    public void roundsShouldBeFilteredByTime() {
+        long now = System.currentTimeMillis();
+        assertThat(rounds(RoundQuery.builder().from(start).to(now + 1).build())).hasSize(9);
+        assertThat(rounds(RoundQuery.builder().game("game3").from(now - TimeUnit.HOURS.toMillis(1)).build())).hasSize(4);
+        assertThat(rounds(RoundQuery.builder().player("john").from(now + 1).build())).isEmpty();
+        assertThat(rounds(RoundQuery.builder().to(start).build())).isEmpty();
+    }
+
+    @Test
+    public void numberOfRoundsShouldBeLimited() {
+        assertThat(rounds(RoundQuery.builder().player("edward").limit(4).build()))
+            .containsExactly("game1:1", "game1:2", "game1:3", "game3:1");
+        assertThat(executor.execute(RoundQuery.builder().limit(100).build(), round -> {
+        })).isEqualTo(9);
+    }
+
+    @Test
+    public void weaponDistributionShouldBeCounted() {
+        assertThat(executor.weaponDistribution(RoundQuery.builder().game("game3").build()))
+            .containsOnly(entry("rock", 8L));
+        assertThat(executor.weaponDistribution(RoundQuery.builder().player("bot").build()))
+            .containsOnly(entry("paper", 2L), entry("rock", 4L));
+    }
+
+    @Test
+    public void newRoundsShouldBeIndexedAsTheyAreWritten() throws Exception {
+        play(journal, "game4", FakePlayer.using("john", Weapon.ROCK), FakePlayer.using("alice", Weapon.SCISSORS), 2);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (index.getRounds() < 11 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+
+        assertThat(rounds(RoundQuery.builder().player("alice").build())).containsExactly("game4:1", "game4:2");
+        assertThat(rounds(RoundQuery.builder().player("john").build())).hasSize(7);
+    }
+
+    @Test
+    public void roundsOfDeletedSegmentsShouldBeSkipped() throws Exception {
+        journal.deleteSegmentsBefore(journal.getCurrentSegment());
+
+        assertThat(rounds(RoundQuery.builder().player("john").build())).isEmpty();
+    }
+
+    private List<String> rounds(RoundQuery query) {
+        List<String> rounds = new ArrayList<>();
+        long matched = executor.execute(query, round -> rounds.add(round.getGame() + ":" + round.getRoundNumber()));
+        assertThat(matched).isEqualTo(rounds.size());
+        return rounds;
+    }
+
+    private static void play(RoundJournal journal, String name, Player player1, Player player2, int rounds) {
+        Game game = new Game(name);
+        game.setJournal(journal);
+        game.join(player1);
+        game.join(player2);
+        for (int i = 0; i < rounds; i++) {
+            game.doRound();
+        }
+    }
+}
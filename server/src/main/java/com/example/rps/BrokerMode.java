@@ -0,0 +1,24 @@
+package com.example.rps;
+
+/**
+ * Defines where <code>/topic</code> destinations are served
+ *
+ * @author Beka Tsotsoria
+ */
+public enum BrokerMode {
+
+    /**
+     * In-memory broker of this node, subscribers connected to other nodes don't receive messages
+     */
+    SIMPLE,
+
+    /**
+     * External STOMP broker shared by all nodes, for ex: ActiveMQ, Artemis or RabbitMQ
+     */
+    RELAY,
+
+    /**
+     * Same as {@link #RELAY} to the {@link EmbeddedBroker} started by this node, other nodes relay to it
+     */
+    EMBEDDED
+}
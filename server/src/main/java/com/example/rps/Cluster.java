@@ -0,0 +1,322 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of server nodes which partition games between each other by {@link ConsistentHashRing consistent hashing}
+ * of game names. Nodes are identified by their base URLs and find each other by heartbeats: every node
+ * periodically announces itself to all nodes it knows about, starting from configured ones, and learns members
+ * of the ring of every node it announces itself to, so that new node needs to know only one member. Node is
+ * removed from the ring after several missed heartbeats or when it leaves gracefully. Listeners are notified after every heartbeat, so that they can move games whose owner
+ * changed and retry moves which failed before
+ * <p>
+ * Nodes share secret which they send with every request to each other in {@link #SECRET_HEADER}, requests
+ * without it are rejected, see {@link #isMember(String)}. Requests made on behalf of players are
+ * {@link #forward(String, Runnable) forwarded} by separate threads, so that threads handling players never
+ * wait for other nodes
+ *
+ * @author Beka Tsotsoria
+ */
+public class Cluster implements ApplicationListener<ApplicationReadyEvent> {
+
+    public static final String SECRET_HEADER = "X-Rps-Cluster-Secret";
+
+    private final Logger log = LoggerFactory.getLogger(Cluster.class);
+
+    private final String self;
+    private final byte[] secret;
+    private final long heartbeatMillis;
+    private final int maxMissedHeartbeats;
+    private final RestTemplate rest;
+    /**
+     * Known nodes except this one, mapped to number of heartbeats they missed in a row. Nodes stay known after
+     * they are removed from the ring, so that they are not learned from other nodes as live again
+     */
+    private final Map<String, Integer> missedHeartbeats = new ConcurrentHashMap<>();
+    private final Set<String> liveNodes = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "rps-cluster");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService forwarder;
+    /**
+     * Last request forwarded with the key, mapped by the key
+     */
+    private final Map<String, CompletableFuture<Void>> forwarded = new ConcurrentHashMap<>();
+    private volatile ConsistentHashRing ring;
+    private volatile boolean leaving;
+
+    /**
+     * @param self                URL other nodes reach this node at
+     * @param secret              secret shared by all nodes
+     * @param nodes               URLs of other nodes to join, they are assumed to be alive until they miss heartbeats
+     * @param heartbeatMillis     interval between heartbeats
+     * @param maxMissedHeartbeats number of heartbeats node can miss in a row before it is removed from the ring
+     * @param timeoutMillis       connect and read timeout of requests to other nodes
+     * @param forwardThreads      number of threads which forward requests of players
+     */
+    public Cluster(String self, String secret, Collection<String> nodes, long heartbeatMillis, int maxMissedHeartbeats,
+                   int timeoutMillis, int forwardThreads) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Cluster secret must not be empty");
+        }
+        this.self = self;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxMissedHeartbeats = maxMissedHeartbeats;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMillis);
+        requestFactory.setReadTimeout(timeoutMillis);
+        this.rest = new RestTemplate(requestFactory);
+        this.rest.setInterceptors(Collections.singletonList(secretInterceptor(secret)));
+        AtomicInteger threads = new AtomicInteger();
+        this.forwarder = Executors.newFixedThreadPool(forwardThreads, r -> {
+            Thread thread = new Thread(r, "rps-cluster-forward-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (String node : nodes) {
+            if (!node.equals(self)) {
+                missedHeartbeats.put(node, 0);
+                liveNodes.add(node);
+            }
+        }
+        Set<String> members = new HashSet<>(liveNodes);
+        members.add(self);
+        this.ring = new ConsistentHashRing(members);
+    }
+
+    /**
+     * Starts heartbeats once this node is able to serve requests of other nodes
+     */
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        executor.scheduleWithFixedDelay(this::heartbeat, 0, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns interceptor which adds shared secret to requests sent to nodes of cluster
+     */
+    public static ClientHttpRequestInterceptor secretInterceptor(String secret) {
+        return (request, body, execution) -> {
+            request.getHeaders().set(SECRET_HEADER, secret);
+            return execution.execute(request, body);
+        };
+    }
+
+    /**
+     * Tests whether request which carried specified secret comes from node of this cluster
+     */
+    public boolean isMember(String secret) {
+        return secret != null && MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSelf() {
+        return self;
+    }
+
+    public Set<String> getNodes() {
+        return ring.getNodes();
+    }
+
+    public String ownerOf(String game) {
+        return ring.ownerOf(game);
+    }
+
+    public boolean owns(String game) {
+        return self.equals(ownerOf(game));
+    }
+
+    /**
+     * Returns specified name if it is owned by this node, otherwise the first name owned by this node
+     * among the name followed by suffixes -1, -2, ...
+     */
+    public String ownedName(String name) {
+        if (owns(name)) {
+            return name;
+        }
+        for (int suffix = 1; ; suffix++) {
+            String candidate = name + "-" + suffix;
+            if (owns(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * Adds listener which is notified on the cluster thread after every heartbeat and change of nodes
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Called when another node announces itself
+     */
+    public void joined(String node) {
+        if (node.equals(self)) {
+            return;
+        }
+        missedHeartbeats.put(node, 0);
+        if (liveNodes.add(node)) {
+            log.info("Node {} joined", node);
+            updateRing();
+        }
+    }
+
+    /**
+     * Called when another node leaves gracefully
+     */
+    public void left(String node) {
+        missedHeartbeats.remove(node);
+        if (liveNodes.remove(node)) {
+            log.info("Node {} left", node);
+            updateRing();
+        }
+    }
+
+    /**
+     * Removes this node from the ring and tells other nodes about it, games owned by this node must be
+     * moved to new owners afterwards
+     */
+    public void leave() {
+        leaving = true;
+        executor.shutdown();
+        updateRing();
+        for (String node : liveNodes) {
+            try {
+                rest.delete(node + "/cluster/nodes?node={node}", self);
+            } catch (RestClientException e) {
+                log.warn("Failed to tell node {} that node is leaving", node, e);
+            }
+        }
+    }
+
+    public void post(String node, String path, Object body, Object... uriVariables) {
+        rest.postForEntity(node + path, body, Void.class, uriVariables);
+    }
+
+    public <T> T get(String node, String path, Class<T> type, Object... uriVariables) {
+        return rest.getForObject(node + path, type, uriVariables);
+    }
+
+    public void delete(String node, String path, Object... uriVariables) {
+        rest.delete(node + path, uriVariables);
+    }
+
+    /**
+     * Sends request to another node on forwarding thread without waiting for it. Requests with the same key,
+     * e.g. name of the game, are sent one after another in order they were forwarded, requests with different
+     * keys are sent in parallel. Failures are logged
+     *
+     * @return future completed once request is sent, exceptionally if it failed
+     */
+    public CompletableFuture<Void> forward(String key, Runnable request) {
+        CompletableFuture<Void> next = new CompletableFuture<>();
+        CompletableFuture<Void> previous = forwarded.put(key, next);
+        Runnable send = () -> {
+            try {
+                request.run();
+                next.complete(null);
+            } catch (RuntimeException e) {
+                log.warn("Failed to forward request of " + key, e);
+                next.completeExceptionally(e);
+            } finally {
+                forwarded.remove(key, next);
+            }
+        };
+        if (previous == null) {
+            forwarder.execute(send);
+        } else {
+            previous.whenCompleteAsync((result, e) -> send.run(), forwarder);
+        }
+        return next;
+    }
+
+    public void close() throws InterruptedException {
+        executor.shutdownNow();
+        forwarder.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        forwarder.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void heartbeat() {
+        for (String node : missedHeartbeats.keySet()) {
+            try {
+                String[] members = rest.postForObject(node + "/cluster/nodes", self, String[].class);
+                missedHeartbeats.put(node, 0);
+                if (liveNodes.add(node)) {
+                    log.info("Node {} is reachable", node);
+                }
+                learn(node, members);
+            } catch (RestClientException e) {
+                int missed = missedHeartbeats.merge(node, 1, Integer::sum);
+                if (missed >= maxMissedHeartbeats && liveNodes.remove(node)) {
+                    log.warn("Node {} missed {} heartbeats, removing it", node, missed);
+                }
+            }
+        }
+        updateRing();
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                log.error("Cluster listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Adds members of the ring of another node which this node doesn't know yet, they are live from the point
+     * of view of that node, so they join the ring right away, otherwise rings of nodes would diverge until
+     * the next heartbeat
+     */
+    private void learn(String node, String[] members) {
+        if (members == null || leaving) {
+            return;
+        }
+        for (String member : members) {
+            if (!member.equals(self) && missedHeartbeats.putIfAbsent(member, 0) == null) {
+                liveNodes.add(member);
+                log.info("Learned node {} from node {}", member, node);
+            }
+        }
+    }
+
+    private synchronized void updateRing() {
+        Set<String> members = new HashSet<>(liveNodes);
+        if (!leaving) {
+            members.add(self);
+        }
+        if (!members.equals(ring.getNodes())) {
+            ring = ring.withNodes(members);
+            log.info("Cluster nodes changed to {}", ring.getNodes());
+        }
+    }
+}
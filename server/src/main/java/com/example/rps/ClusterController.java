@@ -0,0 +1,143 @@
+package com.example.rps;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Requests of other {@link Cluster cluster} nodes. Game requests are forwarded by nodes which received them
+ * from players but don't own the game, they are always handled by this node and never forwarded further.
+ * Requests which don't carry secret of the cluster in {@link Cluster#SECRET_HEADER} are rejected
+ *
+ * @author Beka Tsotsoria
+ */
+@RestController
+@RequestMapping("/cluster")
+@ConditionalOnProperty("rps.cluster.self")
+public class ClusterController {
+
+    @Autowired
+    private Cluster cluster;
+
+    @Autowired
+    private GameController gameController;
+
+    @ModelAttribute
+    public void authenticate(@RequestHeader(name = Cluster.SECRET_HEADER, required = false) String secret) {
+        if (!cluster.isMember(secret)) {
+            throw new NotMemberException();
+        }
+    }
+
+    @GetMapping("/nodes")
+    public Set<String> getNodes() {
+        return cluster.getNodes();
+    }
+
+    /**
+     * Heartbeat of another node, it learns nodes of this node's ring from the response
+     */
+    @PostMapping("/nodes")
+    public Set<String> join(@RequestBody String node) {
+        cluster.joined(node);
+        return cluster.getNodes();
+    }
+
+    @DeleteMapping("/nodes")
+    public void leave(@RequestParam String node) {
+        cluster.left(node);
+    }
+
+    @GetMapping("/games")
+    public Set<String> getGames() {
+        return gameController.getLocalGames();
+    }
+
+    @PostMapping("/games/{name}")
+    public void createGame(@PathVariable String name) {
+        gameController.createLocalGame(name);
+    }
+
+    @PostMapping("/games/{name}/players/{playerId}")
+    public void joinGame(@PathVariable String name, @PathVariable String playerId,
+                         @RequestParam(defaultValue = "false") boolean bot) {
+        gameController.joinLocalGame(name, playerId, bot);
+    }
+
+    @DeleteMapping("/games/{name}/players/{playerId}")
+    public void leaveGame(@PathVariable String name, @PathVariable String playerId) {
+        gameController.leaveLocalGame(name, playerId);
+    }
+
+    @PostMapping("/games/{name}/players/{playerId}/moves")
+    public void move(@PathVariable String name, @PathVariable String playerId, @RequestBody String move) {
+        gameController.moveInLocalGame(name, playerId, move);
+    }
+
+    @GetMapping("/games/{name}/moves")
+    public List<String> getAvailableMoves(@PathVariable String name) {
+        return gameController.getLocalAvailableMoves(name);
+    }
+
+    @GetMapping("/games/{name}/scores")
+    public List<PlayerScore> getScores(@PathVariable String name) {
+        return gameController.getLocalScores(name);
+    }
+
+    /**
+     * Takes over game {@link SnapshotStore#encode(GameSnapshot) encoded} by its previous owner
+     *
+     * @param players comma separated ids of players who make moves via messages
+     * @param bots    comma separated ids of bots
+     */
+    @PostMapping("/games/{name}/handoff")
+    public void takeOver(@PathVariable String name, @RequestBody byte[] snapshot,
+                         @RequestParam(defaultValue = "") String players,
+                         @RequestParam(defaultValue = "") String bots) throws IOException {
+        GameSnapshot gameSnapshot = SnapshotStore.decode(snapshot);
+        if (!gameSnapshot.getName().equals(name)) {
+            throw new IllegalArgumentException("Snapshot of game " + gameSnapshot.getName() + " sent as " + name);
+        }
+        gameController.takeOver(gameSnapshot, split(players), split(bots));
+    }
+
+    @ExceptionHandler(NotMemberException.class)
+    public ResponseEntity<String> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not a member of the cluster");
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> conflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler({IllegalArgumentException.class, IOException.class})
+    public ResponseEntity<String> badRequest(Exception e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private static List<String> split(String ids) {
+        return Arrays.asList(StringUtils.commaDelimitedListToStringArray(ids));
+    }
+
+    private static class NotMemberException extends RuntimeException {
+    }
+}
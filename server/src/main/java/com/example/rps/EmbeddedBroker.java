@@ -0,0 +1,82 @@
+package com.example.rps;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.security.Role;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManagerImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.util.Collections;
+
+/**
+ * In-process Artemis broker which accepts STOMP connections, so that other server nodes can relay their
+ * <code>/topic</code> destinations to it. Messages are not persisted: topics carry live game updates only.
+ * Since Artemis subscribes STOMP clients to queues by default, destinations starting with <code>/topic/</code>
+ * are declared multicast, so that every subscriber of the topic receives every message. Broker accepts only
+ * connections which log in with login and passcode nodes relay with, so that nobody else can publish game updates.
+ * Default credentials are accepted on loopback address only
+ *
+ * @author Beka Tsotsoria
+ */
+public class EmbeddedBroker {
+
+    private static final String ROLE = "rps-node";
+    private static final String DEFAULT_PASSCODE = "guest";
+
+    private final Logger log = LoggerFactory.getLogger(EmbeddedBroker.class);
+
+    private final String host;
+    private final int port;
+    private final String login;
+    private final String passcode;
+    private final EmbeddedActiveMQ server = new EmbeddedActiveMQ();
+
+    /**
+     * @param login    login of the only user of the broker
+     * @param passcode passcode of the only user of the broker
+     */
+    public EmbeddedBroker(String host, int port, String login, String passcode) {
+        this.host = host;
+        this.port = port;
+        this.login = login;
+        this.passcode = passcode;
+    }
+
+    /**
+     * @throws IllegalStateException if broker would accept default credentials on address other than loopback
+     */
+    public void start() throws Exception {
+        if (DEFAULT_PASSCODE.equals(passcode) && !InetAddress.getByName(host).isLoopbackAddress()) {
+            throw new IllegalStateException("Embedded broker at " + host + " must have passcode other than default one");
+        }
+        Configuration configuration = new ConfigurationImpl()
+            .setPersistenceEnabled(false)
+            .setSecurityEnabled(true)
+            .setJMXManagementEnabled(false)
+            .addAcceptorConfiguration("stomp", "tcp://" + host + ":" + port + "?protocols=STOMP;multicastPrefix=/topic/");
+        configuration.putSecurityRoles("#", Collections.singleton(
+            new Role(ROLE, true, true, true, true, true, true, false, true, true, true)));
+        ActiveMQSecurityManagerImpl securityManager = new ActiveMQSecurityManagerImpl();
+        securityManager.getConfiguration().addUser(login, passcode);
+        securityManager.getConfiguration().addRole(login, ROLE);
+        server.setConfiguration(configuration);
+        server.setSecurityManager(securityManager);
+        server.start();
+        log.info("Started embedded broker at {}:{}", host, port);
+    }
+
+    public void stop() throws Exception {
+        server.stop();
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+}
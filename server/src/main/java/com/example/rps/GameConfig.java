@@ -0,0 +1,169 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @author Beka Tsotsoria
+ */
+@Configuration
+public class GameConfig {
+
+    private final Logger log = LoggerFactory.getLogger(GameConfig.class);
+
+    /**
+     * Rounds don't block workers, so by default there are as many workers as cores
+     */
+    @Bean(destroyMethod = "shutdown")
+    public RoundScheduler roundScheduler(@Value("${rps.scheduler.threads:0}") int threads) {
+        return new PooledRoundScheduler(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Round events are written only when file is configured
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("rps.events.file")
+    public RoundEventLog roundEventLog(@Value("${rps.events.file}") String file,
+                                       @Value("${rps.events.capacity:65536}") int capacity) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+        return new RoundEventLog(capacity, new JsonRoundEventWriter(out));
+    }
+
+    /**
+     * Rounds are journaled only when directory is configured. Index saved by previous run is loaded on startup,
+     * only rounds written after it was saved are scanned
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("rps.journal.dir")
+    public RoundJournal roundJournal(@Value("${rps.journal.dir}") String directory,
+                                     @Value("${rps.journal.segment-size:67108864}") int segmentSize,
+                                     @Value("${rps.journal.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                                     @Value("${rps.journal.fsync-interval-millis:100}") long fsyncIntervalMillis,
+                                     RoundIndex roundIndex,
+                                     StartupMetrics startupMetrics) throws IOException {
+        RoundJournal journal = RoundJournal.builder(Paths.get(directory))
+            .segmentSize(segmentSize)
+            .fsyncPolicy(fsyncPolicy, fsyncIntervalMillis)
+            .listener(roundIndex)
+            .build();
+        long start = System.nanoTime();
+        long indexedBefore = 0;
+        try {
+            indexedBefore = roundIndex.load(roundIndexFile(directory));
+        } catch (IOException e) {
+            log.warn("Rebuilding round index which can't be loaded", e);
+        }
+        // Segments deleted after index was saved
+        roundIndex.onDelete(RoundJournal.position(journal.getFirstSegment(), 0));
+        journal.scan(indexedBefore >>> 32, roundIndex);
+        startupMetrics.indexed(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return journal;
+    }
+
+    static Path roundIndexFile(String journalDirectory) {
+        return Paths.get(journalDirectory, "rounds.index");
+    }
+
+    @Bean
+    @ConditionalOnProperty("rps.journal.dir")
+    public RoundIndex roundIndex(@Value("${rps.history.bucket-millis:60000}") long bucketMillis) {
+        return new RoundIndex(bucketMillis);
+    }
+
+    /**
+     * Games are snapshotted only when directory is configured
+     */
+    @Bean
+    @ConditionalOnProperty("rps.snapshot.dir")
+    public SnapshotStore snapshotStore(@Value("${rps.snapshot.dir}") String directory,
+                                       @Value("${rps.snapshot.retained:2}") int retained) throws IOException {
+        return new SnapshotStore(Paths.get(directory), retained);
+    }
+
+    @Bean(destroyMethod = "close")
+    public Leaderboard leaderboard(@Value("${rps.leaderboard.k-factor:32}") double kFactor,
+                                   @Value("${rps.leaderboard.capacity:65536}") int capacity) {
+        return new Leaderboard(kFactor, capacity);
+    }
+
+    /**
+     * Partitions games across nodes, each node must be configured with URL other nodes reach it at,
+     * URLs of at least one other node and secret shared by all nodes. Players connected to any node receive
+     * updates of games owned by other nodes through shared broker, so broker must not be {@link BrokerMode#SIMPLE}
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("rps.cluster.self")
+    public Cluster cluster(@Value("${rps.broker.mode:SIMPLE}") BrokerMode brokerMode,
+                           @Value("${rps.cluster.self}") String self,
+                           @Value("${rps.cluster.secret}") String secret,
+                           @Value("${rps.cluster.nodes:}") String[] nodes,
+                           @Value("${rps.cluster.heartbeat-millis:1000}") long heartbeatMillis,
+                           @Value("${rps.cluster.max-missed-heartbeats:3}") int maxMissedHeartbeats,
+                           @Value("${rps.cluster.timeout-millis:2000}") int timeoutMillis,
+                           @Value("${rps.cluster.forward-threads:4}") int forwardThreads) {
+        if (brokerMode == BrokerMode.SIMPLE) {
+            throw new IllegalStateException("Cluster requires rps.broker.mode RELAY or EMBEDDED, players of "
+                + "nodes other than owner of the game would not receive its updates with " + brokerMode + " broker");
+        }
+        return new Cluster(self, secret, Arrays.stream(nodes).filter(node -> !node.isEmpty()).collect(Collectors.toList()),
+            heartbeatMillis, maxMissedHeartbeats, timeoutMillis, forwardThreads);
+    }
+
+    @Bean
+    public PublicMetrics matchmakerMetrics(GameController controller) {
+        return () -> {
+            MatchmakerMetrics metrics = controller.getMatchmakerMetrics();
+            return Arrays.asList(
+                new Metric<>("rps.matchmaking.players.waiting", metrics.getWaitingPlayers()),
+                new Metric<>("rps.matchmaking.matches", metrics.getMatches()),
+                new Metric<>("rps.matchmaking.time-to-match.avg", metrics.getAverageTimeToMatchMillis()),
+                new Metric<>("rps.matchmaking.time-to-match.max", metrics.getMaxTimeToMatchMillis()));
+        };
+    }
+
+    @Bean
+    public PublicMetrics roundSchedulerMetrics(RoundScheduler scheduler) {
+        return () -> {
+            RoundSchedulerMetrics metrics = scheduler.getMetrics();
+            return Arrays.asList(
+                new Metric<>("rps.scheduler.games.active", metrics.getActiveGames()),
+                new Metric<>("rps.scheduler.rounds.queued", metrics.getQueuedRounds()),
+                new Metric<>("rps.scheduler.rounds.completed", metrics.getCompletedRounds()),
+                new Metric<>("rps.scheduler.rounds.rate", metrics.getRoundsPerSecond()));
+        };
+    }
+
+    @Bean
+    public PublicMetrics leaderboardMetrics(Leaderboard leaderboard) {
+        return () -> Arrays.asList(
+            new Metric<>("rps.leaderboard.rounds.pending", leaderboard.getPendingRounds()),
+            new Metric<>("rps.leaderboard.rounds.overflowed", leaderboard.getOverflowedRounds()));
+    }
+
+    @Bean
+    @ConditionalOnProperty("rps.journal.dir")
+    public PublicMetrics journalMetrics(RoundJournal journal) {
+        return () -> Arrays.asList(
+            new Metric<>("rps.journal.rounds.pending", journal.getPendingRounds()),
+            new Metric<>("rps.journal.rounds.overflowed", journal.getOverflowedRounds()));
+    }
+}
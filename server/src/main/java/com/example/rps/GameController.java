@@ -3,22 +3,35 @@ package com.example.rps;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -32,93 +45,639 @@ public class GameController {
     private final Map<String, Game> games = new ConcurrentHashMap<>();
     private final Map<String, QueuedPlayer> players = new ConcurrentHashMap<>();
     private final Map<String, PlayerOfGame> sessions = new ConcurrentHashMap<>();
-    private final List<AsyncPlay> asyncPlays = new CopyOnWriteArrayList<>();
+    private final Map<String, AsyncPlay> asyncPlays = new ConcurrentHashMap<>();
+    private final Map<String, MatchTicket> tickets = new ConcurrentHashMap<>();
+    private final Set<String> pendingMatches = ConcurrentHashMap.newKeySet();
+    private final Set<String> matchedGames = ConcurrentHashMap.newKeySet();
+    private final List<BiConsumer<String, Object>> updateListeners = new CopyOnWriteArrayList<>();
+    /**
+     * Games owned by other nodes mapped by node, as of the last {@link #refreshRemoteGames() refresh}
+     */
+    private final Map<String, Set<String>> remoteGames = new ConcurrentHashMap<>();
+    private final Set<String> refreshingNodes = ConcurrentHashMap.newKeySet();
 
     @Autowired
     private SimpMessagingTemplate simp;
 
+    @Autowired
+    private RoundScheduler scheduler;
+
+    @Autowired
+    private WireFormatInterceptor wireFormat;
+
+    @Value("${rps.move.deadline-millis:0}")
+    private long moveDeadlineMillis;
+
+    @Value("${rps.move.timeout-policy:FORFEIT}")
+    private MoveTimeoutPolicy moveTimeoutPolicy;
+
+    @Autowired(required = false)
+    private RoundEventLog roundEventLog;
+
+    @Value("${rps.events.sampling:1}")
+    private int roundEventSampling;
+
+    @Autowired(required = false)
+    private RoundJournal journal;
+
+    @Autowired(required = false)
+    private RoundIndex roundIndex;
+
+    @Value("${rps.journal.dir:}")
+    private String journalDirectory;
+
+    @Autowired(required = false)
+    private SnapshotStore snapshotStore;
+
+    @Value("${rps.snapshot.interval-seconds:60}")
+    private long snapshotIntervalSeconds;
+
+    @Value("${rps.history.retention-minutes:1440}")
+    private long historyRetentionMinutes;
+
+    @Autowired
+    private StartupMetrics startupMetrics;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Value("${rps.leaderboard.top:10}")
+    private int leaderboardTop;
+
+    @Value("${rps.matchmaking.rating-band:200}")
+    private int ratingBand;
+
+    private Matchmaker matchmaker;
+
+    @Autowired(required = false)
+    private Cluster cluster;
+
+    private ScheduledExecutorService snapshotExecutor;
+
+    /**
+     * Rebuilds games played before restart from the latest snapshot and rounds journaled after it,
+     * players get their statistics back when they join again
+     */
+    @PostConstruct
+    void restoreGames() throws IOException {
+        matchmaker = new Matchmaker(this::newMatchedGame, ratingBand);
+        if (cluster != null) {
+            cluster.addListener(this::rebalance);
+            cluster.addListener(this::refreshRemoteGames);
+        }
+        long start = System.nanoTime();
+        long fromSegment = 0;
+        if (snapshotStore != null) {
+            SnapshotStore.Snapshot snapshot = snapshotStore.readLatest();
+            if (snapshot != null) {
+                for (GameSnapshot gameSnapshot : snapshot.getGames()) {
+                    Game game = newGame(gameSnapshot.getName(), gameSnapshot.getRules());
+                    game.restore(gameSnapshot);
+                    games.put(game.getName(), game);
+                }
+                fromSegment = snapshot.getJournalSegment();
+                log.info("Restored {} games from snapshot", games.size());
+            }
+        }
+        if (journal != null) {
+            journal.replay(fromSegment, round -> games.computeIfAbsent(round.getGame(), name -> newGame(name, round.getRules())).restore(round));
+            log.info("Restored {} games from journal", games.size());
+        }
+        games.keySet().stream().filter(Matchmaker::isMatchedGame).forEach(matchedGames::add);
+        startupMetrics.restored(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (snapshotStore != null) {
+            snapshotExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "rps-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            snapshotExecutor.scheduleWithFixedDelay(this::snapshotGames, snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Writes snapshot of all games and deletes journal segments which are not needed anymore, neither for restart
+     * nor for history queries. Round index is saved after that, so that it is not rebuilt on restart
+     */
+    void snapshotGames() {
+        try {
+            // Must be read before games are captured, so rounds missing in snapshot are not before this segment
+            long segment = journal != null ? journal.getCurrentSegment() : 0;
+            long oldestSegment = snapshotStore.write(segment, games.values().stream()
+                .map(Game::snapshot)
+                .collect(Collectors.toList()));
+            if (journal != null) {
+                journal.deleteSegmentsBefore(oldestSegment,
+                    System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(historyRetentionMinutes));
+                saveRoundIndex(segment);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to snapshot games", e);
+        }
+    }
+
     @MessageMapping("/create")
     @SendTo("/topic/games")
     public Set<String> createGame(String game) {
-        if (games.putIfAbsent(game, new Game(game)) == null) {
-            log.info("Created game {}", game);
+        String owner = remoteOwnerOf(game);
+        if (owner != null) {
+            cluster.forward(game, () -> cluster.post(owner, "/cluster/games/{name}", null, game))
+                .thenRun(() -> {
+                    remoteGames.computeIfAbsent(owner, node -> ConcurrentHashMap.newKeySet()).add(game);
+                    simp.convertAndSend("/topic/games", getAvailableGames());
+                });
         } else {
-            log.info("Game with name {} already exists", game);
+            createLocalGame(game);
         }
-        return games.keySet();
+        return getAvailableGames();
     }
 
     @MessageMapping("/{name}/join")
     public void joinGame(@DestinationVariable String name, String playerId, SimpMessageHeaderAccessor headerAccessor) {
         sessions.put(headerAccessor.getSessionId(), new PlayerOfGame(name, playerId));
-        joinGame(name, new QueuedPlayer(playerId));
+        joinLocalOrRemoteGame(name, playerId, false);
     }
 
     @MessageMapping("/{name}/joinbot")
     public void joinBot(@DestinationVariable String name, String playerId, SimpMessageHeaderAccessor headerAccessor) {
         sessions.put(headerAccessor.getSessionId(), new PlayerOfGame(name, playerId));
-        joinGame(name, new Bot(playerId));
+        joinLocalOrRemoteGame(name, playerId, true);
+    }
+
+    private void joinLocalOrRemoteGame(String name, String playerId, boolean bot) {
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            cluster.forward(name, () -> cluster.post(owner, "/cluster/games/{name}/players/{playerId}?bot={bot}", null, name, playerId, bot));
+        } else {
+            joinLocalGame(name, playerId, bot);
+        }
+    }
+
+    /**
+     * Puts player into matchmaking queue, player gets name of the game at <code>/topic/matchmaking/{playerId}</code>
+     * once opponent is found or reason at <code>/topic/matchmaking/{playerId}/failed</code> if game could not be
+     * created. Optional <code>rules</code> header selects rules, <code>rated</code> header limits
+     * opponents to players with similar rating in {@link Leaderboard}
+     */
+    @MessageMapping("/matchmaking/join")
+    public void joinMatchmaking(String playerId,
+                                @Header(name = "rules", required = false) String rulesName,
+                                @Header(name = "rated", required = false) String rated,
+                                SimpMessageHeaderAccessor headerAccessor) {
+        GameRules rules = rulesNamed(rulesName);
+        if (rules == null) {
+            log.warn("Ignoring player {} who wants to play by unknown rules {}", playerId, rulesName);
+            return;
+        }
+        String sessionId = headerAccessor.getSessionId();
+        QueuedPlayer player = new QueuedPlayer(playerId);
+        MatchTicket ticket = Boolean.parseBoolean(rated)
+            ? matchmaker.enqueue(player, rules, ratingOf(playerId))
+            : matchmaker.enqueue(player, rules);
+        MatchTicket previous = tickets.put(sessionId, ticket);
+        if (previous != null) {
+            previous.cancel();
+        }
+        ticket.getGame().whenComplete((game, e) -> {
+            if (e == null) {
+                onMatched(sessionId, ticket, player, game);
+            } else if (!(e instanceof CancellationException)) {
+                onMatchFailed(sessionId, ticket, player, e);
+            }
+        });
+    }
+
+    @MessageMapping("/matchmaking/leave")
+    public void leaveMatchmaking(SimpMessageHeaderAccessor headerAccessor) {
+        MatchTicket ticket = tickets.remove(headerAccessor.getSessionId());
+        if (ticket != null) {
+            ticket.cancel();
+        }
     }
 
     @MessageMapping("/{name}/leave")
     public void leaveGame(@DestinationVariable String name, String playerId) {
-        leaveGame(getGame(name), playerId);
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            cluster.forward(name, () -> cluster.delete(owner, "/cluster/games/{name}/players/{playerId}", name, playerId));
+        } else {
+            leaveGame(getGame(name), playerId);
+        }
     }
 
     @MessageMapping("/{name}/move/{playerId}")
     public void move(@DestinationVariable String name, @DestinationVariable String playerId, String move) {
-        players.get(keyFor(name, playerId)).addMove(Weapon.from(move));
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            cluster.forward(name, () -> cluster.post(owner, "/cluster/games/{name}/players/{playerId}/moves", move, name, playerId));
+        } else {
+            moveInLocalGame(name, playerId, move);
+        }
     }
 
+    void moveInLocalGame(String name, String playerId, String move) {
+        Weapon weapon = getGame(name).getRules().getWeapons().resolve(move);
+        if (weapon == null) {
+            log.warn("Ignoring unknown move {} in game {}", move, name);
+            return;
+        }
+        QueuedPlayer player = players.get(keyFor(name, playerId));
+        if (player == null) {
+            log.warn("Ignoring move of player {} who is not in game {}", playerId, name);
+            return;
+        }
+        player.addMove(weapon);
+    }
+
+    /**
+     * Returns names of available moves ordered by their {@link WeaponRegistry#ordinalOf(Weapon) ordinals}
+     */
     @SubscribeMapping("/{name}/moves")
-    public Set<String> getAvailableMoves(@DestinationVariable String name) {
-        return getGame(name).getAvailableWeapons().stream()
+    public List<?> getAvailableMoves(@DestinationVariable String name) {
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            return cluster.get(owner, "/cluster/games/{name}/moves", List.class, name);
+        }
+        return getLocalAvailableMoves(name);
+    }
+
+    List<String> getLocalAvailableMoves(String name) {
+        return getGame(name).getRules().getWeapons().getAll().stream()
             .map(Weapon::getName)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Statistics of players currently in the game
+     */
+    @SubscribeMapping("/{name}/scores")
+    public List<?> getScores(@DestinationVariable String name) {
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            return cluster.get(owner, "/cluster/games/{name}/scores", List.class, name);
+        }
+        return getLocalScores(name);
+    }
+
+    List<PlayerScore> getLocalScores(String name) {
+        return getGame(name).getScores();
+    }
+
+    /**
+     * Players with the highest ratings across all games
+     */
+    @SubscribeMapping("/leaderboard")
+    public List<LeaderboardEntry> getLeaderboard() {
+        return leaderboard.top(leaderboardTop);
     }
 
+    /**
+     * Rating and rank of the player or nothing if player hasn't played yet
+     */
+    @SubscribeMapping("/leaderboard/{playerId}")
+    public LeaderboardEntry getLeaderboardEntry(@DestinationVariable String playerId) {
+        return leaderboard.get(playerId);
+    }
+
+    /**
+     * Games of this node and games of other nodes as of the last heartbeat, other nodes are never called here
+     */
     @SubscribeMapping("/available")
     public Set<String> getAvailableGames() {
+        if (cluster == null) {
+            return games.keySet();
+        }
+        Set<String> available = new TreeSet<>(games.keySet());
+        remoteGames.values().forEach(available::addAll);
+        return available;
+    }
+
+    /**
+     * Returns names of games owned by this node
+     */
+    Set<String> getLocalGames() {
         return games.keySet();
     }
 
     @EventListener
     public void onSessionDisconnect(SessionDisconnectEvent e) {
+        MatchTicket ticket = tickets.remove(e.getSessionId());
+        if (ticket != null) {
+            ticket.cancel();
+        }
         PlayerOfGame player = sessions.get(e.getSessionId());
         if (player != null) {
             Game game = games.get(player.getGame());
             if (game != null) {
                 leaveGame(game, player.getPlayer());
                 sessions.remove(e.getSessionId());
+            } else if (cluster != null) {
+                sessions.remove(e.getSessionId());
+                String owner = cluster.ownerOf(player.getGame());
+                cluster.forward(player.getGame(), () -> cluster.delete(owner, "/cluster/games/{name}/players/{playerId}",
+                    player.getGame(), player.getPlayer()));
             }
         }
     }
 
     @PreDestroy
-    void destroy() {
-        asyncPlays.forEach(AsyncPlay::stop);
+    void destroy() throws InterruptedException {
+        if (cluster != null) {
+            cluster.leave();
+            rebalance();
+        }
+        asyncPlays.values().forEach(AsyncPlay::stop);
         asyncPlays.clear();
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdown();
+            snapshotExecutor.awaitTermination(10, TimeUnit.SECONDS);
+            snapshotGames();
+        } else if (journal != null) {
+            try {
+                saveRoundIndex(journal.getCurrentSegment());
+            } catch (IOException e) {
+                log.error("Failed to save round index", e);
+            }
+        }
+    }
+
+    /**
+     * Saves rounds indexed before specified journal segment, every round of previous segments was already indexed
+     */
+    private void saveRoundIndex(long segment) throws IOException {
+        roundIndex.save(GameConfig.roundIndexFile(journalDirectory), RoundJournal.position(segment, 0));
+    }
+
+    private Game newGame(String name) {
+        return newGame(name, GameRules.CLASSIC);
+    }
+
+    private Game newGame(String name, GameRules rules) {
+        Game game = new Game(name, rules);
+        game.setRoundMode(RoundMode.CONCURRENT);
+        game.setMoveDeadline(moveDeadlineMillis, moveTimeoutPolicy);
+        game.setRoundEventLog(roundEventLog, roundEventSampling);
+        game.setJournal(journal);
+        game.setLeaderboard(leaderboard);
+        return game;
+    }
+
+    boolean createLocalGame(String name) {
+        if (Matchmaker.isMatchedGame(name)) {
+            log.warn("Ignoring game {} named as if it was created by matchmaker", name);
+            return false;
+        }
+        if (games.putIfAbsent(name, newGame(name)) == null) {
+            log.info("Created game {}", name);
+            return true;
+        }
+        log.info("Game with name {} already exists", name);
+        return false;
+    }
+
+    void joinLocalGame(String name, String playerId, boolean bot) {
+        if (bot) {
+            joinGame(name, new Bot(playerId));
+        } else {
+            joinGame(name, new QueuedPlayer(playerId));
+        }
+    }
+
+    void leaveLocalGame(String name, String playerId) {
+        leaveGame(getGame(name), playerId);
+    }
+
+    /**
+     * Joins player who is not connected over STOMP, game is created if it does not exist yet
+     *
+     * @throws IllegalStateException if game is owned by another node
+     */
+    void joinOrCreateLocalGame(String name, String playerId) {
+        String owner = remoteOwnerOf(name);
+        if (owner != null) {
+            throw new IllegalStateException("Game " + name + " is owned by node " + owner);
+        }
+        if (createLocalGame(name)) {
+            simp.convertAndSend("/topic/games", getAvailableGames());
+        }
+        joinLocalGame(name, playerId, false);
+    }
+
+    /**
+     * Listener receives name of the game and every update sent to its subscribers: list of players or round result
+     */
+    void addUpdateListener(BiConsumer<String, Object> listener) {
+        updateListeners.add(listener);
+    }
+
+    /**
+     * Returns node which owns the game if it is not this node, games present locally are always played here,
+     * even if they are about to be {@link #rebalance() moved} to another node
+     */
+    private String remoteOwnerOf(String name) {
+        if (cluster == null || games.containsKey(name)) {
+            return null;
+        }
+        String owner = cluster.ownerOf(name);
+        return owner.equals(cluster.getSelf()) ? null : owner;
+    }
+
+    /**
+     * Fetches games of other nodes on forwarding threads, so that heartbeats are not held up by slow nodes.
+     * Games of nodes which left the ring are forgotten, subscribers are notified when games of any node change
+     */
+    private void refreshRemoteGames() {
+        Set<String> nodes = cluster.getNodes();
+        if (remoteGames.keySet().retainAll(nodes)) {
+            simp.convertAndSend("/topic/games", getAvailableGames());
+        }
+        for (String node : nodes) {
+            if (node.equals(cluster.getSelf()) || !refreshingNodes.add(node)) {
+                continue;
+            }
+            cluster.forward(node, () -> {
+                try {
+                    Set<String> nodeGames = ConcurrentHashMap.newKeySet();
+                    nodeGames.addAll(Arrays.asList(cluster.get(node, "/cluster/games", String[].class)));
+                    Set<String> previous = remoteGames.put(node, nodeGames);
+                    if (!nodeGames.equals(previous)) {
+                        simp.convertAndSend("/topic/games", getAvailableGames());
+                    }
+                } finally {
+                    refreshingNodes.remove(node);
+                }
+            });
+        }
+    }
+
+    /**
+     * Moves games owned by other nodes according to the current ring to their owners, game is kept
+     * and continues if owner can't take it now, so that it's moved with next attempt
+     */
+    private void rebalance() {
+        for (Game game : games.values()) {
+            String owner = cluster.ownerOf(game.getName());
+            if (!owner.equals(cluster.getSelf())) {
+                handOff(game, owner);
+            }
+        }
+    }
+
+    private void handOff(Game game, String owner) {
+        String name = game.getName();
+        AsyncPlay asyncPlay = asyncPlays.remove(name);
+        if (asyncPlay != null) {
+            asyncPlay.stop();
+        }
+        List<String> queued = new ArrayList<>();
+        List<String> bots = new ArrayList<>();
+        for (String playerId : game.getPlayerIds()) {
+            (players.containsKey(keyFor(name, playerId)) ? queued : bots).add(playerId);
+        }
+        try {
+            cluster.post(owner, "/cluster/games/{name}/handoff?players={players}&bots={bots}",
+                SnapshotStore.encode(game.snapshot()), name, String.join(",", queued), String.join(",", bots));
+        } catch (RestClientException e) {
+            log.warn("Failed to move game " + name + " to node " + owner, e);
+            if (game.isReady()) {
+                play(game);
+            }
+            return;
+        }
+        games.remove(name);
+        matchedGames.remove(name);
+        game.getPlayerIds().forEach(playerId -> players.remove(keyFor(name, playerId)));
+        log.info("Moved game {} to node {}", name, owner);
     }
 
-    private void joinGame(String name, Player player) {
+    /**
+     * Continues game moved from another node, players rejoin it with their statistics
+     */
+    void takeOver(GameSnapshot snapshot, List<String> queued, List<String> bots) {
+        Game game = newGame(snapshot.getName(), snapshot.getRules());
+        game.restore(snapshot);
+        if (games.putIfAbsent(game.getName(), game) != null) {
+            throw new IllegalStateException("Game with name " + game.getName() + " already exists");
+        }
+        if (Matchmaker.isMatchedGame(game.getName())) {
+            matchedGames.add(game.getName());
+        }
+        queued.forEach(playerId -> joinGame(game.getName(), new QueuedPlayer(playerId)));
+        bots.forEach(playerId -> joinGame(game.getName(), new Bot(playerId)));
+        log.info("Took over game {}", game.getName());
+    }
+
+    private boolean joinGame(String name, Player player) {
         Game game = getGame(name);
-        game.join(player);
-        simp.convertAndSend("/topic/game/" + game.getName() + "/players", getPlayersOfGame(game));
+        if (!game.join(player)) {
+            return false;
+        }
+        sendUpdate(game, "players", getPlayersOfGame(game));
         if (game.isReady()) {
-            log.info("Game {} is ready", game.getName());
-            asyncPlays.add(game.doRoundsAsync(rr -> simp.convertAndSend("/topic/game/" + game.getName() + "/result", rr)));
+            play(game);
         }
+        return true;
     }
 
     private void joinGame(String name, QueuedPlayer player) {
         players.put(keyFor(name, player.getId()), player);
-        joinGame(name, (Player) player);
+        if (!joinGame(name, (Player) player)) {
+            players.remove(keyFor(name, player.getId()), player);
+        }
+    }
+
+    private void play(Game game) {
+        log.info("Game {} is ready", game.getName());
+        asyncPlays.put(game.getName(), game.doRoundsAsync(rr -> sendUpdate(game, "result", rr), scheduler));
+    }
+
+    /**
+     * Creates game for players paired by matchmaker, players are joined by matchmaker itself
+     */
+    private Game newMatchedGame(String name, GameRules rules) {
+        if (cluster != null) {
+            // Players wait on this node, so the game must be owned by it
+            name = cluster.ownedName(name);
+        }
+        Game game = newGame(name, rules);
+        if (games.putIfAbsent(name, game) != null) {
+            throw new IllegalStateException("Game with name " + name + " already exists");
+        }
+        matchedGames.add(name);
+        pendingMatches.add(name);
+        return game;
+    }
+
+    private void onMatched(String sessionId, MatchTicket ticket, QueuedPlayer player, Game game) {
+        tickets.remove(sessionId, ticket);
+        sessions.put(sessionId, new PlayerOfGame(game.getName(), player.getId()));
+        players.put(keyFor(game.getName(), player.getId()), player);
+        simp.convertAndSend("/topic/matchmaking/" + player.getId(), game.getName());
+        // Rounds start once moves of both players can be routed
+        boolean registered = game.getPlayerIds().stream().allMatch(id -> players.containsKey(keyFor(game.getName(), id)));
+        if (registered && pendingMatches.remove(game.getName())) {
+            play(game);
+        }
+    }
+
+    private void onMatchFailed(String sessionId, MatchTicket ticket, QueuedPlayer player, Throwable e) {
+        tickets.remove(sessionId, ticket);
+        log.warn("Failed to create matched game for player " + player.getId(), e);
+        simp.convertAndSend("/topic/matchmaking/" + player.getId() + "/failed", String.valueOf(e.getMessage()));
+    }
+
+    private int ratingOf(String playerId) {
+        LeaderboardEntry entry = leaderboard.get(playerId);
+        return entry == null ? Leaderboard.INITIAL_RATING : entry.getRating();
+    }
+
+    private static GameRules rulesNamed(String name) {
+        if (name == null || "classic".equals(name)) {
+            return GameRules.CLASSIC;
+        }
+        return "lizard-spock".equals(name) ? GameRules.LIZARD_SPOCK_EXTENSION : null;
+    }
+
+    MatchmakerMetrics getMatchmakerMetrics() {
+        return matchmaker.getMetrics();
     }
 
     private void leaveGame(Game game, String playerId) {
         game.leave(playerId);
         players.remove(keyFor(game.getName(), playerId));
-        simp.convertAndSend("/topic/game/" + game.getName() + "/players", getPlayersOfGame(game));
+        sendUpdate(game, "players", getPlayersOfGame(game));
+        if (matchedGames.contains(game.getName()) && game.getPlayerIds().isEmpty()) {
+            removeMatchedGame(game);
+        }
+    }
+
+    /**
+     * Nobody else can join game created by matchmaker, so it is removed together with its rounds once both
+     * players have gone
+     */
+    private void removeMatchedGame(Game game) {
+        String name = game.getName();
+        if (!matchedGames.remove(name) || !games.remove(name, game)) {
+            return;
+        }
+        pendingMatches.remove(name);
+        AsyncPlay asyncPlay = asyncPlays.remove(name);
+        if (asyncPlay != null) {
+            asyncPlay.stop();
+        }
+        log.info("Removed matched game {} which all players have left", name);
+        simp.convertAndSend("/topic/games", getAvailableGames());
+    }
+
+    /**
+     * Sends update of the game which subscribers get in format they negotiated, see {@link WireFormatInterceptor}
+     */
+    private void sendUpdate(Game game, String topic, Object update) {
+        wireFormat.send(simp, "/topic/game/" + game.getName() + "/" + topic, update);
+        for (BiConsumer<String, Object> listener : updateListeners) {
+            listener.accept(game.getName(), update);
+        }
     }
 
     private String keyFor(String gameName, String playerId) {
@@ -0,0 +1,124 @@
+package com.example.rps;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Queries over rounds recorded in journal, available only when journal is configured. Rounds are streamed
+ * as they are read, one {@link JsonRoundEventWriter JSON object} per line
+ *
+ * @author Beka Tsotsoria
+ */
+@RestController
+@RequestMapping("/history")
+public class HistoryController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired(required = false)
+    private RoundJournal journal;
+
+    @Autowired(required = false)
+    private RoundIndex index;
+
+    private RoundQueryExecutor executor;
+
+    @PostConstruct
+    void init() {
+        if (journal != null && index != null) {
+            executor = new RoundQueryExecutor(journal, index);
+        }
+    }
+
+    /**
+     * @param from   inclusive start of time range in milliseconds since epoch
+     * @param to     exclusive end of time range in milliseconds since epoch
+     * @param period ISO-8601 duration, rounds of this period before now are returned, e.g. PT1H for the last hour
+     */
+    @GetMapping("/rounds")
+    public ResponseEntity<StreamingResponseBody> getRounds(@RequestParam(required = false) String player,
+                                                           @RequestParam(required = false) String game,
+                                                           @RequestParam(required = false) Long from,
+                                                           @RequestParam(required = false) Long to,
+                                                           @RequestParam(required = false) String period,
+                                                           @RequestParam(required = false) Long limit) {
+        if (executor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        RoundQuery query = query(player, game, from, to, period, limit);
+        return ResponseEntity.ok()
+            .contentType(NDJSON)
+            .body(out -> {
+                JsonRoundEventWriter writer = new JsonRoundEventWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+                executor.execute(query, round -> {
+                    try {
+                        writer.write(round);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+            });
+    }
+
+    /**
+     * Returns number of times each weapon was used, only weapons of player are counted when player is specified
+     */
+    @GetMapping("/weapons")
+    public ResponseEntity<Map<String, Long>> getWeaponDistribution(@RequestParam(required = false) String player,
+                                                                   @RequestParam(required = false) String game,
+                                                                   @RequestParam(required = false) Long from,
+                                                                   @RequestParam(required = false) Long to,
+                                                                   @RequestParam(required = false) String period) {
+        if (executor == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(executor.weaponDistribution(query(player, game, from, to, period, null)));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> onInvalidQuery(IllegalArgumentException e) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+    }
+
+    private static RoundQuery query(String player, String game, Long from, Long to, String period, Long limit) {
+        RoundQuery.Builder query = RoundQuery.builder()
+            .player(player)
+            .game(game);
+        if (period != null) {
+            try {
+                query.from(System.currentTimeMillis() - Duration.parse(period).toMillis());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Period must be ISO-8601 duration, got " + period);
+            }
+        }
+        if (from != null) {
+            query.from(from);
+        }
+        if (to != null) {
+            query.to(to);
+        }
+        if (limit != null) {
+            query.limit(limit);
+        }
+        return query.build();
+    }
+}
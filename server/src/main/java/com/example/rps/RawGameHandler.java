@@ -0,0 +1,289 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handles players connected to raw WebSocket endpoint, usually bots, without SockJS and STOMP. Players send
+ * {@link BinaryCodec.Command commands} and receive list of players and round results of the game they joined,
+ * all encoded by {@link BinaryCodec}. Commands go directly to {@link GameController}, so that game must be owned
+ * by this node. Updates are encoded on the thread which produced them and written to sockets by separate writer
+ * threads, so that slow client never holds up rounds of the game
+ *
+ * @author Beka Tsotsoria
+ */
+public class RawGameHandler extends BinaryWebSocketHandler {
+
+    private final Logger log = LoggerFactory.getLogger(RawGameHandler.class);
+
+    private final Map<String, RawSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Set<RawSession>> subscribers = new ConcurrentHashMap<>();
+    private final GameController controller;
+    private final long sendTimeLimitNanos;
+    private final int bufferSizeLimit;
+    private final ExecutorService writer;
+
+    /**
+     * @param sendTimeLimit   max time in millis single frame can be sent, slower sessions are closed
+     * @param bufferSizeLimit max size of frames buffered for session while previous frame is being sent
+     * @param writerThreads   number of threads which write frames to sockets
+     */
+    RawGameHandler(GameController controller, int sendTimeLimit, int bufferSizeLimit, int writerThreads) {
+        this.controller = controller;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimit);
+        this.bufferSizeLimit = bufferSizeLimit;
+        AtomicInteger threads = new AtomicInteger();
+        this.writer = Executors.newFixedThreadPool(writerThreads, r -> {
+            Thread thread = new Thread(r, "rps-raw-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        controller.addUpdateListener(this::onUpdate);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), new RawSession(session));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        RawSession rawSession = sessions.get(session.getId());
+        BinaryCodec.Command command;
+        try {
+            ByteBuffer payload = message.getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            command = rawSession.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            log.warn("Closing session {} which sent invalid frame", session.getId(), e);
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        switch (command.getType()) {
+            case JOIN:
+                join(rawSession, command.getGame(), command.getPlayerId());
+                break;
+            case MOVE:
+                move(rawSession, command.getMove());
+                break;
+            case LEAVE:
+                leave(rawSession);
+                break;
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        RawSession rawSession = sessions.remove(session.getId());
+        if (rawSession != null) {
+            leave(rawSession);
+            rawSession.discardFrames();
+        }
+    }
+
+    int getActiveSessions() {
+        return sessions.size();
+    }
+
+    public void close() {
+        writer.shutdownNow();
+    }
+
+    private void join(RawSession rawSession, String game, String playerId) throws IOException {
+        leave(rawSession);
+        rawSession.joined(game, playerId);
+        // Subscribed before joining, so player receives list of players which includes them
+        subscribers.computeIfAbsent(game, name -> ConcurrentHashMap.newKeySet()).add(rawSession);
+        try {
+            controller.joinOrCreateLocalGame(game, playerId);
+        } catch (IllegalStateException e) {
+            log.warn("Player " + playerId + " can't join game " + game + " over raw endpoint: " + e.getMessage());
+            unsubscribe(rawSession);
+            rawSession.joined(null, null);
+            rawSession.close(CloseStatus.POLICY_VIOLATION);
+        }
+    }
+
+    private void move(RawSession rawSession, String move) {
+        String game = rawSession.getGame();
+        if (game == null) {
+            log.warn("Ignoring move of session {} which has not joined any game", rawSession.getId());
+            return;
+        }
+        try {
+            controller.moveInLocalGame(game, rawSession.getPlayerId(), move);
+        } catch (IllegalStateException e) {
+            log.warn("Ignoring move in game {}: {}", game, e.getMessage());
+        }
+    }
+
+    private void leave(RawSession rawSession) {
+        String game = rawSession.getGame();
+        if (game == null) {
+            return;
+        }
+        unsubscribe(rawSession);
+        try {
+            controller.leaveLocalGame(game, rawSession.getPlayerId());
+        } catch (IllegalStateException e) {
+            log.warn("Player " + rawSession.getPlayerId() + " can't leave game " + game + ": " + e.getMessage());
+        }
+        rawSession.joined(null, null);
+    }
+
+    private void unsubscribe(RawSession rawSession) {
+        subscribers.computeIfPresent(rawSession.getGame(), (game, gameSubscribers) -> {
+            gameSubscribers.remove(rawSession);
+            return gameSubscribers.isEmpty() ? null : gameSubscribers;
+        });
+    }
+
+    /**
+     * Called by thread which produced the update, it only encodes and queues frames, sessions which can't keep up
+     * with buffer size or send time limit are closed
+     */
+    private void onUpdate(String game, Object update) {
+        Set<RawSession> gameSubscribers = subscribers.get(game);
+        if (gameSubscribers == null || !BinaryCodec.supports(update)) {
+            return;
+        }
+        for (RawSession rawSession : gameSubscribers) {
+            rawSession.send(update);
+        }
+    }
+
+    private class RawSession {
+
+        private final WebSocketSession session;
+        private final BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        private final BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+        private final Queue<byte[]> frames = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger bufferedBytes = new AtomicInteger();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        /**
+         * Time the frame being written started at, 0 if no frame is being written
+         */
+        private volatile long writeStartNanos;
+        private volatile String game;
+        private volatile String playerId;
+
+        RawSession(WebSocketSession session) {
+            this.session = session;
+        }
+
+        String getId() {
+            return session.getId();
+        }
+
+        String getGame() {
+            return game;
+        }
+
+        String getPlayerId() {
+            return playerId;
+        }
+
+        void joined(String game, String playerId) {
+            this.game = game;
+            this.playerId = playerId;
+        }
+
+        BinaryCodec.Command decode(byte[] bytes) {
+            return decoder.decodeCommand(bytes);
+        }
+
+        /**
+         * Frames are encoded and queued atomically, so that strings interned by encoder reach the client before
+         * they are referenced. Writing is left to writer thread, caller never waits for the socket
+         */
+        void send(Object update) {
+            if (!session.isOpen()) {
+                return;
+            }
+            synchronized (encoder) {
+                byte[] frame = encoder.encode(update);
+                bufferedBytes.addAndGet(frame.length);
+                frames.add(frame);
+            }
+            long writeStart = writeStartNanos;
+            if (bufferedBytes.get() > bufferSizeLimit || writeStart != 0 && System.nanoTime() - writeStart > sendTimeLimitNanos) {
+                log.warn("Closing session {} which can't keep up with updates", getId());
+                discardFrames();
+                closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            scheduleWrite();
+        }
+
+        private void scheduleWrite() {
+            if (!writing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                writer.execute(this::write);
+            } catch (RejectedExecutionException e) {
+                writing.set(false);
+            }
+        }
+
+        /**
+         * Writes queued frames, runs on single writer thread at a time
+         */
+        private void write() {
+            try {
+                for (byte[] frame = frames.poll(); frame != null && session.isOpen(); frame = frames.poll()) {
+                    bufferedBytes.addAndGet(-frame.length);
+                    writeStartNanos = System.nanoTime();
+                    session.sendMessage(new BinaryMessage(frame));
+                    writeStartNanos = 0;
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to send update to session " + getId(), e);
+                discardFrames();
+                closeQuietly(CloseStatus.SESSION_NOT_RELIABLE);
+            } finally {
+                writeStartNanos = 0;
+                writing.set(false);
+            }
+            if (!frames.isEmpty() && session.isOpen()) {
+                scheduleWrite();
+            }
+        }
+
+        void discardFrames() {
+            frames.clear();
+            bufferedBytes.set(0);
+        }
+
+        void close(CloseStatus status) throws IOException {
+            session.close(status);
+        }
+
+        private void closeQuietly(CloseStatus status) {
+            try {
+                session.close(status);
+            } catch (IOException e) {
+                log.debug("Failed to close session {}", getId(), e);
+            }
+        }
+    }
+}
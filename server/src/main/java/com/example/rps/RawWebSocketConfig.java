@@ -0,0 +1,59 @@
+package com.example.rps;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+import java.util.Collections;
+
+/**
+ * Raw WebSocket endpoint next to STOMP one, see {@link RawGameHandler}
+ *
+ * @author Beka Tsotsoria
+ */
+@Configuration
+@EnableWebSocket
+public class RawWebSocketConfig implements WebSocketConfigurer {
+
+    @Value("${rps.raw.path:/raw}")
+    private String path;
+
+    @Value("${rps.raw.send-time-limit-millis:1000}")
+    private int sendTimeLimit;
+
+    @Value("${rps.raw.buffer-size-limit:65536}")
+    private int bufferSizeLimit;
+
+    @Value("${rps.raw.writer-threads:0}")
+    private int writerThreads;
+
+    private final GameController controller;
+
+    public RawWebSocketConfig(GameController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(rawGameHandler(), path).setAllowedOrigins("*");
+    }
+
+    /**
+     * Writers only wait for sockets, by default there are as many of them as cores
+     */
+    @Bean(destroyMethod = "close")
+    public RawGameHandler rawGameHandler() {
+        return new RawGameHandler(controller, sendTimeLimit, bufferSizeLimit,
+            writerThreads > 0 ? writerThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public PublicMetrics rawMetrics() {
+        return () -> Collections.singletonList(new Metric<>("rps.raw.sessions.active", rawGameHandler().getActiveSessions()));
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Channel executor which handles messages of the same session one after another in the order they were sent,
+ * while messages of different sessions are handled in parallel by the whole pool. Every session with pending
+ * messages occupies at most one pool thread at a time, next message of the session is resubmitted to the pool
+ * once previous one is handled, so that busy session can't starve others. Tasks which don't carry message of
+ * some session are executed without ordering. Optionally number of messages waiting per session can be limited,
+ * so that slow client can't pile up unbounded backlog. Session which reached the limit only loses game updates
+ * superseded by newer ones: pending update of the same subscription is replaced by the new one. If there is nothing
+ * to replace, session is handed over to {@link #setSlowSessionHandler(Consumer) slow session handler} to be closed
+ * and its further messages are dropped until it is {@link #sessionClosed(String) closed}, client never continues
+ * with some frames silently missing
+ *
+ * @author Beka Tsotsoria
+ */
+public class SessionOrderedTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private final Logger log = LoggerFactory.getLogger(SessionOrderedTaskExecutor.class);
+
+    /**
+     * Prefix of destinations of game updates, newer update of the game supersedes pending one
+     */
+    private static final String GAME_UPDATES = "/topic/game";
+
+    /**
+     * Sessions which have message being handled, mapped to their messages waiting for it
+     */
+    private final ConcurrentMap<String, Pending> sessions = new ConcurrentHashMap<>();
+    private final int maxPendingPerSession;
+    private final LongAdder supersededMessages = new LongAdder();
+    private final LongAdder slowSessions = new LongAdder();
+    private volatile Consumer<String> slowSessionHandler = sessionId -> {
+    };
+
+    public SessionOrderedTaskExecutor() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxPendingPerSession max number of messages waiting per session while its previous message is handled
+     */
+    public SessionOrderedTaskExecutor(int maxPendingPerSession) {
+        if (maxPendingPerSession <= 0) {
+            throw new IllegalArgumentException("Max pending messages per session must be positive");
+        }
+        this.maxPendingPerSession = maxPendingPerSession;
+    }
+
+    /**
+     * Handler receives ID of the session which can't keep up with its messages, it should close the session
+     */
+    public void setSlowSessionHandler(Consumer<String> slowSessionHandler) {
+        this.slowSessionHandler = slowSessionHandler;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        String sessionId = sessionOf(task);
+        if (sessionId == null) {
+            super.execute(task);
+            return;
+        }
+        boolean[] idle = new boolean[1];
+        boolean[] superseded = new boolean[1];
+        boolean[] slow = new boolean[1];
+        sessions.compute(sessionId, (id, pending) -> {
+            if (pending == null) {
+                idle[0] = true;
+                return new Pending();
+            }
+            if (pending.slow) {
+                return pending;
+            }
+            if (pending.size() < maxPendingPerSession) {
+                pending.add(task);
+            } else if (pending.removeSuperseded(task)) {
+                superseded[0] = true;
+                pending.add(task);
+            } else {
+                slow[0] = true;
+                pending.slow = true;
+                pending.clear();
+            }
+            return pending;
+        });
+        if (idle[0]) {
+            submit(sessionId, task);
+        } else if (superseded[0]) {
+            supersededMessages.increment();
+        } else if (slow[0]) {
+            slowSessions.increment();
+            log.warn("Session {} has {} pending messages, closing it", sessionId, maxPendingPerSession);
+            slowSessionHandler.accept(sessionId);
+        }
+    }
+
+    private void submit(String sessionId, Runnable task) {
+        try {
+            super.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    next(sessionId);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Pending messages of the session would never be handled otherwise
+            log.error("Failed to submit message of session {}, dropping its pending messages", sessionId, e);
+            sessions.remove(sessionId);
+            throw e;
+        }
+    }
+
+    private void next(String sessionId) {
+        Runnable[] next = new Runnable[1];
+        sessions.computeIfPresent(sessionId, (id, pending) -> {
+            next[0] = pending.poll();
+            // Slow session stays marked, so that messages which come before it gets closed are dropped too
+            return next[0] == null && !pending.slow ? null : pending;
+        });
+        if (next[0] != null) {
+            submit(sessionId, next[0]);
+        }
+    }
+
+    /**
+     * Forgets session which got closed, must be called for every closed session, otherwise slow session would
+     * stay marked forever
+     */
+    public void sessionClosed(String sessionId) {
+        sessions.computeIfPresent(sessionId, (id, pending) -> pending.slow ? null : pending);
+    }
+
+    /**
+     * Returns number of sessions which have message being handled or were found slow and are not closed yet
+     */
+    public int getActiveSessions() {
+        return sessions.size();
+    }
+
+    /**
+     * Returns number of game updates replaced by newer ones because their session reached the limit
+     * of pending messages
+     */
+    public long getSupersededMessages() {
+        return supersededMessages.sum();
+    }
+
+    /**
+     * Returns number of sessions handed over to be closed because they reached the limit of pending messages
+     * with nothing to replace
+     */
+    public long getSlowSessions() {
+        return slowSessions.sum();
+    }
+
+    private static String sessionOf(Runnable task) {
+        Message<?> message = messageOf(task);
+        return message == null ? null : SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+
+    private static Message<?> messageOf(Runnable task) {
+        return task instanceof MessageHandlingRunnable ? ((MessageHandlingRunnable) task).getMessage() : null;
+    }
+
+    /**
+     * Returns true if both tasks send game update to the same subscription, so that the latter one
+     * supersedes the former
+     */
+    private static boolean supersedes(Runnable task, Runnable pendingTask) {
+        MessageHeaders headers = messageOf(task).getHeaders();
+        String destination = SimpMessageHeaderAccessor.getDestination(headers);
+        if (SimpMessageHeaderAccessor.getMessageType(headers) != SimpMessageType.MESSAGE
+            || destination == null || !destination.startsWith(GAME_UPDATES)) {
+            return false;
+        }
+        MessageHeaders pendingHeaders = messageOf(pendingTask).getHeaders();
+        return SimpMessageHeaderAccessor.getMessageType(pendingHeaders) == SimpMessageType.MESSAGE
+            && destination.equals(SimpMessageHeaderAccessor.getDestination(pendingHeaders))
+            && Objects.equals(SimpMessageHeaderAccessor.getSubscriptionId(headers),
+            SimpMessageHeaderAccessor.getSubscriptionId(pendingHeaders));
+    }
+
+    /**
+     * Messages of the session waiting while its previous message is handled
+     */
+    private static class Pending extends ArrayDeque<Runnable> {
+
+        /**
+         * Set once session reached the limit with nothing to replace, its messages are dropped from then on
+         */
+        private boolean slow;
+
+        boolean removeSuperseded(Runnable task) {
+            for (Iterator<Runnable> pending = iterator(); pending.hasNext(); ) {
+                if (supersedes(task, pending.next())) {
+                    pending.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
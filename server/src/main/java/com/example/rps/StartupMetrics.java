@@ -0,0 +1,54 @@
+package com.example.rps;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Time it took server to become ready after JVM started and parts of it spent on indexing journaled rounds and
+ * restoring games
+ *
+ * @author Beka Tsotsoria
+ */
+@Component
+public class StartupMetrics implements PublicMetrics {
+
+    private volatile long startupMillis = -1;
+    private volatile long restoreMillis = -1;
+    private volatile long indexMillis = -1;
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent e) {
+        startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    void restored(long millis) {
+        restoreMillis = millis;
+    }
+
+    void indexed(long millis) {
+        indexMillis = millis;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+        List<Metric<?>> metrics = new ArrayList<>(3);
+        if (startupMillis >= 0) {
+            metrics.add(new Metric<>("rps.startup.millis", startupMillis));
+        }
+        if (restoreMillis >= 0) {
+            metrics.add(new Metric<>("rps.startup.restore.millis", restoreMillis));
+        }
+        if (indexMillis >= 0) {
+            metrics.add(new Metric<>("rps.startup.index.millis", indexMillis));
+        }
+        return metrics;
+    }
+}
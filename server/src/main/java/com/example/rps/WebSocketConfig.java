@@ -1,11 +1,20 @@
 package com.example.rps;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.AbstractWebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.Arrays;
 
 /**
  * @author Beka Tsotsoria
@@ -14,30 +23,115 @@ import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
 
+    private final WebSocketSessionRegistry sessionRegistry = new WebSocketSessionRegistry();
+    private SessionOrderedTaskExecutor outboundExecutor;
+
+    @Value("${rps.outbound.max-pending-per-session:1000}")
+    void setMaxPendingOutboundPerSession(int maxPendingPerSession) {
+        outboundExecutor = new SessionOrderedTaskExecutor(maxPendingPerSession);
+        outboundExecutor.setSlowSessionHandler(sessionRegistry::close);
+        sessionRegistry.addCloseListener(outboundExecutor::sessionClosed);
+    }
+
+    @Value("${rps.broker.mode:SIMPLE}")
+    private BrokerMode brokerMode;
+
+    @Value("${rps.broker.host:localhost}")
+    private String brokerHost;
+
+    @Value("${rps.broker.port:61613}")
+    private int brokerPort;
+
+    @Value("${rps.broker.login:guest}")
+    private String brokerLogin;
+
+    @Value("${rps.broker.passcode:guest}")
+    private String brokerPasscode;
+
+    @Autowired(required = false)
+    private EmbeddedBroker embeddedBroker;
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(name = "rps.broker.mode", havingValue = "EMBEDDED")
+    public static EmbeddedBroker embeddedBroker(@Value("${rps.broker.host:localhost}") String host,
+                                                @Value("${rps.broker.port:61613}") int port,
+                                                @Value("${rps.broker.login:guest}") String login,
+                                                @Value("${rps.broker.passcode:guest}") String passcode) {
+        return new EmbeddedBroker(host, port, login, passcode);
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        registry.enableSimpleBroker("/topic");
+        switch (brokerMode) {
+            case SIMPLE:
+                registry.enableSimpleBroker("/topic");
+                break;
+            case RELAY:
+                enableBrokerRelay(registry, brokerHost, brokerPort);
+                break;
+            case EMBEDDED:
+                enableBrokerRelay(registry, embeddedBroker.getHost(), embeddedBroker.getPort());
+                break;
+        }
         registry.setApplicationDestinationPrefixes("/game");
     }
 
+    private void enableBrokerRelay(MessageBrokerRegistry registry, String host, int port) {
+        registry.enableStompBrokerRelay("/topic")
+            .setRelayHost(host)
+            .setRelayPort(port)
+            .setClientLogin(brokerLogin)
+            .setClientPasscode(brokerPasscode)
+            .setSystemLogin(brokerLogin)
+            .setSystemPasscode(brokerPasscode);
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         registry.addEndpoint("/ws").setAllowedOrigins("*").withSockJS();
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionRegistry);
+    }
+
     /*
-        Fix the issue of out of order messages.
-        However this significantly impacts scalability, in real-world scenario more sophisticated broker
-        should be used, for ex: ActiveMQ
-        https://stackoverflow.com/questions/29689838/sockjs-receive-stomp-messages-from-spring-websocket-out-of-order
+        Messages of the same session must be handled in order they were sent, otherwise moves and joins
+        can overtake each other: https://stackoverflow.com/questions/29689838/sockjs-receive-stomp-messages-from-spring-websocket-out-of-order
+        Order is kept per session only, so that messages of different sessions are handled in parallel
      */
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.taskExecutor().corePoolSize(1);
+        registration.taskExecutor(new SessionOrderedTaskExecutor());
+        registration.setInterceptors(wireFormatInterceptor());
     }
 
+    /*
+        Frames sent to the same session keep their order while different sessions are served in parallel,
+        so that one slow socket delays only its own frames. Session which falls too far behind loses only
+        superseded game updates or gets closed, see SessionOrderedTaskExecutor
+     */
     @Override
     public void configureClientOutboundChannel(ChannelRegistration registration) {
-        registration.taskExecutor().corePoolSize(1);
+        registration.taskExecutor(outboundExecutor);
+        registration.setInterceptors(wireFormatInterceptor());
+    }
+
+    /**
+     * Game updates can be encoded per session only when they are fanned out by the broker of this node,
+     * external broker receives them already encoded as JSON
+     */
+    @Bean
+    public WireFormatInterceptor wireFormatInterceptor() {
+        return new WireFormatInterceptor(brokerMode == BrokerMode.SIMPLE);
+    }
+
+    @Bean
+    public PublicMetrics outboundMetrics() {
+        return () -> Arrays.asList(
+            new Metric<>("rps.outbound.sessions.active", outboundExecutor.getActiveSessions()),
+            new Metric<>("rps.outbound.superseded", outboundExecutor.getSupersededMessages()),
+            new Metric<>("rps.outbound.sessions.slow", outboundExecutor.getSlowSessions()));
     }
 }
@@ -0,0 +1,72 @@
+package com.example.rps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Keeps open WebSocket sessions of STOMP endpoint by their IDs, which are IDs of STOMP sessions too, so that
+ * session can be closed when only its ID is known, e.g. by {@link SessionOrderedTaskExecutor}
+ *
+ * @author Beka Tsotsoria
+ */
+public class WebSocketSessionRegistry implements WebSocketHandlerDecoratorFactory {
+
+    private final Logger log = LoggerFactory.getLogger(WebSocketSessionRegistry.class);
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> closeListeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                closeListeners.forEach(listener -> listener.accept(session.getId()));
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Listener receives ID of every closed session
+     */
+    public void addCloseListener(Consumer<String> listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Closes session if it is still open, client gets notified that session can't be relied on. Close listeners
+     * are notified once session is closed, or right away if it has been closed already
+     */
+    public void close(String sessionId) {
+        WebSocketSession session = sessions.get(sessionId);
+        if (session == null) {
+            closeListeners.forEach(listener -> listener.accept(sessionId));
+            return;
+        }
+        try {
+            session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.warn("Failed to close session {}", sessionId, e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.rps;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes {@link OutboundPayload game updates} for every session in the format it negotiated: sessions which
+ * sent {@link BinaryCodec#FORMAT_HEADER} in CONNECT frame get {@link BinaryCodec binary} frames, others get JSON
+ * encoded once per update. Frames are encoded right before they are handled by outbound channel executor,
+ * which handles frames of the session in order, so that strings interned by session's encoder are defined
+ * before they are referenced
+ *
+ * @author Beka Tsotsoria
+ */
+public class WireFormatInterceptor extends ChannelInterceptorAdapter implements ExecutorChannelInterceptor {
+
+    private final MappingJackson2MessageConverter json = new MappingJackson2MessageConverter();
+    private final Map<String, BinaryCodec.Encoder> binarySessions = new ConcurrentHashMap<>();
+    private final boolean perSessionEncoding;
+
+    /**
+     * @param perSessionEncoding true if updates can be encoded per session, otherwise they are sent as JSON
+     */
+    WireFormatInterceptor(boolean perSessionEncoding) {
+        this.perSessionEncoding = perSessionEncoding;
+    }
+
+    /**
+     * Sends game update to broker, update is encoded when it is handled for every session
+     */
+    void send(SimpMessageSendingOperations simp, String destination, Object update) {
+        if (perSessionEncoding) {
+            simp.send(destination, MessageBuilder.withPayload(new OutboundPayload(update)).build());
+        } else {
+            simp.convertAndSend(destination, update);
+        }
+    }
+
+    /**
+     * Registers format requested by session, applies to inbound channel
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && SimpMessageType.CONNECT.equals(accessor.getMessageType())
+            && BinaryCodec.FORMAT_BINARY.equals(accessor.getFirstNativeHeader(BinaryCodec.FORMAT_HEADER))) {
+            binarySessions.put(accessor.getSessionId(), new BinaryCodec.Encoder());
+        }
+        return message;
+    }
+
+    /**
+     * Encodes game update for the session, applies to outbound channel
+     */
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (!(message.getPayload() instanceof OutboundPayload)) {
+            return message;
+        }
+        OutboundPayload payload = (OutboundPayload) message.getPayload();
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        BinaryCodec.Encoder encoder = binarySessions.get(accessor.getSessionId());
+        byte[] bytes;
+        if (encoder != null && BinaryCodec.supports(payload.getValue())) {
+            bytes = encoder.encode(payload.getValue());
+            accessor.setContentType(BinaryMessageConverter.BINARY);
+        } else {
+            bytes = payload.getJson(json);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        }
+        return MessageBuilder.createMessage(bytes, accessor.getMessageHeaders());
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent e) {
+        binarySessions.remove(e.getSessionId());
+    }
+
+    /**
+     * Game update which is encoded separately for every session, see {@link WireFormatInterceptor}
+     */
+    static class OutboundPayload {
+
+        private final Object value;
+        private volatile byte[] json;
+
+        OutboundPayload(Object value) {
+            this.value = value;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        byte[] getJson(MappingJackson2MessageConverter converter) {
+            byte[] bytes = json;
+            if (bytes == null) {
+                Message<?> message = converter.toMessage(value, new MessageHeaders(null));
+                json = bytes = (byte[]) message.getPayload();
+            }
+            return bytes;
+        }
+    }
+}
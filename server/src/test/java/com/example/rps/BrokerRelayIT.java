@@ -0,0 +1,208 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs 2 nodes in the same JVM, first one starts embedded broker and the second one relays to it
+ *
+ * @author Beka Tsotsoria
+ */
+public class BrokerRelayIT {
+
+    private static final int ROUNDS = 1000;
+    private static final String LOGIN = "theNode";
+    private static final String PASSCODE = "thePasscode";
+
+    private final Logger log = LoggerFactory.getLogger(BrokerRelayIT.class);
+
+    private int brokerPort;
+    private ConfigurableApplicationContext brokerNode;
+    private ConfigurableApplicationContext relayNode;
+    private WebSocketStompClient stompClient;
+
+    @Before
+    public void setUp() throws Exception {
+        brokerPort = freePort();
+        brokerNode = startNode("--rps.broker.mode=EMBEDDED", "--rps.broker.port=" + brokerPort,
+            "--rps.broker.login=" + LOGIN, "--rps.broker.passcode=" + PASSCODE);
+        relayNode = startNode("--rps.broker.mode=RELAY", "--rps.broker.port=" + brokerPort,
+            "--rps.broker.login=" + LOGIN, "--rps.broker.passcode=" + PASSCODE);
+        stompClient = new WebSocketStompClient(new SockJsClient(
+            Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @After
+    public void tearDown() {
+        if (relayNode != null) {
+            relayNode.close();
+        }
+        if (brokerNode != null) {
+            brokerNode.close();
+        }
+    }
+
+    @Test
+    public void gamesCreatedOnOneNodeShouldBeBroadcastToSubscribersOfAnotherNode() throws Exception {
+        StompSession subscriber = startSession(relayNode);
+        LatencyHandler ready = new LatencyHandler();
+        subscriber.subscribe("/topic/bench", ready);
+        awaitSubscription(ready);
+
+        BlockingQueue<Set<?>> games = new LinkedBlockingQueue<>();
+        subscriber.subscribe("/topic/games", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Set.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                games.add((Set<?>) payload);
+            }
+        });
+        awaitSubscription(ready);
+
+        startSession(brokerNode).send("/game/create", "theGame");
+
+        assertThat(games.poll(5, SECONDS)).containsExactly("theGame");
+    }
+
+    @Test
+    public void brokerShouldRejectConnectionsWithOtherCredentials() throws Exception {
+        assertThat(connectToBroker(LOGIN, PASSCODE)).startsWith("CONNECTED");
+        assertThat(connectToBroker("guest", "guest")).startsWith("ERROR");
+    }
+
+    @Test
+    public void embeddedBrokerShouldRefuseDefaultPasscodeOnNonLoopbackAddress() throws Exception {
+        EmbeddedBroker broker = new EmbeddedBroker("0.0.0.0", freePort(), "guest", "guest");
+
+        assertThatThrownBy(broker::start).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void crossNodeDeliveryLatency() throws Exception {
+        StompSession subscriber = startSession(relayNode);
+        LatencyHandler handler = new LatencyHandler();
+        subscriber.subscribe("/topic/bench", handler);
+        awaitSubscription(handler);
+
+        SimpMessagingTemplate publisher = brokerNode.getBean(SimpMessagingTemplate.class);
+        long[] latencies = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            publisher.convertAndSend("/topic/bench", System.nanoTime());
+            Long latency = handler.latencies.poll(5, SECONDS);
+            assertThat(latency).isNotNull();
+            latencies[i] = latency;
+        }
+
+        Arrays.sort(latencies);
+        log.info(String.format("Cross-node delivery latency of %d messages: p50 %d us, p99 %d us, max %d us", ROUNDS,
+            TimeUnit.NANOSECONDS.toMicros(latencies[ROUNDS / 2]),
+            TimeUnit.NANOSECONDS.toMicros(latencies[ROUNDS * 99 / 100]),
+            TimeUnit.NANOSECONDS.toMicros(latencies[ROUNDS - 1])));
+    }
+
+    /**
+     * Subscriptions are relayed to the broker asynchronously, publishes until subscriber receives message
+     */
+    private void awaitSubscription(LatencyHandler handler) throws InterruptedException {
+        SimpMessagingTemplate publisher = brokerNode.getBean(SimpMessagingTemplate.class);
+        for (int attempt = 0; attempt < 100; attempt++) {
+            publisher.convertAndSend("/topic/bench", System.nanoTime());
+            if (handler.latencies.poll(100, TimeUnit.MILLISECONDS) != null) {
+                Thread.sleep(100);
+                handler.latencies.clear();
+                return;
+            }
+        }
+        throw new AssertionError("Subscription was not relayed to broker");
+    }
+
+    /**
+     * Sends STOMP CONNECT frame directly to embedded broker and returns its response
+     */
+    private String connectToBroker(String login, String passcode) throws IOException {
+        try (Socket socket = new Socket("localhost", brokerPort)) {
+            socket.setSoTimeout(5000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("CONNECT\naccept-version:1.2\nhost:localhost\nlogin:" + login + "\npasscode:" + passcode + "\n\n\0")
+                .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            StringBuilder response = new StringBuilder();
+            for (int b = in.read(); b > 0; b = in.read()) {
+                response.append((char) b);
+            }
+            return response.toString();
+        }
+    }
+
+    private StompSession startSession(ConfigurableApplicationContext node) throws Exception {
+        int port = ((EmbeddedWebApplicationContext) node).getEmbeddedServletContainer().getPort();
+        return stompClient.connect("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(5, SECONDS);
+    }
+
+    private static ConfigurableApplicationContext startNode(String... args) {
+        String[] common = {"--server.port=0", "--spring.jmx.enabled=false", "--endpoints.jmx.enabled=false"};
+        String[] all = Arrays.copyOf(common, common.length + args.length);
+        System.arraycopy(args, 0, all, common.length, args.length);
+        return Server.start(all);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static class LatencyHandler implements StompFrameHandler {
+
+        private final BlockingQueue<Long> latencies = new LinkedBlockingQueue<>();
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Long.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            latencies.add(System.nanoTime() - (Long) payload);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Runs several nodes in the same JVM, the first one starts embedded broker and others relay to it,
+ * so that players connected to any node receive updates of games owned by other nodes
+ *
+ * @author Beka Tsotsoria
+ */
+public class ClusterIT {
+
+    private static final int GAMES = 30;
+    private static final String SECRET = "theSecret";
+
+    private final RestTemplate rest = new RestTemplate();
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+    private int brokerPort;
+    private WebSocketStompClient stompClient;
+
+    @Before
+    public void setUp() throws Exception {
+        brokerPort = freePort();
+        rest.setInterceptors(Arrays.asList(Cluster.secretInterceptor(SECRET)));
+        stompClient = new WebSocketStompClient(new SockJsClient(
+            Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @After
+    public void tearDown() {
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            if (nodes.get(i).isActive()) {
+                nodes.get(i).close();
+            }
+        }
+    }
+
+    @Test
+    public void gamesShouldBePartitionedAcrossNodes() throws Exception {
+        startNodes(3);
+        StompSession session = startSession(urls.get(0));
+
+        for (int i = 0; i < GAMES; i++) {
+            session.send("/game/create", "game-" + i);
+        }
+
+        awaitOwnership(urls, GAMES);
+        for (String url : urls) {
+            assertThat(localGames(url)).isNotEmpty();
+        }
+        assertThat(rest.getForObject(urls.get(1) + "/cluster/nodes", Set.class)).hasSize(3);
+    }
+
+    @Test
+    public void requestsWithoutSecretShouldBeRejected() throws Exception {
+        startNodes(1);
+        RestTemplate outsider = new RestTemplate();
+        outsider.setInterceptors(Arrays.asList(Cluster.secretInterceptor("wrongSecret")));
+
+        Throwable withoutSecret = catchThrowable(() -> new RestTemplate().postForObject(urls.get(0) + "/cluster/nodes", "http://localhost:1", Void.class));
+        Throwable withWrongSecret = catchThrowable(() -> outsider.delete(urls.get(0) + "/cluster/games/theGame/players/thePlayer"));
+
+        assertThat(((HttpClientErrorException) withoutSecret).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(((HttpClientErrorException) withWrongSecret).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(rest.getForObject(urls.get(0) + "/cluster/nodes", Set.class)).hasSize(1);
+    }
+
+    @Test
+    public void playersConnectedToDifferentNodesShouldPlayTheSameGame() throws Exception {
+        startNodes(3);
+        ConsistentHashRing ring = new ConsistentHashRing(urls);
+        String owner = ring.ownerOf("theGame");
+        List<String> others = new ArrayList<>(urls);
+        others.remove(owner);
+
+        StompSession session1 = startSession(others.get(0));
+        StompSession session2 = startSession(others.get(1));
+        session1.send("/game/create", "theGame");
+        await(() -> localGames(owner).contains("theGame"));
+
+        CompletableFuture<RoundResult> result = new CompletableFuture<>();
+        session1.subscribe("/topic/game/theGame/result", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return RoundResult.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                result.complete((RoundResult) payload);
+            }
+        });
+        // Subscription is relayed to broker asynchronously
+        Thread.sleep(500);
+        session1.send("/game/theGame/join", "thePlayer1");
+        session2.send("/game/theGame/join", "thePlayer2");
+        session1.send("/game/theGame/move/thePlayer1", "paper");
+        session2.send("/game/theGame/move/thePlayer2", "rock");
+
+        RoundResult roundResult = result.get(5, SECONDS);
+        assertThat(roundResult.getWinnerIds()).containsExactly("thePlayer1");
+    }
+
+    @Test
+    public void gamesShouldMoveWhenNodeJoinsAndLeaves() throws Exception {
+        startNodes(2);
+        StompSession session = startSession(urls.get(0));
+        for (int i = 0; i < GAMES; i++) {
+            session.send("/game/create", "game-" + i);
+        }
+        awaitOwnership(urls, GAMES);
+
+        startNode();
+        awaitOwnership(urls, GAMES);
+        assertThat(localGames(urls.get(2))).isNotEmpty();
+
+        nodes.get(2).close();
+        List<String> remaining = urls.subList(0, 2);
+        awaitOwnership(remaining, GAMES);
+    }
+
+    @Test
+    public void nodesShouldLearnMembersFromSingleSeed() throws Exception {
+        startNode();
+        String seed = urls.get(0);
+        startNode(seed);
+        startNode(seed);
+        for (String url : urls) {
+            await(() -> rest.getForObject(url + "/cluster/nodes", Set.class).size() == 3);
+        }
+
+        StompSession session = startSession(urls.get(1));
+        for (int i = 0; i < GAMES; i++) {
+            session.send("/game/create", "game-" + i);
+        }
+        awaitOwnership(urls, GAMES);
+    }
+
+    @Test
+    public void clusterShouldNotStartWithSimpleBroker() throws Exception {
+        Throwable failure = catchThrowable(() -> Server.start(new String[]{
+            "--server.port=" + freePort(),
+            "--spring.jmx.enabled=false",
+            "--endpoints.jmx.enabled=false",
+            "--rps.cluster.self=http://localhost:1",
+            "--rps.cluster.secret=" + SECRET}));
+
+        assertThat(failure).hasStackTraceContaining("Cluster requires rps.broker.mode RELAY or EMBEDDED");
+    }
+
+    /**
+     * Waits until every game is owned by node computed by the ring of specified nodes
+     */
+    private void awaitOwnership(List<String> members, int games) throws InterruptedException {
+        ConsistentHashRing ring = new ConsistentHashRing(members);
+        await(() -> {
+            Map<String, Set<String>> owned = new HashMap<>();
+            int total = 0;
+            for (String url : members) {
+                Set<String> local = localGames(url);
+                owned.put(url, local);
+                total += local.size();
+            }
+            if (total != games) {
+                return false;
+            }
+            for (int i = 0; i < games; i++) {
+                if (!owned.get(ring.ownerOf("game-" + i)).contains("game-" + i)) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Condition was not met in time");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> localGames(String url) {
+        return new HashSet<>(rest.getForObject(url + "/cluster/games", List.class));
+    }
+
+    private void startNodes(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            startNode();
+        }
+        for (String url : urls) {
+            await(() -> rest.getForObject(url + "/cluster/nodes", Set.class).size() == count);
+        }
+    }
+
+    private void startNode() throws IOException {
+        startNode(String.join(",", urls));
+    }
+
+    /**
+     * @param seeds comma separated URLs of nodes the new node knows about
+     */
+    private void startNode(String seeds) throws IOException {
+        int port = freePort();
+        String url = "http://localhost:" + port;
+        String brokerMode = nodes.isEmpty() ? "EMBEDDED" : "RELAY";
+        nodes.add(Server.start(new String[]{
+            "--server.port=" + port,
+            "--spring.jmx.enabled=false",
+            "--endpoints.jmx.enabled=false",
+            "--rps.broker.mode=" + brokerMode,
+            "--rps.broker.port=" + brokerPort,
+            "--rps.cluster.self=" + url,
+            "--rps.cluster.secret=" + SECRET,
+            // Own URL is ignored, so the first node can be started with the same arguments
+            "--rps.cluster.nodes=" + seeds + "," + url,
+            "--rps.cluster.heartbeat-millis=200"}));
+        urls.add(url);
+    }
+
+    private StompSession startSession(String url) throws Exception {
+        return stompClient.connect(url.replace("http", "ws") + "/ws", new StompSessionHandlerAdapter() {
+        }).get(5, SECONDS);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@RunWith(SpringRunner.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RawEndpointIT {
+
+    private static final int WARMUP_ROUNDS = 500;
+    private static final int ROUNDS = 2000;
+
+    private final Logger log = LoggerFactory.getLogger(RawEndpointIT.class);
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private GameController controller;
+
+    private WebSocketStompClient stompClient;
+    private RawPlayer player1;
+    private RawPlayer player2;
+
+    @Before
+    public void setUp() throws Exception {
+        stompClient = new WebSocketStompClient(new SockJsClient(
+            Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()))));
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        player1 = new RawPlayer();
+        player2 = new RawPlayer();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        player1.close();
+        player2.close();
+    }
+
+    @Test
+    public void rawPlayersShouldPlayRound() throws Exception {
+        player1.send(BinaryCodec.Command.join("theGame", "thePlayer1"));
+        assertThat(player1.receive()).isEqualTo(Arrays.asList("thePlayer1"));
+        player2.send(BinaryCodec.Command.join("theGame", "thePlayer2"));
+        assertThat(player1.receive()).isEqualTo(Arrays.asList("thePlayer1", "thePlayer2"));
+
+        player1.send(BinaryCodec.Command.move("paper"));
+        player2.send(BinaryCodec.Command.move("rock"));
+
+        RoundResult result = (RoundResult) player2.receiveAfter(RoundResult.class);
+        assertThat(result.getWinnerIds()).containsExactly("thePlayer1");
+        assertThat(result.getWeaponUsed("thePlayer2")).isEqualTo("rock");
+    }
+
+    @Test
+    public void rawAndStompPlayersShouldPlayTheSameGame() throws Exception {
+        player1.send(BinaryCodec.Command.join("theGame", "thePlayer1"));
+        player1.receive();
+        StompSession session = startSession();
+        BlockingQueue<RoundResult> results = subscribeToResults(session, "theGame");
+
+        session.send("/game/theGame/join", "thePlayer2");
+        player1.send(BinaryCodec.Command.move("rock"));
+        session.send("/game/theGame/move/thePlayer2", "scissors");
+
+        RoundResult stompResult = results.poll(3, SECONDS);
+        RoundResult rawResult = (RoundResult) player1.receiveAfter(RoundResult.class);
+        assertThat(stompResult.getWinnerIds()).containsExactly("thePlayer1");
+        assertThat(rawResult.getWinnerIds()).containsExactly("thePlayer1");
+    }
+
+    @Test
+    public void playerShouldLeaveGameWhenConnectionIsClosed() throws Exception {
+        player1.send(BinaryCodec.Command.join("theGame", "thePlayer1"));
+        player1.receive();
+        player2.send(BinaryCodec.Command.join("theGame", "thePlayer2"));
+        player1.receive();
+
+        player2.close();
+
+        assertThat(player1.receive()).isEqualTo(Arrays.asList("thePlayer1"));
+    }
+
+    @Test
+    public void sessionSendingFrameOtherThanCommandShouldBeClosed() throws Exception {
+        player1.sendRaw(new BinaryCodec.Encoder().encode(Arrays.asList("thePlayer1")));
+
+        long deadline = System.nanoTime() + SECONDS.toNanos(3);
+        while (player1.isOpen() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(player1.isOpen()).isFalse();
+    }
+
+    /**
+     * Measures time from sending a move until result of the round is received, opponent is a bot which moves instantly
+     */
+    @Test
+    public void moveToResultLatency() throws Exception {
+        player1.send(BinaryCodec.Command.join("rawGame", "thePlayer"));
+        player1.receive();
+        controller.joinLocalGame("rawGame", "theBot", true);
+        long[] raw = measure(() -> {
+            player1.send(BinaryCodec.Command.move("rock"));
+            player1.receiveAfter(RoundResult.class);
+        });
+
+        StompSession session = startSession();
+        session.send("/game/create", "stompGame");
+        Thread.sleep(50);
+        BlockingQueue<RoundResult> results = subscribeToResults(session, "stompGame");
+        session.send("/game/stompGame/join", "thePlayer");
+        Thread.sleep(50);
+        controller.joinLocalGame("stompGame", "theBot", true);
+        long[] stomp = measure(() -> {
+            session.send("/game/stompGame/move/thePlayer", "rock");
+            assertThat(results.poll(3, SECONDS)).isNotNull();
+        });
+
+        log.info(String.format("Move to result latency of %d rounds: raw p50 %d us, p99 %d us; STOMP p50 %d us, p99 %d us",
+            ROUNDS, micros(raw, 50), micros(raw, 99), micros(stomp, 50), micros(stomp, 99)));
+    }
+
+    private long[] measure(Round round) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.play();
+        }
+        long[] latencies = new long[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            round.play();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long micros(long[] sortedLatencies, int percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[sortedLatencies.length * percentile / 100]);
+    }
+
+    private BlockingQueue<RoundResult> subscribeToResults(StompSession session, String game) throws InterruptedException {
+        BlockingQueue<RoundResult> results = new LinkedBlockingQueue<>();
+        session.subscribe("/topic/game/" + game + "/result", new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return RoundResult.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                results.add((RoundResult) payload);
+            }
+        });
+        Thread.sleep(50);
+        return results;
+    }
+
+    private StompSession startSession() throws Exception {
+        return stompClient.connect("ws://localhost:" + port + "/ws", new StompSessionHandlerAdapter() {
+        }).get(1, SECONDS);
+    }
+
+    private interface Round {
+
+        void play() throws Exception;
+    }
+
+    /**
+     * Player connected to raw endpoint, frames are decoded in the order they are received
+     */
+    private class RawPlayer extends BinaryWebSocketHandler {
+
+        private final BinaryCodec.Encoder encoder = new BinaryCodec.Encoder();
+        private final BinaryCodec.Decoder decoder = new BinaryCodec.Decoder();
+        private final BlockingQueue<Object> received = new LinkedBlockingQueue<>();
+        private final WebSocketSession session;
+
+        RawPlayer() throws Exception {
+            session = new StandardWebSocketClient().doHandshake(this, "ws://localhost:" + port + "/raw").get(1, SECONDS);
+        }
+
+        void send(BinaryCodec.Command command) throws Exception {
+            session.sendMessage(new BinaryMessage(encoder.encode(command)));
+        }
+
+        void sendRaw(byte[] frame) throws Exception {
+            session.sendMessage(new BinaryMessage(frame));
+        }
+
+        boolean isOpen() {
+            return session.isOpen();
+        }
+
+        Object receive() throws InterruptedException {
+            Object payload = received.poll(3, SECONDS);
+            assertThat(payload).isNotNull();
+            return payload;
+        }
+
+        /**
+         * Skips updates until one of specified type is received
+         */
+        Object receiveAfter(Class<?> type) throws InterruptedException {
+            Object payload = receive();
+            while (!type.isInstance(payload)) {
+                payload = receive();
+            }
+            return payload;
+        }
+
+        void close() throws Exception {
+            if (session.isOpen()) {
+                session.close();
+            }
+        }
+
+        @Override
+        protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+            ByteBuffer payload = message.getPayload();
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            received.add(decoder.decode(bytes));
+        }
+    }
+}
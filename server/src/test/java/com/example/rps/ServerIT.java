@@ -4,16 +4,24 @@ package com.example.rps;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.converter.CompositeMessageConverter;
 import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.StringMessageConverter;
 import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 import org.springframework.web.socket.sockjs.client.SockJsClient;
@@ -22,6 +30,7 @@ import org.springframework.web.socket.sockjs.client.WebSocketTransport;
 import java.lang.reflect.Type;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
 
@@ -43,6 +52,12 @@ public class ServerIT {
 
     private WebSocketStompClient stompClient;
 
+    @Autowired
+    private TestRestTemplate rest;
+
+    @Autowired
+    private GameController controller;
+
     @Before
     public void setUp() throws Exception {
         url = "ws://localhost:" + port + "/ws";
@@ -260,17 +275,134 @@ public class ServerIT {
         assertThat(result.getWeaponUsed("thePlayer1")).isEqualTo("paper");
     }
 
+    @Test
+    public void binaryAndJsonSessionsShouldReceiveTheSameRound() throws Exception {
+        StompSession jsonSession = startSession();
+        createGame(jsonSession, "theGame");
+        StompSession binarySession = startBinarySession();
+
+        ListHandler playersHandler = new ListHandler();
+        binarySession.subscribe("/topic/game/theGame/players", playersHandler);
+        RoundHandler jsonHandler = new RoundHandler();
+        jsonSession.subscribe("/topic/game/theGame/result", jsonHandler);
+        RoundHandler binaryHandler = new RoundHandler();
+        binarySession.subscribe("/topic/game/theGame/result", binaryHandler);
+        Thread.sleep(50);
+
+        jsonSession.send("/game/theGame/join", "thePlayer1");
+        binarySession.send("/game/theGame/join", "thePlayer2");
+        jsonSession.send("/game/theGame/move/thePlayer1", "paper");
+        binarySession.send("/game/theGame/move/thePlayer2", "rock");
+
+        assertThat(playersHandler.awaitPlayers("thePlayer1", "thePlayer2")).containsOnly("thePlayer1", "thePlayer2");
+        RoundResult binaryResult = binaryHandler.getResult();
+        assertThat(binaryResult.getWinnerIds()).containsExactly("thePlayer1");
+        assertThat(binaryResult.getWeaponUsed("thePlayer2")).isEqualTo("rock");
+        assertThat(jsonHandler.getResult().getWinnerIds()).isEqualTo(binaryResult.getWinnerIds());
+        assertThat(binaryHandler.getContentType()).isEqualTo(BinaryMessageConverter.BINARY);
+        assertThat(jsonHandler.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+    }
+
+    @Test
+    public void matchedGameShouldBeRemovedWhenBothPlayersLeave() throws Exception {
+        // Matchmaker sends name of the game as plain text
+        stompClient.setMessageConverter(new CompositeMessageConverter(Arrays.asList(
+            new StringMessageConverter(), new MappingJackson2MessageConverter())));
+        StompSession session1 = startSession();
+        StompSession session2 = startSession();
+        CompletableFuture<String> match1 = subscribeToMatch(session1, "thePlayer1");
+        CompletableFuture<String> match2 = subscribeToMatch(session2, "thePlayer2");
+
+        session1.send("/game/matchmaking/join", "thePlayer1");
+        session2.send("/game/matchmaking/join", "thePlayer2");
+        String game = match1.get(3, SECONDS);
+        assertThat(match2.get(3, SECONDS)).isEqualTo(game);
+        assertThat(controller.getLocalGames()).contains(game);
+
+        session1.send("/game/" + game + "/leave", "thePlayer1");
+        Thread.sleep(100);
+        assertThat(controller.getLocalGames()).contains(game);
+        session2.disconnect();
+
+        long deadline = System.currentTimeMillis() + 3000;
+        while (controller.getLocalGames().contains(game) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(controller.getLocalGames()).doesNotContain(game);
+    }
+
+    @Test
+    public void playersShouldNotCreateGamesNamedAsMatchedGames() throws Exception {
+        StompSession session = startSession();
+
+        createGame(session, Matchmaker.GAME_PREFIX + "theGame");
+
+        assertThat(controller.getLocalGames()).doesNotContain(Matchmaker.GAME_PREFIX + "theGame");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldExposeRoundSchedulerMetrics() throws Exception {
+        Map<String, Object> metrics = rest.getForObject("/metrics", Map.class);
+
+        assertThat(metrics).containsKeys("rps.scheduler.games.active", "rps.scheduler.rounds.queued",
+            "rps.scheduler.rounds.completed", "rps.scheduler.rounds.rate");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldExposeLeaderboardMetrics() throws Exception {
+        Map<String, Object> metrics = rest.getForObject("/metrics", Map.class);
+
+        assertThat(metrics).containsKeys("rps.leaderboard.rounds.pending", "rps.leaderboard.rounds.overflowed");
+    }
+
+    @Test
+    public void otherActuatorEndpointsShouldRequireAuthentication() throws Exception {
+        assertThat(rest.getForEntity("/env", String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(rest.getForEntity("/beans", String.class).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
     private void createGame(StompSession session, String name) throws InterruptedException {
         session.send("/game/create", name);
         Thread.sleep(50);
     }
 
+    private CompletableFuture<String> subscribeToMatch(StompSession session, String playerId) throws InterruptedException {
+        CompletableFuture<String> game = new CompletableFuture<>();
+        session.subscribe("/topic/matchmaking/" + playerId, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                game.complete((String) payload);
+            }
+        });
+        Thread.sleep(50);
+        return game;
+    }
+
     private StompSession startSession() throws InterruptedException, ExecutionException, TimeoutException {
         return stompClient.connect(url,
             new StompSessionHandlerAdapter() {
             }).get(1, SECONDS);
     }
 
+    private StompSession startBinarySession() throws InterruptedException, ExecutionException, TimeoutException {
+        WebSocketStompClient binaryClient = new WebSocketStompClient(new SockJsClient(
+            Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()))));
+        binaryClient.setMessageConverter(new CompositeMessageConverter(Arrays.asList(
+            new BinaryMessageConverter(), new MappingJackson2MessageConverter())));
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add(BinaryCodec.FORMAT_HEADER, BinaryCodec.FORMAT_BINARY);
+        return binaryClient.connect(url, new WebSocketHttpHeaders(), connectHeaders,
+            new StompSessionHandlerAdapter() {
+            }).get(1, SECONDS);
+    }
+
     private class SetHandler implements StompFrameHandler {
 
         private volatile CompletableFuture<Set<String>> future = new CompletableFuture<>();
@@ -298,7 +430,7 @@ public class ServerIT {
     private class ListHandler implements StompFrameHandler {
 
         private CompletableFuture<List<String>> future = new CompletableFuture<>();
-        private List<List<String>> all = new ArrayList<>();
+        private List<List<String>> all = new CopyOnWriteArrayList<>();
 
         @Override
         public Type getPayloadType(StompHeaders headers) {
@@ -317,6 +449,23 @@ public class ServerIT {
             return future.get(3, SECONDS);
         }
 
+        /**
+         * Waits until list which contains all specified players is received, lists are sent as players join
+         * one by one, so the first one may not have all of them yet
+         */
+        public List<String> awaitPlayers(String... playerIds) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 3000;
+            while (System.currentTimeMillis() < deadline) {
+                for (List<String> players : all) {
+                    if (players.containsAll(Arrays.asList(playerIds))) {
+                        return players;
+                    }
+                }
+                Thread.sleep(10);
+            }
+            throw new AssertionError("No list of players contains " + Arrays.toString(playerIds) + ", received " + all);
+        }
+
         public List<List<String>> getAll() {
             return all;
         }
@@ -325,6 +474,7 @@ public class ServerIT {
     private class RoundHandler implements StompFrameHandler {
 
         private CompletableFuture<RoundResult> future = new CompletableFuture<>();
+        private volatile MimeType contentType;
 
         @Override
         public Type getPayloadType(StompHeaders headers) {
@@ -333,11 +483,16 @@ public class ServerIT {
 
         @Override
         public void handleFrame(StompHeaders headers, Object payload) {
+            contentType = headers.getContentType();
             future.complete((RoundResult) payload);
         }
 
         public RoundResult getResult() throws InterruptedException, ExecutionException, TimeoutException {
             return future.get(3, SECONDS);
         }
+
+        public MimeType getContentType() {
+            return contentType;
+        }
     }
 }
@@ -0,0 +1,98 @@
+package com.example.rps;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class SessionOrderedTaskExecutorIT {
+
+    private final Logger log = LoggerFactory.getLogger(SessionOrderedTaskExecutorIT.class);
+
+    /**
+     * Sessions are served by the whole pool, so throughput of CPU bound frames should grow with number of
+     * threads up to number of cores. Depends on the machine, so it is only logged
+     */
+    @Test
+    public void throughputByNumberOfThreads() throws Exception {
+        int cores = Runtime.getRuntime().availableProcessors();
+        // Warms up JIT
+        throughput(1);
+        double single = throughput(1);
+        double all = cores > 1 ? throughput(cores) : single;
+
+        log.info(String.format("Throughput of %d threads is %.2f times throughput of single thread", cores, all / single));
+    }
+
+    private double throughput(int threads) throws Exception {
+        int sessions = 64;
+        int messages = 1000;
+        ObjectMapper json = new ObjectMapper();
+        RoundResult result = new RoundResult(Arrays.asList(
+            new PlayerResult("thePlayer1", "rock", true, 10),
+            new PlayerResult("thePlayer2", "scissors", false, 5)), 15);
+        SessionOrderedTaskExecutor pool = new SessionOrderedTaskExecutor();
+        pool.setCorePoolSize(threads);
+        pool.initialize();
+        try {
+            CountDownLatch done = new CountDownLatch(sessions * messages);
+            long start = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                for (int s = 0; s < sessions; s++) {
+                    pool.execute(task("session-" + s, () -> {
+                        try {
+                            json.writeValueAsBytes(result);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        done.countDown();
+                    }));
+                }
+            }
+            assertThat(done.await(60, TimeUnit.SECONDS)).isTrue();
+            double rate = sessions * messages / ((System.nanoTime() - start) / 1e9);
+            log.info(String.format("%d threads: %.0f frames/s", threads, rate));
+            return rate;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static MessageHandlingRunnable task(String sessionId, Runnable action) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+        return new MessageHandlingRunnable() {
+            @Override
+            public Message<?> getMessage() {
+                return message;
+            }
+
+            @Override
+            public MessageHandler getMessageHandler() {
+                return m -> action.run();
+            }
+
+            @Override
+            public void run() {
+                action.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.rps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Beka Tsotsoria
+ */
+public class SessionOrderedTaskExecutorTest {
+
+    private SessionOrderedTaskExecutor executor;
+
+    @Before
+    public void setUp() {
+        executor = new SessionOrderedTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.initialize();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void messagesOfSameSessionShouldBeHandledInOrder() throws Exception {
+        int sessions = 8;
+        int messages = 1000;
+        Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(sessions * messages);
+        for (int i = 0; i < messages; i++) {
+            for (int s = 0; s < sessions; s++) {
+                String sessionId = "session-" + s;
+                int sequence = i;
+                executor.execute(task(sessionId, () -> {
+                    handled.computeIfAbsent(sessionId, id -> Collections.synchronizedList(new ArrayList<>())).add(sequence);
+                    done.countDown();
+                }));
+            }
+        }
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(handled).hasSize(sessions);
+        for (List<Integer> sequences : handled.values()) {
+            assertThat(sequences).hasSize(messages).isSorted();
+        }
+        assertThat(executor.getActiveSessions()).isEqualTo(0);
+    }
+
+    @Test
+    public void slowSessionShouldNotBlockOtherSessions() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(1);
+        executor.execute(task("slow", () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        executor.execute(task("fast", handled::countDown));
+
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    public void failedMessageShouldNotStopSubsequentMessagesOfSession() throws Exception {
+        CountDownLatch handled = new CountDownLatch(1);
+        executor.execute(task("john", () -> {
+            throw new IllegalStateException("Game does not exist");
+        }));
+        executor.execute(task("john", handled::countDown));
+
+        assertThat(handled.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void sessionOverLimitShouldLoseOnlySupersededGameUpdates() throws Exception {
+        SessionOrderedTaskExecutor limited = new SessionOrderedTaskExecutor(2);
+        limited.setCorePoolSize(2);
+        limited.initialize();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<String> handled = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch done = new CountDownLatch(3);
+            limited.execute(task("slow", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.add("receipt");
+                done.countDown();
+            }));
+            for (int i = 1; i <= 3; i++) {
+                String players = "players" + i;
+                limited.execute(update("slow", "/topic/game/theGame/players", () -> {
+                    handled.add(players);
+                    done.countDown();
+                }));
+            }
+            release.countDown();
+
+            assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(50);
+            assertThat(handled).containsExactly("receipt", "players2", "players3");
+            assertThat(limited.getSupersededMessages()).isEqualTo(1);
+            assertThat(limited.getSlowSessions()).isZero();
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    public void sessionOverLimitWithNothingToSupersedeShouldBeClosed() throws Exception {
+        SessionOrderedTaskExecutor limited = new SessionOrderedTaskExecutor(2);
+        List<String> closed = new CopyOnWriteArrayList<>();
+        limited.setSlowSessionHandler(closed::add);
+        limited.setCorePoolSize(2);
+        limited.initialize();
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Integer> handled = Collections.synchronizedList(new ArrayList<>());
+            limited.execute(task("slow", () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                handled.add(0);
+            }));
+            for (int i = 1; i <= 4; i++) {
+                int sequence = i;
+                limited.execute(update("slow", "/game/theGame/scores", () -> handled.add(sequence)));
+            }
+            CountDownLatch fast = new CountDownLatch(1);
+            limited.execute(task("fast", fast::countDown));
+            release.countDown();
+
+            assertThat(fast.await(5, TimeUnit.SECONDS)).isTrue();
+            Thread.sleep(100);
+            assertThat(closed).containsExactly("slow");
+            assertThat(handled).containsExactly(0);
+            assertThat(limited.getSlowSessions()).isEqualTo(1);
+
+            // Frames which come before session gets closed must not be delivered either
+            limited.execute(update("slow", "/game/theGame/scores", () -> handled.add(5)));
+            Thread.sleep(100);
+            assertThat(handled).containsExactly(0);
+
+            limited.sessionClosed("slow");
+            assertThat(limited.getActiveSessions()).isZero();
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    private static MessageHandlingRunnable task(String sessionId, Runnable action) {
+        return task(SimpMessageHeaderAccessor.create(), sessionId, action);
+    }
+
+    private static MessageHandlingRunnable update(String sessionId, String destination, Runnable action) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setDestination(destination);
+        headers.setSubscriptionId("sub-0");
+        return task(headers, sessionId, action);
+    }
+
+    private static MessageHandlingRunnable task(SimpMessageHeaderAccessor headers, String sessionId, Runnable action) {
+        headers.setSessionId(sessionId);
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+        return new MessageHandlingRunnable() {
+            @Override
+            public Message<?> getMessage() {
+                return message;
+            }
+
+            @Override
+            public MessageHandler getMessageHandler() {
+                return m -> action.run();
+            }
+
+            @Override
+            public void run() {
+                action.run();
+            }
+        };
+    }
+}